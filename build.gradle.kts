@@ -4,6 +4,7 @@ plugins {
     `maven-publish`
     id("com.github.johnrengelman.shadow") version "7.1.2"
     id("com.github.hierynomus.license-base") version "0.16.1"
+    id("me.champeau.jmh") version "0.6.8"
 }
 
 group = "io.github.pulsebeat02"
@@ -14,7 +15,9 @@ repositories {
 }
 
 dependencies {
-    implementation("me.lucko:jar-relocator:1.6")
+    implementation("org.ow2.asm:asm:9.4")
+    implementation("org.ow2.asm:asm-commons:9.4")
+    testImplementation("org.junit.jupiter:junit-jupiter:5.9.2")
 }
 
 sourceSets {
@@ -28,6 +31,13 @@ sourceSets {
     }
 }
 
+jmh {
+    jmhVersion.set("1.36")
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+}
+
 tasks {
     java {
         sourceCompatibility = JavaVersion.VERSION_1_8
@@ -40,12 +50,14 @@ tasks {
     shadowJar {
         archiveBaseName.set("emc-dependency-management-all")
         archiveClassifier.set("")
-        relocate("me.lucko", "io.github.pulsebeat02.emcdependencymanagement.lib.lucko")
         relocate("org.objectweb", "io.github.pulsebeat02.emcdependencymanagement.lib.objectweb")
     }
     build {
         dependsOn(shadowJar)
     }
+    test {
+        useJUnitPlatform()
+    }
 }
 
 
@@ -0,0 +1,169 @@
+package io.github.pulsebeat02.emcdependencymanagement.benchmark;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/** Generates the files used by the benchmarks, so that they run offline and reproducibly. */
+final class BenchmarkFixtures {
+
+  private BenchmarkFixtures() {}
+
+  /**
+   * Creates a temporary folder, to be deleted with {@link #delete(Path)}.
+   *
+   * @return the folder
+   * @throws IOException if the folder could not be created
+   */
+  static Path createFolder() throws IOException {
+    return Files.createTempDirectory("emc-benchmark");
+  }
+
+  /**
+   * Writes a file of pseudo-random bytes, which are the same for every run.
+   *
+   * @param file the file
+   * @param size the size of the file in bytes
+   * @throws IOException if the file could not be written
+   */
+  static void writeRandomFile(final Path file, final long size) throws IOException {
+    final Random random = new Random(size);
+    final byte[] buffer = new byte[8192];
+    try (final OutputStream out = Files.newOutputStream(file)) {
+      for (long written = 0; written < size; written += buffer.length) {
+        random.nextBytes(buffer);
+        out.write(buffer, 0, (int) Math.min(buffer.length, size - written));
+      }
+    }
+  }
+
+  /**
+   * Writes a JAR of generated classes. Every class of a package references the first class of the
+   * next package, through a field, a method call, and a string constant, so that relocating any of
+   * the packages rewrites classes throughout the JAR.
+   *
+   * @param jar the JAR
+   * @param packages the packages of the classes, in internal form
+   * @param classes the number of classes per package
+   * @throws IOException if the JAR could not be written
+   */
+  static void writeJar(final Path jar, final List<String> packages, final int classes)
+      throws IOException {
+    try (final ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new ZipEntry("META-INF/MANIFEST.MF"));
+      out.write("Manifest-Version: 1.0\r\n\r\n".getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+      for (int i = 0; i < packages.size(); i++) {
+        final String target = String.format("%s/C0", packages.get((i + 1) % packages.size()));
+        for (int j = 0; j < classes; j++) {
+          final String name = String.format("%s/C%d", packages.get(i), j);
+          out.putNextEntry(new ZipEntry(String.format("%s.class", name)));
+          out.write(createClass(name, target));
+          out.closeEntry();
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes an artifact into a Maven repository folder, as a generated JAR with its SHA-1 checksum
+   * and a POM without dependencies.
+   *
+   * @param repository the root folder of the repository
+   * @param artifact the artifact
+   * @param packages the packages of the classes, in internal form
+   * @param classes the number of classes per package
+   * @throws IOException if the files could not be written
+   */
+  static void writeArtifact(
+      final Path repository,
+      final Artifact artifact,
+      final List<String> packages,
+      final int classes)
+      throws IOException {
+    final Path jar = repository.resolve(artifact.getRepositoryPath("jar"));
+    Files.createDirectories(jar.getParent());
+    writeJar(jar, packages, classes);
+    final Path checksum = jar.resolveSibling(String.format("%s.sha1", jar.getFileName()));
+    final String hash = FileUtils.getUppercaseHash(jar).toLowerCase(Locale.ROOT);
+    Files.write(checksum, hash.getBytes(StandardCharsets.UTF_8));
+    final String[] coordinates = artifact.getCoordinates().split(":");
+    final String pom =
+        String.format(
+            "<project><modelVersion>4.0.0</modelVersion><groupId>%s</groupId>"
+                + "<artifactId>%s</artifactId><version>%s</version></project>",
+            coordinates[0], coordinates[1], coordinates[2]);
+    final Path model = repository.resolve(artifact.getRepositoryPath("pom"));
+    Files.write(model, pom.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static byte[] createClass(final String name, final String target) {
+    final ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    writer.visit(
+        Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+    writer
+        .visitField(Opcodes.ACC_PUBLIC, "reference", String.format("L%s;", target), null, null)
+        .visitEnd();
+    final MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+    init.visitCode();
+    init.visitVarInsn(Opcodes.ALOAD, 0);
+    init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+    init.visitInsn(Opcodes.RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+    final MethodVisitor method =
+        writer.visitMethod(
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "target", "()Ljava/lang/String;", null, null);
+    method.visitCode();
+    method.visitLdcInsn(target.replace('/', '.'));
+    method.visitInsn(Opcodes.ARETURN);
+    method.visitMaxs(0, 0);
+    method.visitEnd();
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  /**
+   * Deletes a folder and everything inside it.
+   *
+   * @param folder the folder
+   * @throws IOException if the folder could not be deleted
+   */
+  static void delete(final Path folder) throws IOException {
+    if (Files.notExists(folder)) {
+      return;
+    }
+    Files.walkFileTree(
+        folder,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+              throws IOException {
+            Files.delete(file);
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult postVisitDirectory(final Path dir, final IOException exc)
+              throws IOException {
+            Files.delete(dir);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+}
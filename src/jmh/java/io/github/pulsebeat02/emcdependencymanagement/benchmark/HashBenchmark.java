@@ -0,0 +1,45 @@
+package io.github.pulsebeat02.emcdependencymanagement.benchmark;
+
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** Measures hashing a file with {@link FileUtils#getUppercaseHash(Path)}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashBenchmark {
+
+  @Param({"4096", "1048576", "33554432"})
+  public long size;
+
+  private Path folder;
+  private Path file;
+
+  @Setup
+  public void setup() throws IOException {
+    this.folder = BenchmarkFixtures.createFolder();
+    this.file = this.folder.resolve("file.bin");
+    BenchmarkFixtures.writeRandomFile(this.file, this.size);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFixtures.delete(this.folder);
+  }
+
+  @Benchmark
+  public String hash() {
+    return FileUtils.getUppercaseHash(this.file);
+  }
+}
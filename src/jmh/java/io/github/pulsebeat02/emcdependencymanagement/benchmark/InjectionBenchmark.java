@@ -0,0 +1,75 @@
+package io.github.pulsebeat02.emcdependencymanagement.benchmark;
+
+import io.github.pulsebeat02.emcdependencymanagement.injector.IndexedInjection;
+import io.github.pulsebeat02.emcdependencymanagement.injector.JarIndex;
+import io.github.pulsebeat02.emcdependencymanagement.injector.LoaderDelegation;
+import io.github.pulsebeat02.emcdependencymanagement.injector.UnsafeInjection;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures injecting generated JARs into a fresh class loader and looking up a class of the last
+ * JAR, either with every JAR on the class path or through a package index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InjectionBenchmark {
+
+  @Param({"10", "100"})
+  public int jars;
+
+  @Param({"false", "true"})
+  public boolean indexed;
+
+  private Path folder;
+  private List<Path> paths;
+  private String lookup;
+
+  @Setup
+  public void setup() throws IOException {
+    this.folder = BenchmarkFixtures.createFolder();
+    this.paths = new ArrayList<>();
+    for (int i = 0; i < this.jars; i++) {
+      final Path jar = this.folder.resolve(String.format("j%d.jar", i));
+      final String name = String.format("fixture/j%d", i);
+      BenchmarkFixtures.writeJar(jar, Collections.singletonList(name), 10);
+      this.paths.add(jar);
+    }
+    this.lookup = String.format("fixture.j%d.C0", this.jars - 1);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFixtures.delete(this.folder);
+  }
+
+  @Benchmark
+  public Class<?> injectAndLoad() throws Exception {
+    try (final URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+      if (!this.indexed) {
+        UnsafeInjection.ofInjection(this.paths, loader).inject();
+        return loader.loadClass(this.lookup);
+      }
+      try (final JarIndex index = JarIndex.ofIndex(this.paths)) {
+        IndexedInjection.ofInjection(index, loader, LoaderDelegation.PARENT_FIRST).inject();
+        return loader.loadClass(this.lookup);
+      }
+    }
+  }
+}
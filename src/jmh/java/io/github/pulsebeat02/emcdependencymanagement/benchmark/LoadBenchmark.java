@@ -0,0 +1,151 @@
+package io.github.pulsebeat02.emcdependencymanagement.benchmark;
+
+import io.github.pulsebeat02.emcdependencymanagement.EMCDepManagement;
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import io.github.pulsebeat02.emcdependencymanagement.component.Repository;
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole {@link EMCDepManagement#load()} against two local repositories: a sparse one
+ * searched first, which misses a share of the artifacts, and a complete one. A cold load starts
+ * from an empty library folder and downloads every artifact, while a warm load reuses the folder
+ * of a previous load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class LoadBenchmark {
+
+  private static final long BYTES_PER_SECOND;
+  private static final double MISS_RATE;
+  private static final double CORRUPTION_RATE;
+  private static final int GROUPS;
+
+  static {
+    BYTES_PER_SECOND = 8L * 1024 * 1024;
+    MISS_RATE = 0.3;
+    CORRUPTION_RATE = 0.02;
+    GROUPS = 5;
+  }
+
+  @Param({"15", "50"})
+  public int artifacts;
+
+  @Param({"0", "25"})
+  public long latencyMillis;
+
+  private Path folder;
+  private LocalMavenRepository sparse;
+  private LocalMavenRepository complete;
+  private List<Artifact> installed;
+  private List<Relocation> relocations;
+  private Path warm;
+  private Path cold;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    this.folder = BenchmarkFixtures.createFolder();
+    final Path repository = this.folder.resolve("repository");
+    this.installed = new ArrayList<>();
+    for (int i = 0; i < this.artifacts; i++) {
+      final String group = String.format("fixture:g%d", i % GROUPS);
+      final Artifact artifact = Artifact.ofArtifact(group, String.format("lib%d", i), "1:0:0");
+      final String base = String.format("%s/lib%d", group.replace(':', '/'), i);
+      final List<String> packages =
+          Arrays.asList(base, String.format("%s/api", base), String.format("%s/impl", base));
+      BenchmarkFixtures.writeArtifact(repository, artifact, packages, 10 + i * 37 % 150);
+      this.installed.add(artifact);
+    }
+    this.relocations = new ArrayList<>();
+    this.relocations.add(Relocation.ofRelocation("fixture:g0", "shaded:g0"));
+    this.relocations.add(Relocation.ofRelocation("fixture:g1", "shaded:g1"));
+    this.sparse =
+        LocalMavenRepository.start(
+            repository, this.latencyMillis, BYTES_PER_SECOND, MISS_RATE, CORRUPTION_RATE, 1L);
+    this.complete =
+        LocalMavenRepository.start(
+            repository, this.latencyMillis, BYTES_PER_SECOND, 0.0, CORRUPTION_RATE, 2L);
+    this.warm = this.folder.resolve("warm");
+    this.load(this.warm);
+  }
+
+  @Setup(Level.Invocation)
+  public void createColdFolder() throws IOException {
+    this.cold = BenchmarkFixtures.createFolder();
+  }
+
+  @TearDown(Level.Invocation)
+  public void deleteColdFolder() throws IOException {
+    BenchmarkFixtures.delete(this.cold);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    this.sparse.close();
+    this.complete.close();
+    BenchmarkFixtures.delete(this.folder);
+  }
+
+  @Benchmark
+  public void cold() throws Exception {
+    this.load(this.cold);
+  }
+
+  @Benchmark
+  public void warm() throws Exception {
+    this.load(this.warm);
+  }
+
+  private void load(final Path library) throws Exception {
+    try (final URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+      final EMCDepManagement management =
+          EMCDepManagement.builder()
+              .setApplicationName("benchmark")
+              .setFolder(library)
+              .addRepo(Repository.ofRepo(this.sparse.getUrl()))
+              .addRepo(Repository.ofRepo(this.complete.getUrl()))
+              .setDefaultRepositories(false)
+              .setArtifacts(this.installed)
+              .setRelocations(this.relocations)
+              .setLogger(new SilentLogger())
+              .setClassLoader(loader)
+              .create();
+      management.load();
+    }
+  }
+
+  private static final class SilentLogger implements LoggerConfiguration {
+
+    @Override
+    public void info(final String line) {}
+
+    @Override
+    public void warning(final String line) {}
+
+    @Override
+    public void error(final String line) {}
+  }
+}
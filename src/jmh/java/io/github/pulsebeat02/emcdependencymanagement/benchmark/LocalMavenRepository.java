@@ -0,0 +1,228 @@
+package io.github.pulsebeat02.emcdependencymanagement.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Maven repository served over HTTP from a local folder, standing in for a remote repository.
+ * Byte ranges are honoured. Every response can be delayed and throttled, a share of the artifacts
+ * can be missing, and a share of the downloaded JARs can be corrupted, so that the installer is
+ * measured against the conditions of a real network without depending on one.
+ */
+final class LocalMavenRepository implements AutoCloseable {
+
+  private final Path root;
+  private final long latencyMillis;
+  private final long bytesPerSecond;
+  private final double missRate;
+  private final double corruptionRate;
+  private final long seed;
+  private final Random random;
+  private final AtomicLong requests;
+  private final AtomicLong bytes;
+  private final ExecutorService executor;
+  private final HttpServer server;
+
+  LocalMavenRepository(
+      final Path root,
+      final long latencyMillis,
+      final long bytesPerSecond,
+      final double missRate,
+      final double corruptionRate,
+      final long seed)
+      throws IOException {
+    this.root = root.toAbsolutePath().normalize();
+    this.latencyMillis = latencyMillis;
+    this.bytesPerSecond = bytesPerSecond;
+    this.missRate = missRate;
+    this.corruptionRate = corruptionRate;
+    this.seed = seed;
+    this.random = new Random(seed);
+    this.requests = new AtomicLong();
+    this.bytes = new AtomicLong();
+    this.executor =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "emc-local-repository");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    this.server.createContext("/", this::handle);
+    this.server.setExecutor(this.executor);
+    this.server.start();
+  }
+
+  /**
+   * Starts serving a repository folder on a free local port.
+   *
+   * @param root the root folder of the repository
+   * @param latencyMillis the delay before every response, in milliseconds
+   * @param bytesPerSecond the transfer rate of every response, or 0 for no limit
+   * @param missRate the share of artifacts answered with 404, between 0 and 1
+   * @param corruptionRate the share of JAR downloads with a corrupted byte, between 0 and 1
+   * @param seed the seed deciding which artifacts are missing and which downloads are corrupted
+   * @return the running repository
+   * @throws IOException if the server could not be started
+   */
+  static LocalMavenRepository start(
+      final Path root,
+      final long latencyMillis,
+      final long bytesPerSecond,
+      final double missRate,
+      final double corruptionRate,
+      final long seed)
+      throws IOException {
+    return new LocalMavenRepository(
+        root, latencyMillis, bytesPerSecond, missRate, corruptionRate, seed);
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    try {
+      this.requests.incrementAndGet();
+      this.sleep(this.latencyMillis);
+      final String path = exchange.getRequestURI().getPath().substring(1);
+      final Path file = this.root.resolve(path).normalize();
+      if (!file.startsWith(this.root) || !Files.isRegularFile(file) || this.isMissing(file)) {
+        exchange.sendResponseHeaders(404, -1);
+        return;
+      }
+      final long size = Files.size(file);
+      if ("HEAD".equals(exchange.getRequestMethod())) {
+        exchange.getResponseHeaders().set("Content-Length", Long.toString(size));
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      }
+      final long[] range = this.getRange(exchange.getRequestHeaders().getFirst("Range"), size);
+      final long length = range[1] - range[0] + 1;
+      final long corrupted = path.endsWith(".jar") && this.isCorrupted() ? length / 2 : -1;
+      if (length == size) {
+        exchange.sendResponseHeaders(200, size);
+      } else {
+        exchange
+            .getResponseHeaders()
+            .set("Content-Range", String.format("bytes %d-%d/%d", range[0], range[1], size));
+        exchange.sendResponseHeaders(206, length);
+      }
+      try (final InputStream in = Files.newInputStream(file);
+          final OutputStream out = exchange.getResponseBody()) {
+        this.skip(in, range[0]);
+        this.transfer(in, out, length, corrupted);
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private boolean isMissing(final Path file) {
+    final String artifact = this.root.relativize(file.getParent()).toString();
+    final Random draw = new Random(this.seed ^ artifact.hashCode());
+    return draw.nextDouble() < this.missRate;
+  }
+
+  private boolean isCorrupted() {
+    synchronized (this.random) {
+      return this.random.nextDouble() < this.corruptionRate;
+    }
+  }
+
+  private long[] getRange(final String header, final long size) {
+    final long[] all = {0, size - 1};
+    if (header == null || !header.startsWith("bytes=") || header.contains(",")) {
+      return all;
+    }
+    final String[] bounds = header.substring(6).split("-", -1);
+    try {
+      final long from = Long.parseLong(bounds[0]);
+      final long last = bounds[1].isEmpty() ? size - 1 : Long.parseLong(bounds[1]);
+      final long to = Math.min(last, size - 1);
+      return from <= to ? new long[] {from, to} : all;
+    } catch (final NumberFormatException e) {
+      return all;
+    }
+  }
+
+  private void skip(final InputStream in, final long bytes) throws IOException {
+    long remaining = bytes;
+    while (remaining > 0) {
+      final long skipped = in.skip(remaining);
+      if (skipped <= 0) {
+        throw new IOException("Could not skip to the requested range!");
+      }
+      remaining -= skipped;
+    }
+  }
+
+  private void transfer(
+      final InputStream in, final OutputStream out, final long length, final long corrupted)
+      throws IOException {
+    final byte[] buffer = new byte[8192];
+    final long start = System.nanoTime();
+    long sent = 0;
+    int n;
+    while (sent < length
+        && (n = in.read(buffer, 0, (int) Math.min(buffer.length, length - sent))) != -1) {
+      if (corrupted >= sent && corrupted < sent + n) {
+        buffer[(int) (corrupted - sent)] ^= 0x5A;
+      }
+      out.write(buffer, 0, n);
+      sent += n;
+      this.bytes.addAndGet(n);
+      this.throttle(start, sent);
+    }
+  }
+
+  private void throttle(final long start, final long sent) {
+    if (this.bytesPerSecond <= 0) {
+      return;
+    }
+    final long expected = TimeUnit.SECONDS.toNanos(sent) / this.bytesPerSecond;
+    final long elapsed = System.nanoTime() - start;
+    this.sleep(TimeUnit.NANOSECONDS.toMillis(expected - elapsed));
+  }
+
+  private void sleep(final long millis) {
+    if (millis <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Gets the url of the repository, ending with a slash.
+   *
+   * @return the url
+   */
+  String getUrl() {
+    return String.format("http://127.0.0.1:%d/", this.server.getAddress().getPort());
+  }
+
+  long getRequests() {
+    return this.requests.get();
+  }
+
+  long getBytes() {
+    return this.bytes.get();
+  }
+
+  @Override
+  public void close() {
+    this.server.stop(0);
+    this.executor.shutdownNow();
+  }
+}
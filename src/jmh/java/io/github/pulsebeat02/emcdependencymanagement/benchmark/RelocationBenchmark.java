@@ -0,0 +1,80 @@
+package io.github.pulsebeat02.emcdependencymanagement.benchmark;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import io.github.pulsebeat02.emcdependencymanagement.component.relocator.FileRelocator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures relocating a generated JAR of 100 packages with {@link FileRelocator}, applying a
+ * varying number of relocations. Relocations past the packages of the JAR never match, so larger
+ * counts measure the cost of the relocation set itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RelocationBenchmark {
+
+  private static final int PACKAGES;
+  private static final int CLASSES;
+
+  static {
+    PACKAGES = 100;
+    CLASSES = 10;
+  }
+
+  @Param({"1", "10", "100", "1000"})
+  public int relocations;
+
+  private Path folder;
+  private Path source;
+  private Path output;
+  private FileRelocator relocator;
+
+  @Setup
+  public void setup() throws IOException {
+    this.folder = BenchmarkFixtures.createFolder();
+    this.source = this.folder.resolve("source.jar");
+    this.output = this.folder.resolve("output.jar");
+    final List<String> packages = new ArrayList<>();
+    for (int i = 0; i < PACKAGES; i++) {
+      packages.add(String.format("fixture/p%d", i));
+    }
+    BenchmarkFixtures.writeJar(this.source, packages, CLASSES);
+    final List<Relocation> relocations = new ArrayList<>();
+    for (int i = 0; i < this.relocations; i++) {
+      relocations.add(
+          Relocation.ofRelocation(String.format("fixture:p%d", i), String.format("shaded:p%d", i)));
+    }
+    this.relocator = FileRelocator.ofRelocator(relocations, Collections.singletonList(this.source));
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFixtures.delete(this.folder);
+  }
+
+  @Benchmark
+  public Path relocate() throws IOException {
+    this.relocator.relocate(this.source, this.output);
+    return this.output;
+  }
+
+  @Benchmark
+  public boolean isAffected() throws IOException {
+    return this.relocator.isAffected(this.source);
+  }
+}
@@ -0,0 +1,73 @@
+package io.github.pulsebeat02.emcdependencymanagement.benchmark;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.InstallManifest;
+import io.github.pulsebeat02.emcdependencymanagement.component.search.JarSearcher;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures checking which artifacts of a library folder are installed with {@link JarSearcher},
+ * both against a recorded install manifest and against an empty one, which adopts and hashes every
+ * JAR in the folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int artifacts;
+
+  private Path folder;
+  private List<Artifact> installed;
+  private InstallManifest manifest;
+
+  @Setup
+  public void setup() throws IOException {
+    this.folder = BenchmarkFixtures.createFolder();
+    this.installed = new ArrayList<>();
+    for (int i = 0; i < this.artifacts; i++) {
+      final Artifact artifact = Artifact.ofArtifact("fixture", String.format("a%d", i), "1:0");
+      final Path jar = this.folder.resolve(artifact.getJarName());
+      BenchmarkFixtures.writeJar(jar, Collections.singletonList(String.format("a%d", i)), 4);
+      this.installed.add(artifact);
+    }
+    this.manifest = InstallManifest.ofManifest(this.folder);
+    this.manifest.load();
+    for (final Artifact artifact : this.installed) {
+      this.manifest.record(artifact, this.folder.resolve(artifact.getJarName()));
+    }
+    this.manifest.save();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    BenchmarkFixtures.delete(this.folder);
+  }
+
+  @Benchmark
+  public Collection<Artifact> searchRecorded() throws IOException {
+    return JarSearcher.ofSearcher(this.installed, this.manifest).getNeededInstallation();
+  }
+
+  @Benchmark
+  public Collection<Artifact> searchAdopting() throws IOException {
+    final InstallManifest empty = InstallManifest.ofManifest(this.folder);
+    return JarSearcher.ofSearcher(this.installed, empty).getNeededInstallation();
+  }
+}
@@ -26,41 +26,121 @@ package io.github.pulsebeat02.emcdependencymanagement;
 import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
 import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
 import io.github.pulsebeat02.emcdependencymanagement.component.Repository;
+import io.github.pulsebeat02.emcdependencymanagement.component.bundle.DependencyBundle;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.DownloadEngine;
 import io.github.pulsebeat02.emcdependencymanagement.component.downloader.JarInstaller;
-import io.github.pulsebeat02.emcdependencymanagement.component.relocator.FileRelocator;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.LocalRepository;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RepositoryCache;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RepositoryResolver;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.ResolutionStrategy;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RetryPolicy;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.SegmentPolicy;
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.InstallManifest;
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.LoadState;
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.ManifestEntry;
+import io.github.pulsebeat02.emcdependencymanagement.component.relocator.RelocationCache;
+import io.github.pulsebeat02.emcdependencymanagement.component.relocator.StreamingRelocator;
 import io.github.pulsebeat02.emcdependencymanagement.component.search.JarSearcher;
+import io.github.pulsebeat02.emcdependencymanagement.component.store.SharedStore;
+import io.github.pulsebeat02.emcdependencymanagement.component.store.StoreLock;
+import io.github.pulsebeat02.emcdependencymanagement.component.transitive.TransitiveResolver;
+import io.github.pulsebeat02.emcdependencymanagement.injector.IndexedInjection;
+import io.github.pulsebeat02.emcdependencymanagement.injector.JarIndex;
+import io.github.pulsebeat02.emcdependencymanagement.injector.JarSource;
+import io.github.pulsebeat02.emcdependencymanagement.injector.LoaderDelegation;
 import io.github.pulsebeat02.emcdependencymanagement.injector.UnsafeInjection;
 import io.github.pulsebeat02.emcdependencymanagement.logger.DefaultLoggerConfiguration;
 import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import io.github.pulsebeat02.emcdependencymanagement.metrics.LoadListener;
+import io.github.pulsebeat02.emcdependencymanagement.metrics.LoadPhase;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /** Main class for handling JAR dependencies. */
 public final class EMCDepManagement {
 
   private final LoggerConfiguration logger;
+  private final LoadListener listener;
   private final Collection<Artifact> artifacts;
   private final Collection<Relocation> relocations;
   private final Collection<Repository> repositories;
+  private final boolean defaults;
+  private final LocalRepository local;
+  private final ResolutionStrategy strategy;
+  private final int downloadLimit;
+  private final int hostDownloadLimit;
+  private final RetryPolicy retryPolicy;
+  private final SegmentPolicy segmentPolicy;
+  private final boolean transitive;
+  private final boolean streaming;
+  private final boolean indexed;
+  private final boolean mapped;
+  private final boolean lazy;
+  private final LoaderDelegation delegation;
+  private final URLClassLoader classloader;
+  private final SharedStore store;
   private final Path folder;
 
   EMCDepManagement(
       final LoggerConfiguration logger,
+      final LoadListener listener,
       final Collection<Artifact> artifacts,
       final Collection<Relocation> relocations,
       final Collection<Repository> repositories,
+      final boolean defaults,
+      final LocalRepository local,
+      final ResolutionStrategy strategy,
+      final int downloadLimit,
+      final int hostDownloadLimit,
+      final RetryPolicy retryPolicy,
+      final SegmentPolicy segmentPolicy,
+      final boolean transitive,
+      final boolean streaming,
+      final boolean indexed,
+      final boolean mapped,
+      final boolean lazy,
+      final LoaderDelegation delegation,
+      final URLClassLoader classloader,
+      final SharedStore store,
       final Path folder) {
     this.logger = logger;
+    this.listener =
+        LoadListener.guarded(listener == null ? LoadListener.empty() : listener, logger);
     this.artifacts = artifacts == null ? new ArrayList<>() : artifacts;
     this.relocations = relocations == null ? new ArrayList<>() : relocations;
     this.repositories = repositories == null ? new ArrayList<>() : repositories;
+    this.defaults = defaults;
+    this.local = local;
+    this.strategy = strategy == null ? ResolutionStrategy.REPOSITORY_ORDER : strategy;
+    this.downloadLimit = downloadLimit;
+    this.hostDownloadLimit = hostDownloadLimit;
+    this.retryPolicy = retryPolicy == null ? RetryPolicy.DEFAULT : retryPolicy;
+    this.segmentPolicy = segmentPolicy == null ? SegmentPolicy.NONE : segmentPolicy;
+    this.transitive = transitive;
+    this.streaming = streaming;
+    this.indexed = indexed;
+    this.mapped = mapped;
+    this.lazy = lazy;
+    this.delegation = delegation == null ? LoaderDelegation.PARENT_FIRST : delegation;
+    this.classloader = classloader;
+    this.store = store;
     this.folder = folder;
   }
 
@@ -74,53 +154,360 @@ public final class EMCDepManagement {
   }
 
   /**
-   * Loads the JARs into the classpath.
+   * Loads the JARs into the classpath. Downloaded JARs are kept pristine, and relocated copies are
+   * cached separately, so only the JARs whose source or relocations changed are relocated again.
+   *
+   * <p>Every complete load is recorded with a fingerprint of the artifacts, repositories, and
+   * relocations. If the next load has the same fingerprint and the recorded JARs are unchanged on
+   * the disk, they are injected straight away. Otherwise, only the artifacts missing from the
+   * manifest are installed, and only the JARs missing from the relocation cache are relocated.
    *
    * @throws IOException if an issue occurred during installation
    * @throws ReflectiveOperationException if an issue occurred during loading
    */
   public void load() throws IOException, ReflectiveOperationException {
 
-    final Collection<Artifact> download = this.needsDownload();
-    final Collection<Path> paths = this.installedJars(download);
+    long start = System.nanoTime();
+    final Path pristine = this.folder.resolve("pristine");
+    final RelocationCache relocations =
+        RelocationCache.ofCache(this.relocations, this.folder.resolve("relocated"), this.store);
+    final InstallManifest manifest = this.loadManifest(pristine, relocations);
+    final LoadState state = LoadState.ofState(this.folder);
+    state.load();
+    final String fingerprint = this.createFingerprint(relocations);
+    final Optional<List<ManifestEntry>> recorded = this.getRecordedEntries(manifest, state);
+    if (recorded.isPresent() && state.matches(fingerprint)) {
+      start = this.reportPhase(LoadPhase.PREPARE, start);
+      this.inject(manifest, recorded.get(), new ArrayList<>(state.getJars()));
+      this.reportPhase(LoadPhase.INJECT, start);
+      return;
+    }
+    final RepositoryCache cache = this.loadCache();
+    start = this.reportPhase(LoadPhase.PREPARE, start);
+    final Collection<Artifact> artifacts;
+    final boolean complete;
+    try (final DownloadEngine engine =
+            DownloadEngine.ofEngine(
+                this.downloadLimit, this.hostDownloadLimit, this.retryPolicy, this.segmentPolicy);
+        final RepositoryResolver resolver = this.createResolver(cache)) {
+      final TransitiveResolver transitive = this.createTransitiveResolver(resolver, engine);
+      artifacts = transitive == null ? this.artifacts : transitive.resolve(this.artifacts);
+      complete = transitive == null || transitive.isComplete();
+      start = this.reportPhase(LoadPhase.RESOLVE, start);
+      final Collection<Artifact> download = this.needsDownload(manifest, artifacts);
+      start = this.reportPhase(LoadPhase.SEARCH, start);
+      final StoreLock lock = this.lockStore(download);
+      try {
+        final Collection<Artifact> missing = this.linkStored(manifest, download, pristine);
+        final JarInstaller installer =
+            this.createInstaller(resolver, engine, missing, pristine, relocations);
+        installer.install();
+        this.record(manifest, installer);
+        this.publishStored(installer);
+      } finally {
+        if (lock != null) {
+          lock.close();
+        }
+      }
+    } finally {
+      cache.save();
+    }
+    start = this.reportPhase(LoadPhase.INSTALL, start);
+
+    final List<ManifestEntry> entries = this.getEntries(manifest, artifacts);
+    final List<Path> jars = new ArrayList<>(relocations.relocate(entries, this.listener));
+    // an incomplete resolution must run again on the next load, which retries the missing POMs
+    if (complete && entries.size() == artifacts.size()) {
+      this.recordState(state, fingerprint, entries, jars);
+    }
+    start = this.reportPhase(LoadPhase.RELOCATE, start);
+    this.inject(manifest, entries, jars);
+    this.reportPhase(LoadPhase.INJECT, start);
+  }
+
+  /**
+   * Exports the library folder into a bundle, which seeds the folders of other instances loading
+   * the same artifacts without any request. Should be called after {@link #load()}, so that the
+   * bundle holds every JAR and the manifest recording them.
+   *
+   * @param archive the file the bundle is written to
+   * @throws IOException if an issue occurred while writing the bundle
+   */
+  public void exportBundle(final Path archive) throws IOException {
+    try (final OutputStream out = Files.newOutputStream(archive)) {
+      this.createBundle().export(out);
+    }
+  }
+
+  /**
+   * Imports a bundle exported by another instance into the library folder. The next {@link
+   * #load()} then finds every artifact of the bundle installed, and every relocated JAR cached if
+   * the bundle was exported with the same relocations, so it neither downloads nor relocates them.
+   *
+   * @param archive the bundle
+   * @return whether the relocated JARs of the bundle were imported too
+   * @throws IOException if the bundle is invalid, or an issue occurred while importing it
+   */
+  public boolean importBundle(final Path archive) throws IOException {
+    try (final InputStream in = Files.newInputStream(archive)) {
+      return this.importBundle(in);
+    }
+  }
+
+  /**
+   * Imports a bundle read from a stream, such as a download, as it is read. See {@link
+   * #importBundle(Path)}.
+   *
+   * @param in the stream the bundle is read from
+   * @return whether the relocated JARs of the bundle were imported too
+   * @throws IOException if the bundle is invalid, or an issue occurred while importing it
+   */
+  public boolean importBundle(final InputStream in) throws IOException {
+    return this.createBundle().extract(in);
+  }
+
+  private DependencyBundle createBundle() {
+    final RelocationCache relocations =
+        RelocationCache.ofCache(this.relocations, this.folder.resolve("relocated"));
+    return DependencyBundle.ofBundle(this.folder, relocations.getFingerprint());
+  }
+
+  private String createFingerprint(final RelocationCache relocations) {
+    final List<String> lines = new ArrayList<>();
+    for (final Artifact artifact : this.artifacts) {
+      lines.add(String.format("artifact %s", artifact.getCoordinates()));
+    }
+    for (final Repository repository : this.repositories) {
+      lines.add(String.format("repository %s", repository.getUrl()));
+    }
+    lines.add(String.format("relocations %s", relocations.getFingerprint()));
+    lines.add(String.format("defaults %b", this.defaults));
+    lines.add(String.format("transitive %b", this.transitive));
+    lines.add(String.format("streaming %b", this.streaming && this.store == null));
+    final MessageDigest digest = FileUtils.createDigest();
+    for (final String line : lines) {
+      digest.update(line.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+    }
+    return FileUtils.toUppercaseHex(digest.digest()).toLowerCase(Locale.ROOT);
+  }
+
+  private Optional<List<ManifestEntry>> getRecordedEntries(
+      final InstallManifest manifest, final LoadState state) {
+    final Map<String, ManifestEntry> installed = new HashMap<>();
+    for (final ManifestEntry entry : manifest.getEntries()) {
+      installed.put(entry.getCoordinates(), entry);
+    }
+    final List<ManifestEntry> entries = new ArrayList<>();
+    for (final String coordinates : state.getCoordinates()) {
+      final ManifestEntry entry = installed.get(coordinates);
+      if (entry == null) {
+        return Optional.empty();
+      }
+      entries.add(entry);
+    }
+    return Optional.of(entries);
+  }
 
-    this.relocate(paths);
-    this.inject();
+  private void recordState(
+      final LoadState state,
+      final String fingerprint,
+      final List<ManifestEntry> entries,
+      final List<Path> jars)
+      throws IOException {
+    final List<String> coordinates = new ArrayList<>();
+    for (final ManifestEntry entry : entries) {
+      coordinates.add(entry.getCoordinates());
+    }
+    state.record(fingerprint, coordinates, jars);
   }
 
-  private void inject() throws IOException, NoSuchFieldException {
-    final UnsafeInjection injection =
-        UnsafeInjection.ofInjection(
-            this.getJars(), (URLClassLoader) EMCDepManagement.class.getClassLoader());
-    injection.inject();
+  private long reportPhase(final LoadPhase phase, final long start) {
+    final long end = System.nanoTime();
+    this.listener.onPhase(phase, end - start);
+    return end;
   }
 
-  private void relocate(final Collection<Path> paths) throws IOException {
-    final FileRelocator relocator = FileRelocator.ofRelocator(this.relocations, paths);
-    relocator.relocate();
+  private InstallManifest loadManifest(final Path pristine, final RelocationCache relocations)
+      throws IOException {
+    final InstallManifest manifest = InstallManifest.ofManifest(this.folder, pristine);
+    manifest.load();
+    for (final ManifestEntry entry : new ArrayList<>(manifest.getEntries())) {
+      if (!relocations.isUsable(entry)) {
+        manifest.remove(entry);
+      }
+    }
+    return manifest;
   }
 
-  private Collection<Path> installedJars(final Collection<Artifact> download) throws IOException {
-    final JarInstaller installer =
-        JarInstaller.ofInstaller(this.logger, download, this.repositories, this.folder);
-    return installer.install();
+  private RepositoryCache loadCache() throws IOException {
+    final RepositoryCache cache = RepositoryCache.ofCache(this.folder);
+    cache.load();
+    return cache;
   }
 
-  private Collection<Artifact> needsDownload() throws IOException {
-    final JarSearcher searcher = JarSearcher.ofSearcher(this.artifacts, this.folder);
-    return searcher.getNeededInstallation();
+  private RepositoryResolver createResolver(final RepositoryCache cache) {
+    final List<Repository> repositories = new ArrayList<>(this.repositories);
+    if (this.defaults) {
+      repositories.addAll(Repository.getDefaultRepositories());
+    }
+    return RepositoryResolver.ofResolver(repositories, this.strategy, cache, this.local);
   }
 
-  private Collection<Path> getJars() throws IOException {
-    try (final Stream<Path> paths = Files.walk(this.folder).parallel()) {
-      return paths.filter(Files::isRegularFile).collect(Collectors.toList());
+  private void record(final InstallManifest manifest, final JarInstaller installer)
+      throws IOException {
+    final Map<Artifact, String> checksums = installer.getInstalledChecksums();
+    for (final Map.Entry<Artifact, Path> entry : installer.getInstalledArtifacts().entrySet()) {
+      final Artifact artifact = entry.getKey();
+      manifest.record(artifact, entry.getValue(), checksums.get(artifact));
     }
+    manifest.save();
+  }
+
+  private StoreLock lockStore(final Collection<Artifact> download) throws IOException {
+    return this.store == null || download.isEmpty() ? null : this.store.lock(download);
+  }
+
+  private Collection<Artifact> linkStored(
+      final InstallManifest manifest, final Collection<Artifact> download, final Path pristine)
+      throws IOException {
+    if (this.store == null) {
+      return download;
+    }
+    final List<Artifact> missing = new ArrayList<>();
+    for (final Artifact artifact : download) {
+      final Path path = pristine.resolve(artifact.getJarName());
+      final Optional<String> checksum = this.store.link(artifact, path);
+      if (checksum.isPresent()) {
+        manifest.record(artifact, path, checksum.get());
+      } else {
+        missing.add(artifact);
+      }
+    }
+    return missing;
+  }
+
+  private void publishStored(final JarInstaller installer) throws IOException {
+    if (this.store == null) {
+      return;
+    }
+    final Map<Artifact, String> checksums = installer.getInstalledChecksums();
+    for (final Map.Entry<Artifact, Path> entry : installer.getInstalledArtifacts().entrySet()) {
+      final Artifact artifact = entry.getKey();
+      this.store.publish(artifact, entry.getValue(), checksums.get(artifact));
+    }
+  }
+
+  private void inject(
+      final InstallManifest manifest, final List<ManifestEntry> entries, final List<Path> jars)
+      throws IOException, NoSuchFieldException {
+    final URLClassLoader classloader =
+        this.classloader == null
+            ? (URLClassLoader) EMCDepManagement.class.getClassLoader()
+            : this.classloader;
+    if (this.indexed) {
+      final IndexedInjection injection =
+          IndexedInjection.ofInjection(
+              this.createIndex(manifest, entries, jars), classloader, this.delegation);
+      injection.inject();
+      return;
+    }
+    final UnsafeInjection injection = UnsafeInjection.ofInjection(jars, classloader);
+    for (int i = 0; i < jars.size(); i++) {
+      final long start = System.nanoTime();
+      injection.inject(jars.get(i));
+      this.reportInjected(entries.get(i), jars.get(i), System.nanoTime() - start);
+    }
+  }
+
+  private void reportInjected(final ManifestEntry entry, final Path jar, final long nanos) {
+    this.listener.onInjected(entry.getCoordinates(), jar, nanos);
+  }
+
+  private JarIndex createIndex(
+      final InstallManifest manifest, final List<ManifestEntry> entries, final List<Path> jars)
+      throws IOException {
+    final Map<Path, ManifestEntry> owners = new HashMap<>();
+    final Map<Path, List<String>> known = new HashMap<>();
+    for (int i = 0; i < entries.size(); i++) {
+      final Path jar = jars.get(i);
+      final ManifestEntry entry = entries.get(i);
+      owners.put(jar, entry);
+      if (this.lazy) {
+        entry.getPackages(jar).ifPresent(packages -> known.put(jar, packages));
+      }
+    }
+    final JarIndex index =
+        JarIndex.ofIndex(
+            jars,
+            this.mapped,
+            known,
+            (jar, nanos) -> this.reportInjected(owners.get(jar), jar, nanos));
+    if (!this.lazy) {
+      return index;
+    }
+    final List<JarSource> sources = index.getSources();
+    for (int i = 0; i < entries.size(); i++) {
+      final Path jar = jars.get(i);
+      if (!known.containsKey(jar)) {
+        manifest.recordPackages(entries.get(i), jar, sources.get(i).getPackages());
+      }
+    }
+    manifest.save();
+    return index;
+  }
+
+  private List<ManifestEntry> getEntries(
+      final InstallManifest manifest, final Collection<Artifact> artifacts) {
+    final List<ManifestEntry> entries = new ArrayList<>();
+    for (final Artifact artifact : artifacts) {
+      manifest.getEntry(artifact).ifPresent(entries::add);
+    }
+    return entries;
+  }
+
+  private JarInstaller createInstaller(
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final Collection<Artifact> download,
+      final Path pristine,
+      final RelocationCache relocations) {
+    if (this.streaming && this.store == null && !this.relocations.isEmpty()) {
+      final StreamingRelocator relocator = StreamingRelocator.ofRelocator(relocations);
+      return JarInstaller.ofInstaller(
+          this.logger, this.listener, download, resolver, engine, relocator);
+    }
+    return JarInstaller.ofInstaller(
+        this.logger, this.listener, download, resolver, engine, pristine);
+  }
+
+  private TransitiveResolver createTransitiveResolver(
+      final RepositoryResolver resolver, final DownloadEngine engine) {
+    if (!this.transitive) {
+      return null;
+    }
+    return TransitiveResolver.ofResolver(this.logger, resolver, engine, this.folder);
+  }
+
+  private Collection<Artifact> needsDownload(
+      final InstallManifest manifest, final Collection<Artifact> artifacts) throws IOException {
+    final JarSearcher searcher = JarSearcher.ofSearcher(artifacts, manifest);
+    final Collection<Artifact> download = searcher.getNeededInstallation();
+    final Set<Artifact> missing = new HashSet<>(download);
+    for (final Artifact artifact : artifacts) {
+      this.listener.onSearched(artifact.getCoordinates(), !missing.contains(artifact));
+    }
+    return download;
   }
 
   public LoggerConfiguration getLogger() {
     return this.logger;
   }
 
+  public LoadListener getListener() {
+    return this.listener;
+  }
+
   public Collection<Artifact> getArtifacts() {
     return this.artifacts;
   }
@@ -133,6 +520,81 @@ public final class EMCDepManagement {
     return this.repositories;
   }
 
+  public boolean isDefaultRepositories() {
+    return this.defaults;
+  }
+
+  /**
+   * Gets the local repository checked before any remote repository.
+   *
+   * @return the local repository, or null if there is none
+   */
+  public LocalRepository getLocalRepository() {
+    return this.local;
+  }
+
+  public ResolutionStrategy getResolutionStrategy() {
+    return this.strategy;
+  }
+
+  public int getDownloadLimit() {
+    return this.downloadLimit;
+  }
+
+  public int getHostDownloadLimit() {
+    return this.hostDownloadLimit;
+  }
+
+  public RetryPolicy getRetryPolicy() {
+    return this.retryPolicy;
+  }
+
+  public SegmentPolicy getSegmentPolicy() {
+    return this.segmentPolicy;
+  }
+
+  public boolean isTransitive() {
+    return this.transitive;
+  }
+
+  public boolean isStreamingRelocation() {
+    return this.streaming;
+  }
+
+  public boolean isIndexedLoading() {
+    return this.indexed;
+  }
+
+  public boolean isMappedLoading() {
+    return this.mapped;
+  }
+
+  public boolean isLazyLoading() {
+    return this.lazy;
+  }
+
+  public LoaderDelegation getLoaderDelegation() {
+    return this.delegation;
+  }
+
+  /**
+   * Gets the class loader the JARs are loaded into.
+   *
+   * @return the class loader, or null for the class loader of this library
+   */
+  public URLClassLoader getClassLoader() {
+    return this.classloader;
+  }
+
+  /**
+   * Gets the store the JARs are shared through with other instances of the host.
+   *
+   * @return the shared store, or null if JARs are not shared
+   */
+  public SharedStore getSharedStore() {
+    return this.store;
+  }
+
   public Path getFolder() {
     return this.folder;
   }
@@ -140,9 +602,25 @@ public final class EMCDepManagement {
   public static class Builder {
 
     private LoggerConfiguration logger;
+    private LoadListener listener;
     private Collection<Artifact> artifacts;
     private Collection<Relocation> relocations;
     private Collection<Repository> repositories;
+    private boolean defaults;
+    private LocalRepository local;
+    private ResolutionStrategy strategy;
+    private int downloadLimit;
+    private int hostDownloadLimit;
+    private RetryPolicy retryPolicy;
+    private SegmentPolicy segmentPolicy;
+    private boolean transitive;
+    private boolean streaming;
+    private boolean indexed;
+    private boolean mapped;
+    private boolean lazy;
+    private LoaderDelegation delegation;
+    private URLClassLoader classloader;
+    private SharedStore store;
     private Path folder;
     private String name;
 
@@ -151,6 +629,13 @@ public final class EMCDepManagement {
       this.artifacts = new ArrayList<>();
       this.relocations = new ArrayList<>();
       this.repositories = new ArrayList<>();
+      this.defaults = true;
+      this.strategy = ResolutionStrategy.REPOSITORY_ORDER;
+      this.downloadLimit = 16;
+      this.hostDownloadLimit = 4;
+      this.retryPolicy = RetryPolicy.DEFAULT;
+      this.segmentPolicy = SegmentPolicy.NONE;
+      this.delegation = LoaderDelegation.PARENT_FIRST;
     }
 
     /**
@@ -230,6 +715,201 @@ public final class EMCDepManagement {
       return this;
     }
 
+    /**
+     * Sets whether the default repositories are searched after the configured ones. Enabled by
+     * default. See {@link Repository#getDefaultRepositories()}.
+     *
+     * @param defaults whether to search the default repositories
+     * @return the same builder
+     */
+    public Builder setDefaultRepositories(final boolean defaults) {
+      this.defaults = defaults;
+      return this;
+    }
+
+    /**
+     * Sets the local Maven repository checked before any remote repository, such as {@code
+     * ~/.m2/repository} on build hosts. JARs found in it are verified against their {@code .sha1}
+     * sidecar files and linked or copied without any request, and so are the POMs read to resolve
+     * transitive dependencies. Disabled by default. See {@link LocalRepository#ofDefault()}.
+     *
+     * @param folder the root folder of the local repository
+     * @return the same builder
+     */
+    public Builder setLocalRepository(final Path folder) {
+      this.local = folder == null ? null : LocalRepository.ofRepository(folder);
+      return this;
+    }
+
+    /**
+     * Sets the local Maven repository checked before any remote repository to the one used by
+     * Maven. See {@link #setLocalRepository(Path)}.
+     *
+     * @return the same builder
+     */
+    public Builder useMavenLocalRepository() {
+      this.local = LocalRepository.ofDefault();
+      return this;
+    }
+
+    /**
+     * Sets the strategy used to pick the repository an artifact is downloaded from. Defaults to
+     * {@link ResolutionStrategy#REPOSITORY_ORDER}.
+     *
+     * @param strategy the strategy
+     * @return the same builder
+     */
+    public Builder setResolutionStrategy(final ResolutionStrategy strategy) {
+      this.strategy = strategy;
+      return this;
+    }
+
+    /**
+     * Sets how many downloads may run at once. Defaults to 16 downloads in total and 4 downloads
+     * per repository host.
+     *
+     * @param limit the maximum number of downloads running at once
+     * @param hostLimit the maximum number of downloads running at once against a single host
+     * @return the same builder
+     */
+    public Builder setDownloadConcurrency(final int limit, final int hostLimit) {
+      this.downloadLimit = limit;
+      this.hostDownloadLimit = hostLimit;
+      return this;
+    }
+
+    /**
+     * Sets the policy applied to failed downloads and checksum mismatches. Defaults to {@link
+     * RetryPolicy#DEFAULT}.
+     *
+     * @param retryPolicy the retry policy
+     * @return the same builder
+     */
+    public Builder setRetryPolicy(final RetryPolicy retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+    }
+
+    /**
+     * Sets the policy deciding which JARs are downloaded in parallel segments, possibly from
+     * several repositories at once, so that a single large JAR no longer gates the load. JARs
+     * relocated while they are downloaded are never segmented. Defaults to {@link
+     * SegmentPolicy#NONE}.
+     *
+     * @param segmentPolicy the segment policy
+     * @return the same builder
+     */
+    public Builder setSegmentPolicy(final SegmentPolicy segmentPolicy) {
+      this.segmentPolicy = segmentPolicy;
+      return this;
+    }
+
+    /**
+     * Sets whether the dependencies of the artifacts are resolved from their POMs and installed as
+     * well. Disabled by default, in which case every needed artifact must be added.
+     *
+     * @param transitive whether to resolve transitive dependencies
+     * @return the same builder
+     */
+    public Builder setTransitive(final boolean transitive) {
+      this.transitive = transitive;
+      return this;
+    }
+
+    /**
+     * Sets whether JARs are relocated while they are being downloaded. Only the relocated JARs are
+     * written to the disk, which saves disk traffic on the first boot, but no pristine copy is
+     * kept, so changing the relocations downloads the JARs again. Disabled by default.
+     *
+     * @param streaming whether to relocate JARs while downloading them
+     * @return the same builder
+     */
+    public Builder setStreamingRelocation(final boolean streaming) {
+      this.streaming = streaming;
+      return this;
+    }
+
+    /**
+     * Sets whether the JARs are loaded through a package index, injected into the class loader as a
+     * single class path entry, instead of adding every JAR to the class path. Class lookups then no
+     * longer slow down as more JARs are loaded. Disabled by default.
+     *
+     * @param indexed whether to load the JARs through a package index
+     * @return the same builder
+     */
+    public Builder setIndexedLoading(final boolean indexed) {
+      this.indexed = indexed;
+      return this;
+    }
+
+    /**
+     * Sets whether the indexed JARs are memory-mapped, so that classes are read straight from the
+     * mapped files instead of through per-entry streams and heap buffers. Only used with indexed
+     * loading. Mapped JARs stay mapped until they are garbage collected, which keeps them locked on
+     * Windows. Disabled by default.
+     *
+     * @param mapped whether to memory-map the indexed JARs
+     * @return the same builder
+     */
+    public Builder setMappedLoading(final boolean mapped) {
+      this.mapped = mapped;
+      return this;
+    }
+
+    /**
+     * Sets whether the indexed JARs are only opened once a class or resource of one of their
+     * packages is requested. The packages of every JAR are recorded in the manifest the first time
+     * it is loaded, so later loads build the index without opening the JARs, and JARs of unused
+     * features never hold a file handle or a central directory. Only used with indexed loading.
+     * Disabled by default.
+     *
+     * @param lazy whether to open the indexed JARs on first use
+     * @return the same builder
+     */
+    public Builder setLazyLoading(final boolean lazy) {
+      this.lazy = lazy;
+      return this;
+    }
+
+    /**
+     * Sets the order in which the class loader consults the indexed JARs. Only used with indexed
+     * loading. Defaults to {@link LoaderDelegation#PARENT_FIRST}.
+     *
+     * @param delegation the delegation
+     * @return the same builder
+     */
+    public Builder setLoaderDelegation(final LoaderDelegation delegation) {
+      this.delegation = delegation;
+      return this;
+    }
+
+    /**
+     * Sets the class loader the JARs are loaded into. Defaults to the class loader of this library.
+     *
+     * @param classloader the class loader
+     * @return the same builder
+     */
+    public Builder setClassLoader(final URLClassLoader classloader) {
+      this.classloader = classloader;
+      return this;
+    }
+
+    /**
+     * Sets the folder of a store shared by every instance of the host, such as every plugin of a
+     * server, so that a JAR needed by several of them is downloaded and relocated once, and is
+     * linked into their folders instead of copied where the file system supports hard links.
+     * Concurrent loads coordinate through file locks on the artifacts they install. Streaming
+     * relocation keeps no pristine JAR to share, so it is not used with a shared store. Disabled by
+     * default.
+     *
+     * @param folder the folder of the shared store
+     * @return the same builder
+     */
+    public Builder setSharedStore(final Path folder) {
+      this.store = folder == null ? null : SharedStore.ofStore(folder);
+      return this;
+    }
+
     /**
      * Sets the target directory.
      *
@@ -252,6 +932,19 @@ public final class EMCDepManagement {
       return this;
     }
 
+    /**
+     * Sets the listener notified of the duration of every load phase, and of the resolution,
+     * download, verification, relocation, and injection of every artifact, so that the load can be
+     * fed to a metrics system. Ignores every event by default.
+     *
+     * @param listener the listener
+     * @return the same builder
+     */
+    public Builder setListener(final LoadListener listener) {
+      this.listener = listener;
+      return this;
+    }
+
     /**
      * Creates a new EMCDepManagement.
      *
@@ -263,9 +956,25 @@ public final class EMCDepManagement {
       this.createFile(file);
       return new EMCDepManagement(
           this.logger,
+          this.listener,
           new ArrayList<>(this.artifacts),
           new ArrayList<>(this.relocations),
           new ArrayList<>(this.repositories),
+          this.defaults,
+          this.local,
+          this.strategy,
+          this.downloadLimit,
+          this.hostDownloadLimit,
+          this.retryPolicy,
+          this.segmentPolicy,
+          this.transitive,
+          this.streaming,
+          this.indexed,
+          this.mapped,
+          this.lazy,
+          this.delegation,
+          this.classloader,
+          this.store,
           file);
     }
 
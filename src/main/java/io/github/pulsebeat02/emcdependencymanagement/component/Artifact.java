@@ -25,6 +25,8 @@ package io.github.pulsebeat02.emcdependencymanagement.component;
 
 import static io.github.pulsebeat02.emcdependencymanagement.util.PackageUtils.correctPackage;
 
+import java.util.Objects;
+
 /** Class used to store artifact information. */
 public final class Artifact {
 
@@ -53,6 +55,45 @@ public final class Artifact {
     return new Artifact(group, artifact, version);
   }
 
+  /**
+   * Gets the exact Maven coordinates of the artifact.
+   *
+   * <p>For example, net.java.dev.jna:jna:5.10.0
+   *
+   * @return the coordinates
+   */
+  public String getCoordinates() {
+    return String.format("%s:%s:%s", this.group, this.artifact, this.version);
+  }
+
+  /**
+   * Gets the file name of the JAR as it is published in a Maven repository.
+   *
+   * @return the JAR file name
+   */
+  public String getJarName() {
+    return String.format("%s-%s.jar", this.artifact, this.version);
+  }
+
+  /**
+   * Gets the path of a file of the artifact relative to the root of a Maven repository.
+   *
+   * <p>For example, net/java/dev/jna/jna/5.10.0/jna-5.10.0.pom
+   *
+   * @param extension the file extension, such as jar or pom
+   * @return the path of the file
+   */
+  public String getRepositoryPath(final String extension) {
+    return String.format(
+        "%s/%s/%s/%s-%s.%s",
+        this.group.replace('.', '/'),
+        this.artifact,
+        this.version,
+        this.artifact,
+        this.version,
+        extension);
+  }
+
   public String getGroup() {
     return this.group;
   }
@@ -64,4 +105,28 @@ public final class Artifact {
   public String getVersion() {
     return this.version;
   }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof Artifact)) {
+      return false;
+    }
+    final Artifact other = (Artifact) obj;
+    return this.group.equals(other.group)
+        && this.artifact.equals(other.artifact)
+        && this.version.equals(other.version);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.group, this.artifact, this.version);
+  }
+
+  @Override
+  public String toString() {
+    return this.getCoordinates();
+  }
 }
@@ -23,6 +23,9 @@
  */
 package io.github.pulsebeat02.emcdependencymanagement.component;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 /** Class used to hold repository URLs. */
 public final class Repository {
 
@@ -52,6 +55,15 @@ public final class Repository {
     return new Repository(url);
   }
 
+  /**
+   * Gets the repositories which are always searched after the configured repositories.
+   *
+   * @return the default repositories
+   */
+  public static Collection<Repository> getDefaultRepositories() {
+    return Arrays.asList(MAVEN_CENTRAL, OSS_SONATYPE, JCENTER);
+  }
+
   public String getUrl() {
     return this.url;
   }
@@ -0,0 +1,159 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Entry ready to be written by a {@link RawZipWriter}, whose data is already compressed. Entries
+ * are compressed by whichever thread creates them, so that they can be prepared in parallel.
+ */
+public final class RawEntry {
+
+  private final String name;
+  private final int method;
+  private final int dosTime;
+  private final long crc;
+  private final long size;
+  private final byte[] data;
+
+  RawEntry(
+      final String name,
+      final int method,
+      final int dosTime,
+      final long crc,
+      final long size,
+      final byte[] data) {
+    this.name = name;
+    this.method = method;
+    this.dosTime = dosTime;
+    this.crc = crc;
+    this.size = size;
+    this.data = data;
+  }
+
+  /**
+   * Creates a directory entry.
+   *
+   * @param name the entry name, ending with a slash
+   * @param dosTime the modification time, in MS-DOS format
+   * @return a new RawEntry
+   */
+  public static RawEntry ofDirectory(final String name, final int dosTime) {
+    return new RawEntry(name, ZipEntry.STORED, dosTime, 0L, 0L, new byte[0]);
+  }
+
+  /**
+   * Creates an entry from its uncompressed content, which is deflated.
+   *
+   * @param name the entry name
+   * @param dosTime the modification time, in MS-DOS format
+   * @param content the content of the entry
+   * @return a new RawEntry
+   */
+  public static RawEntry ofContent(final String name, final int dosTime, final byte[] content) {
+    final CRC32 crc = new CRC32();
+    crc.update(content, 0, content.length);
+    final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      deflater.setInput(content);
+      deflater.finish();
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2 + 64);
+      final byte[] buffer = new byte[8192];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return new RawEntry(
+          name, ZipEntry.DEFLATED, dosTime, crc.getValue(), content.length, out.toByteArray());
+    } finally {
+      deflater.end();
+    }
+  }
+
+  /**
+   * Creates an entry copying the compressed data of an entry from another archive, possibly under
+   * a new name.
+   *
+   * @param name the entry name
+   * @param record the original entry
+   * @param data the raw compressed bytes of the original entry
+   * @return a new RawEntry
+   */
+  public static RawEntry ofRecord(final String name, final ZipRecord record, final byte[] data) {
+    return new RawEntry(
+        name, record.getMethod(), record.getDosTime(), record.getCrc(), record.getSize(), data);
+  }
+
+  /**
+   * Converts a Java timestamp to the MS-DOS format used by ZIP archives.
+   *
+   * @param time the timestamp in milliseconds, or -1 if unknown
+   * @return the timestamp in MS-DOS format
+   */
+  public static int toDosTime(final long time) {
+    final LocalDateTime date =
+        LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(time < 0 ? System.currentTimeMillis() : time),
+            ZoneId.systemDefault());
+    if (date.getYear() < 1980) {
+      return 1 << 21 | 1 << 16;
+    }
+    return (date.getYear() - 1980) << 25
+        | date.getMonthValue() << 21
+        | date.getDayOfMonth() << 16
+        | date.getHour() << 11
+        | date.getMinute() << 5
+        | date.getSecond() >> 1;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public int getMethod() {
+    return this.method;
+  }
+
+  public int getDosTime() {
+    return this.dosTime;
+  }
+
+  public long getCrc() {
+    return this.crc;
+  }
+
+  public long getSize() {
+    return this.size;
+  }
+
+  public byte[] getData() {
+    return this.data;
+  }
+}
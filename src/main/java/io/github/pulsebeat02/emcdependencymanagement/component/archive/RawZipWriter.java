@@ -0,0 +1,184 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Writes ZIP archives from entries whose data is already compressed, so that entries can be copied
+ * from another archive without being inflated and deflated again. Zip64 is not supported.
+ */
+public final class RawZipWriter implements Closeable {
+
+  private static final long MAX_VALUE;
+  private static final int MAX_ENTRIES;
+  private static final int UTF8_FLAG;
+
+  static {
+    MAX_VALUE = 0xFFFFFFFFL;
+    MAX_ENTRIES = 0xFFFF;
+    UTF8_FLAG = 0x0800;
+  }
+
+  private final OutputStream out;
+  private final List<Header> headers;
+  private long offset;
+  private boolean finished;
+
+  RawZipWriter(final OutputStream out) {
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    this.headers = new ArrayList<>();
+  }
+
+  /**
+   * Creates a new writer. Closing the writer closes the stream, but only {@link #finish()}
+   * completes the archive.
+   *
+   * @param out the stream to write the archive to
+   * @return a new RawZipWriter
+   */
+  public static RawZipWriter ofWriter(final OutputStream out) {
+    return new RawZipWriter(out);
+  }
+
+  /**
+   * Writes an entry.
+   *
+   * @param entry the entry
+   * @throws IOException if an issue occurred while writing, or the archive would need Zip64
+   */
+  public void write(final RawEntry entry) throws IOException {
+    final byte[] name = entry.getName().getBytes(StandardCharsets.UTF_8);
+    final byte[] data = entry.getData();
+    if (this.headers.size() >= MAX_ENTRIES
+        || this.offset > MAX_VALUE
+        || entry.getSize() > MAX_VALUE) {
+      throw new ZipException("Archive is too large to be written without Zip64!");
+    }
+    final Header header = new Header(name, entry, data.length, this.offset);
+    final ByteBuffer local = this.createBuffer(30 + name.length);
+    local.putInt(0x04034b50);
+    this.putCommon(local, header);
+    local.putShort((short) 0);
+    local.put(name);
+    this.out.write(local.array());
+    this.out.write(data);
+    this.offset += local.capacity() + data.length;
+    this.headers.add(header);
+  }
+
+  /**
+   * Writes the central directory, after which no entries can be written.
+   *
+   * @throws IOException if an issue occurred while writing
+   */
+  public void finish() throws IOException {
+    if (this.finished) {
+      return;
+    }
+    this.finished = true;
+    final long start = this.offset;
+    for (final Header header : this.headers) {
+      final ByteBuffer central = this.createBuffer(46 + header.name.length);
+      central.putInt(0x02014b50);
+      central.putShort((short) 20);
+      this.putCommon(central, header);
+      central.putShort((short) 0);
+      central.putShort((short) 0);
+      central.putShort((short) 0);
+      central.putShort((short) 0);
+      central.putInt(0);
+      central.putInt((int) header.offset);
+      central.put(header.name);
+      this.out.write(central.array());
+      this.offset += central.capacity();
+    }
+    if (this.offset > MAX_VALUE) {
+      throw new ZipException("Archive is too large to be written without Zip64!");
+    }
+    final ByteBuffer end = this.createBuffer(22);
+    end.putInt(0x06054b50);
+    end.putShort((short) 0);
+    end.putShort((short) 0);
+    end.putShort((short) this.headers.size());
+    end.putShort((short) this.headers.size());
+    end.putInt((int) (this.offset - start));
+    end.putInt((int) start);
+    end.putShort((short) 0);
+    this.out.write(end.array());
+    this.out.flush();
+  }
+
+  private void putCommon(final ByteBuffer buffer, final Header header) {
+    buffer.putShort((short) (header.method == ZipEntry.DEFLATED ? 20 : 10));
+    buffer.putShort((short) UTF8_FLAG);
+    buffer.putShort((short) header.method);
+    buffer.putShort((short) header.dosTime);
+    buffer.putShort((short) (header.dosTime >>> 16));
+    buffer.putInt((int) header.crc);
+    buffer.putInt((int) header.compressedSize);
+    buffer.putInt((int) header.size);
+    buffer.putShort((short) header.name.length);
+  }
+
+  private ByteBuffer createBuffer(final int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+
+  private static final class Header {
+
+    private final byte[] name;
+    private final int method;
+    private final int dosTime;
+    private final long crc;
+    private final long compressedSize;
+    private final long size;
+    private final long offset;
+
+    Header(final byte[] name, final RawEntry entry, final long compressedSize, final long offset) {
+      this.name = name;
+      this.method = entry.getMethod();
+      this.dosTime = entry.getDosTime();
+      this.crc = entry.getCrc();
+      this.compressedSize = compressedSize;
+      this.size = entry.getSize();
+      this.offset = offset;
+    }
+  }
+}
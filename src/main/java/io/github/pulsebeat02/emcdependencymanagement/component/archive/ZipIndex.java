@@ -0,0 +1,370 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Index of a ZIP archive, read from its central directory. Entries can be read either inflated or
+ * as their raw compressed bytes, from any number of threads at once. Archives using Zip64,
+ * encryption, or spanning are not supported.
+ */
+public final class ZipIndex implements Closeable {
+
+  private static final int END_SIGNATURE;
+  private static final int CENTRAL_SIGNATURE;
+  private static final int LOCAL_SIGNATURE;
+  private static final int END_SIZE;
+  private static final int CENTRAL_SIZE;
+  private static final int LOCAL_SIZE;
+
+  static {
+    END_SIGNATURE = 0x06054b50;
+    CENTRAL_SIGNATURE = 0x02014b50;
+    LOCAL_SIGNATURE = 0x04034b50;
+    END_SIZE = 22;
+    CENTRAL_SIZE = 46;
+    LOCAL_SIZE = 30;
+  }
+
+  private final Path path;
+  private final FileChannel channel;
+  private final List<ZipRecord> records;
+
+  ZipIndex(final Path path, final FileChannel channel, final List<ZipRecord> records) {
+    this.path = path;
+    this.channel = channel;
+    this.records = records;
+  }
+
+  /**
+   * Opens an archive and reads its central directory.
+   *
+   * @param path the archive
+   * @return the index, or empty if the archive uses features that are not supported
+   * @throws IOException if the archive could not be read or is malformed
+   */
+  public static Optional<ZipIndex> open(final Path path) throws IOException {
+    final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      final Optional<List<ZipRecord>> records = readCentralDirectory(channel);
+      if (!records.isPresent()) {
+        channel.close();
+        return Optional.empty();
+      }
+      return Optional.of(new ZipIndex(path, channel, records.get()));
+    } catch (final IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private static Optional<List<ZipRecord>> readCentralDirectory(final FileChannel channel)
+      throws IOException {
+    final long length = channel.size();
+    if (length < END_SIZE) {
+      throw new ZipException("Archive is too small!");
+    }
+    final int tail = (int) Math.min(length, END_SIZE + 0xFFFF);
+    final Optional<ByteBuffer> end = findEnd(read(channel, length - tail, tail));
+    if (!end.isPresent() || !isSupported(end.get())) {
+      return Optional.empty();
+    }
+    final long size = end.get().getInt(12) & 0xFFFFFFFFL;
+    final long offset = end.get().getInt(16) & 0xFFFFFFFFL;
+    if (offset + size > length) {
+      throw new ZipException("Central directory is out of bounds!");
+    }
+    return parseRecords(read(channel, offset, (int) size), end.get().getShort(10) & 0xFFFF);
+  }
+
+  /**
+   * Reads the central directory of an archive held entirely in a buffer, such as a mapped file.
+   *
+   * @param archive the archive, from its first byte
+   * @return the entries of the archive, or empty if the archive uses features that are not
+   *     supported
+   * @throws IOException if the archive is malformed
+   */
+  public static Optional<List<ZipRecord>> readRecords(final ByteBuffer archive)
+      throws IOException {
+    final ByteBuffer buffer = archive.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    final int length = buffer.capacity();
+    if (length < END_SIZE) {
+      throw new ZipException("Archive is too small!");
+    }
+    final int tail = Math.min(length, END_SIZE + 0xFFFF);
+    buffer.position(length - tail);
+    final Optional<ByteBuffer> end = findEnd(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+    if (!end.isPresent() || !isSupported(end.get())) {
+      return Optional.empty();
+    }
+    final long size = end.get().getInt(12) & 0xFFFFFFFFL;
+    final long offset = end.get().getInt(16) & 0xFFFFFFFFL;
+    if (offset + size > length) {
+      throw new ZipException("Central directory is out of bounds!");
+    }
+    buffer.limit((int) (offset + size));
+    buffer.position((int) offset);
+    final ByteBuffer central = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    return parseRecords(central, end.get().getShort(10) & 0xFFFF);
+  }
+
+  /**
+   * Gets the offset of the data of an entry, just after its local header.
+   *
+   * @param archive the archive, from its first byte, in little-endian order
+   * @param record the entry
+   * @return the offset of the compressed data of the entry
+   * @throws IOException if the local header is malformed
+   */
+  public static int getDataOffset(final ByteBuffer archive, final ZipRecord record)
+      throws IOException {
+    final int local = (int) record.getLocalOffset();
+    if (archive.getInt(local) != LOCAL_SIGNATURE) {
+      throw new ZipException(String.format("Malformed local header for %s!", record.getName()));
+    }
+    final int nameLength = archive.getShort(local + 26) & 0xFFFF;
+    final int extraLength = archive.getShort(local + 28) & 0xFFFF;
+    return local + LOCAL_SIZE + nameLength + extraLength;
+  }
+
+  private static boolean isSupported(final ByteBuffer end) {
+    final int disk = end.getShort(4) & 0xFFFF;
+    final int centralDisk = end.getShort(6) & 0xFFFF;
+    final int count = end.getShort(10) & 0xFFFF;
+    final long offset = end.getInt(16) & 0xFFFFFFFFL;
+    return disk == 0 && centralDisk == 0 && count != 0xFFFF && offset != 0xFFFFFFFFL;
+  }
+
+  private static Optional<List<ZipRecord>> parseRecords(final ByteBuffer central, final int count)
+      throws IOException {
+    final List<ZipRecord> records = new ArrayList<>(count);
+    int position = 0;
+    for (int i = 0; i < count; i++) {
+      if (position + CENTRAL_SIZE > central.limit()
+          || central.getInt(position) != CENTRAL_SIGNATURE) {
+        throw new ZipException("Malformed central directory entry!");
+      }
+      final int flags = central.getShort(position + 8) & 0xFFFF;
+      final long compressedSize = central.getInt(position + 20) & 0xFFFFFFFFL;
+      final long uncompressedSize = central.getInt(position + 24) & 0xFFFFFFFFL;
+      final long localOffset = central.getInt(position + 42) & 0xFFFFFFFFL;
+      if ((flags & 1) != 0
+          || compressedSize == 0xFFFFFFFFL
+          || uncompressedSize == 0xFFFFFFFFL
+          || localOffset == 0xFFFFFFFFL) {
+        return Optional.empty();
+      }
+      final int nameLength = central.getShort(position + 28) & 0xFFFF;
+      final int extraLength = central.getShort(position + 30) & 0xFFFF;
+      final int commentLength = central.getShort(position + 32) & 0xFFFF;
+      if (position + CENTRAL_SIZE + nameLength > central.limit()) {
+        throw new ZipException("Malformed central directory entry!");
+      }
+      final byte[] name = new byte[nameLength];
+      central.position(position + CENTRAL_SIZE);
+      central.get(name);
+      final int time = central.getShort(position + 12) & 0xFFFF;
+      final int date = central.getShort(position + 14) & 0xFFFF;
+      records.add(
+          new ZipRecord(
+              new String(name, StandardCharsets.UTF_8),
+              central.getShort(position + 10) & 0xFFFF,
+              date << 16 | time,
+              central.getInt(position + 16) & 0xFFFFFFFFL,
+              compressedSize,
+              uncompressedSize,
+              localOffset));
+      position += CENTRAL_SIZE + nameLength + extraLength + commentLength;
+    }
+    return Optional.of(Collections.unmodifiableList(records));
+  }
+
+  private static Optional<ByteBuffer> findEnd(final ByteBuffer buffer) throws IOException {
+    // the comment of the end record must reach the end of the archive; signatures inside comments
+    // or followed by trailing bytes are not trusted, and such archives are left to ZipFile
+    boolean found = false;
+    for (int position = buffer.limit() - END_SIZE; position >= 0; position--) {
+      if (buffer.getInt(position) != END_SIGNATURE) {
+        continue;
+      }
+      found = true;
+      final int comment = buffer.getShort(position + 20) & 0xFFFF;
+      if (position + END_SIZE + comment == buffer.limit()) {
+        buffer.position(position);
+        return Optional.of(buffer.slice().order(ByteOrder.LITTLE_ENDIAN));
+      }
+    }
+    if (!found) {
+      throw new ZipException("End of central directory not found!");
+    }
+    return Optional.empty();
+  }
+
+  private static ByteBuffer read(final FileChannel channel, final long offset, final int length)
+      throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, offset + buffer.position()) < 0) {
+        throw new EOFException("Unexpected end of archive!");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Reads the raw compressed bytes of an entry.
+   *
+   * @param record the entry
+   * @return the compressed bytes
+   * @throws IOException if an issue occurred while reading the archive
+   */
+  public byte[] readRaw(final ZipRecord record) throws IOException {
+    final ByteBuffer local = read(this.channel, record.getLocalOffset(), LOCAL_SIZE);
+    if (local.getInt(0) != LOCAL_SIGNATURE) {
+      throw new ZipException(String.format("Malformed local header for %s!", record.getName()));
+    }
+    final int nameLength = local.getShort(26) & 0xFFFF;
+    final int extraLength = local.getShort(28) & 0xFFFF;
+    final long offset = record.getLocalOffset() + LOCAL_SIZE + nameLength + extraLength;
+    return read(this.channel, offset, (int) record.getCompressedSize()).array();
+  }
+
+  /**
+   * Reads the inflated bytes of an entry, and checks them against the CRC of the entry.
+   *
+   * @param record the entry
+   * @return the content of the entry
+   * @throws IOException if an issue occurred while reading the archive
+   */
+  public byte[] read(final ZipRecord record) throws IOException {
+    final byte[] raw = this.readRaw(record);
+    final byte[] content;
+    if (record.getMethod() == ZipEntry.STORED) {
+      content = raw;
+    } else if (record.getMethod() == ZipEntry.DEFLATED) {
+      content = this.inflate(record, raw);
+    } else {
+      throw new ZipException(
+          String.format(
+              "Unsupported compression method %d for %s!", record.getMethod(), record.getName()));
+    }
+    final CRC32 crc = new CRC32();
+    crc.update(content, 0, content.length);
+    if (crc.getValue() != record.getCrc()) {
+      throw new ZipException(String.format("CRC mismatch for %s!", record.getName()));
+    }
+    return content;
+  }
+
+  /**
+   * Opens a stream over the inflated bytes of an entry, which inflates only as much of the entry
+   * as is read. Unlike {@link #read(ZipRecord)}, the content is not checked against the CRC of the
+   * entry.
+   *
+   * @param record the entry
+   * @return a stream over the content of the entry
+   * @throws IOException if an issue occurred while reading the archive
+   */
+  public InputStream openStream(final ZipRecord record) throws IOException {
+    final InputStream raw = new ByteArrayInputStream(this.readRaw(record));
+    if (record.getMethod() == ZipEntry.STORED) {
+      return raw;
+    } else if (record.getMethod() != ZipEntry.DEFLATED) {
+      throw new ZipException(
+          String.format(
+              "Unsupported compression method %d for %s!", record.getMethod(), record.getName()));
+    }
+    // raw inflaters may need one extra byte past the end of the input to finish
+    final InputStream padded = new SequenceInputStream(raw, new ByteArrayInputStream(new byte[1]));
+    final Inflater inflater = new Inflater(true);
+    return new InflaterInputStream(padded, inflater) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          inflater.end();
+        }
+      }
+    };
+  }
+
+  private byte[] inflate(final ZipRecord record, final byte[] raw) throws IOException {
+    final byte[] content = new byte[(int) record.getSize()];
+    final Inflater inflater = new Inflater(true);
+    try {
+      inflater.setInput(raw);
+      int length = 0;
+      while (length < content.length) {
+        final int n = inflater.inflate(content, length, content.length - length);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new ZipException(String.format("Truncated entry %s!", record.getName()));
+        }
+        length += n;
+      }
+      return content;
+    } catch (final DataFormatException e) {
+      throw new ZipException(String.format("Malformed entry %s!", record.getName()));
+    } finally {
+      inflater.end();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  public Path getPath() {
+    return this.path;
+  }
+
+  public List<ZipRecord> getRecords() {
+    return this.records;
+  }
+}
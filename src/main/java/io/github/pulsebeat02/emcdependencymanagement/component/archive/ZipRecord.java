@@ -0,0 +1,88 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.archive;
+
+/**
+ * Entry of the central directory of a ZIP archive. Holds everything needed to copy the compressed
+ * data of the entry into another archive without inflating it.
+ */
+public final class ZipRecord {
+
+  private final String name;
+  private final int method;
+  private final int dosTime;
+  private final long crc;
+  private final long compressedSize;
+  private final long size;
+  private final long localOffset;
+
+  ZipRecord(
+      final String name,
+      final int method,
+      final int dosTime,
+      final long crc,
+      final long compressedSize,
+      final long size,
+      final long localOffset) {
+    this.name = name;
+    this.method = method;
+    this.dosTime = dosTime;
+    this.crc = crc;
+    this.compressedSize = compressedSize;
+    this.size = size;
+    this.localOffset = localOffset;
+  }
+
+  public boolean isDirectory() {
+    return this.name.endsWith("/");
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public int getMethod() {
+    return this.method;
+  }
+
+  public int getDosTime() {
+    return this.dosTime;
+  }
+
+  public long getCrc() {
+    return this.crc;
+  }
+
+  public long getCompressedSize() {
+    return this.compressedSize;
+  }
+
+  public long getSize() {
+    return this.size;
+  }
+
+  public long getLocalOffset() {
+    return this.localOffset;
+  }
+}
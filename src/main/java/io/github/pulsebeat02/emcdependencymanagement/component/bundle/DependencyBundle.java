@@ -0,0 +1,313 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.bundle;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.InstallManifest;
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.ManifestEntry;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Archive of a library folder, holding its manifest, repository cache, POMs, and pristine and
+ * relocated JARs, so that a new folder can be seeded without any request. The archive starts with
+ * an index of its files and their checksums, so that it can be extracted from a stream, and every
+ * file is verified before it is moved into place. Relocated JARs are only extracted if the bundle
+ * was exported with the same relocations, as they are useless otherwise.
+ */
+public final class DependencyBundle {
+
+  private static final String INDEX_NAME;
+  private static final String HEADER;
+  private static final String RELOCATED_FOLDER;
+  private static final String STAGING_SUFFIX;
+  private static final List<String> RECORD_NAMES;
+
+  static {
+    INDEX_NAME = "bundle.emc";
+    HEADER = "# emc-bundle 1";
+    RELOCATED_FOLDER = "relocated/";
+    STAGING_SUFFIX = ".import";
+    RECORD_NAMES = Arrays.asList("manifest.emc", "state.emc");
+  }
+
+  private final Path folder;
+  private final String fingerprint;
+
+  DependencyBundle(final Path folder, final String fingerprint) {
+    this.folder = folder;
+    this.fingerprint = fingerprint;
+  }
+
+  /**
+   * Creates a new bundle of a library folder.
+   *
+   * @param folder the library folder
+   * @param fingerprint the fingerprint of the relocations the folder is loaded with
+   * @return a new DependencyBundle
+   */
+  public static DependencyBundle ofBundle(final Path folder, final String fingerprint) {
+    return new DependencyBundle(folder, fingerprint);
+  }
+
+  /**
+   * Writes the files of the library folder into an archive. Partial and temporary files are left
+   * out.
+   *
+   * @param out the stream the archive is written to
+   * @throws IOException if an issue occurred while writing the archive
+   */
+  public void export(final OutputStream out) throws IOException {
+    final Map<String, String> checksums = new LinkedHashMap<>();
+    final List<Path> files = this.getFiles();
+    for (final Path file : files) {
+      checksums.put(this.getName(file), FileUtils.getUppercaseHash(file));
+    }
+    final ZipOutputStream zip = new ZipOutputStream(out);
+    // JARs are already compressed, so deflating them again only costs time on both ends
+    zip.setLevel(Deflater.NO_COMPRESSION);
+    zip.putNextEntry(new ZipEntry(INDEX_NAME));
+    zip.write(this.formatIndex(checksums).getBytes(StandardCharsets.UTF_8));
+    zip.closeEntry();
+    for (final Path file : files) {
+      zip.putNextEntry(new ZipEntry(this.getName(file)));
+      Files.copy(file, zip);
+      zip.closeEntry();
+    }
+    zip.finish();
+  }
+
+  private List<Path> getFiles() throws IOException {
+    if (Files.notExists(this.folder)) {
+      return new ArrayList<>();
+    }
+    try (final Stream<Path> stream = Files.walk(this.folder)) {
+      return stream
+          .filter(Files::isRegularFile)
+          .filter(file -> !this.isTransient(file.getFileName().toString()))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private boolean isTransient(final String name) {
+    return name.endsWith(".part")
+        || name.endsWith(".validator")
+        || name.endsWith(".tmp")
+        || name.endsWith(".lock");
+  }
+
+  private String getName(final Path file) {
+    return this.folder.relativize(file).toString().replace('\\', '/');
+  }
+
+  private String formatIndex(final Map<String, String> checksums) {
+    final StringBuilder builder = new StringBuilder();
+    builder.append(HEADER).append('\n');
+    builder.append(this.fingerprint).append('\n');
+    for (final Map.Entry<String, String> entry : checksums.entrySet()) {
+      builder.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Extracts an archive into the library folder, entry by entry as it is read. Every file is
+   * verified against its checksum into a staging folder beside the library folder, and the files
+   * are only moved into place once the whole archive was read and no indexed file is missing from
+   * it. The manifest and the load state are moved last, so that an interrupted extraction never
+   * records files that are not in place. Installed JARs are given the modification time recorded
+   * in the manifest, so that the next load trusts them without hashing them again.
+   *
+   * @param in the stream the archive is read from
+   * @return whether the relocated JARs of the bundle were extracted too
+   * @throws IOException if the archive is invalid, or an issue occurred while extracting it
+   */
+  public boolean extract(final InputStream in) throws IOException {
+    final ZipInputStream zip = new ZipInputStream(in);
+    final ZipEntry first = zip.getNextEntry();
+    if (first == null || !INDEX_NAME.equals(first.getName())) {
+      throw new IOException("The archive is not a dependency bundle!");
+    }
+    final List<String> lines = this.readLines(zip);
+    if (lines.size() < 2 || !HEADER.equals(lines.get(0))) {
+      throw new IOException("The dependency bundle has an unsupported format!");
+    }
+    final boolean relocated = this.fingerprint.equals(lines.get(1));
+    final Map<String, String> checksums = this.parseIndex(lines.subList(2, lines.size()));
+    final Path staging = this.getStaging();
+    this.delete(staging);
+    try {
+      final List<String> names = this.stage(zip, staging, checksums, relocated);
+      this.restoreTimes(this.moveStaged(staging, names));
+    } finally {
+      this.delete(staging);
+    }
+    return relocated;
+  }
+
+  private Path getStaging() {
+    final String name = String.format("%s%s", this.folder.getFileName(), STAGING_SUFFIX);
+    return this.folder.toAbsolutePath().resolveSibling(name);
+  }
+
+  private List<String> stage(
+      final ZipInputStream zip,
+      final Path staging,
+      final Map<String, String> checksums,
+      final boolean relocated)
+      throws IOException {
+    final List<String> names = new ArrayList<>();
+    ZipEntry entry;
+    while ((entry = zip.getNextEntry()) != null) {
+      final String name = entry.getName();
+      final String checksum = checksums.get(name);
+      if (checksum == null) {
+        throw new IOException(String.format("Bundle entry %s is not indexed!", name));
+      }
+      if (!relocated && name.startsWith(RELOCATED_FOLDER)) {
+        continue;
+      }
+      this.extractEntry(zip, staging, name, checksum);
+      names.add(name);
+    }
+    final Set<String> staged = new HashSet<>(names);
+    for (final String name : checksums.keySet()) {
+      if (!staged.contains(name) && (relocated || !name.startsWith(RELOCATED_FOLDER))) {
+        throw new IOException(String.format("Bundle entry %s is missing!", name));
+      }
+    }
+    return names;
+  }
+
+  private Set<Path> moveStaged(final Path staging, final List<String> names) throws IOException {
+    final List<String> ordered = new ArrayList<>(names);
+    ordered.sort(Comparator.comparing(RECORD_NAMES::indexOf));
+    final Set<Path> moved = new HashSet<>();
+    for (final String name : ordered) {
+      final Path target = this.folder.resolve(name).normalize();
+      Files.createDirectories(target.getParent());
+      FileUtils.moveAtomically(staging.resolve(name), target);
+      moved.add(target);
+    }
+    return moved;
+  }
+
+  private void delete(final Path staging) throws IOException {
+    if (Files.notExists(staging)) {
+      return;
+    }
+    final List<Path> paths;
+    try (final Stream<Path> stream = Files.walk(staging)) {
+      paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+    }
+    for (final Path path : paths) {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  private List<String> readLines(final InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n"));
+  }
+
+  private Map<String, String> parseIndex(final List<String> lines) throws IOException {
+    final Map<String, String> checksums = new LinkedHashMap<>();
+    for (final String line : lines) {
+      final String[] parts = line.split("\t");
+      if (parts.length != 2) {
+        throw new IOException("The dependency bundle has an invalid index!");
+      }
+      checksums.put(parts[0], parts[1]);
+    }
+    return checksums;
+  }
+
+  private void extractEntry(
+      final InputStream in, final Path staging, final String name, final String checksum)
+      throws IOException {
+    final Path target = staging.resolve(name).normalize();
+    if (!target.startsWith(staging.normalize()) || this.isTransient(name)) {
+      throw new IOException(String.format("Bundle entry %s is outside the folder!", name));
+    }
+    Files.createDirectories(target.getParent());
+    final MessageDigest digest = FileUtils.createDigest();
+    try (final OutputStream out = new DigestOutputStream(Files.newOutputStream(target), digest)) {
+      final byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+    }
+    if (!checksum.equals(FileUtils.toUppercaseHex(digest.digest()))) {
+      throw new IOException(String.format("Bundle entry %s does not match its checksum!", name));
+    }
+  }
+
+  private void restoreTimes(final Set<Path> extracted) throws IOException {
+    final InstallManifest manifest = InstallManifest.ofManifest(this.folder);
+    manifest.load();
+    for (final ManifestEntry entry : manifest.getEntries()) {
+      final Path path = entry.getPath().normalize();
+      if (extracted.contains(path) && Files.size(path) == entry.getSize()) {
+        Files.setLastModifiedTime(path, FileTime.fromMillis(entry.getModified()));
+      }
+    }
+  }
+
+  public Path getFolder() {
+    return this.folder;
+  }
+
+  public String getFingerprint() {
+    return this.fingerprint;
+  }
+}
@@ -0,0 +1,232 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
+
+import io.github.pulsebeat02.emcdependencymanagement.util.ThreadUtils;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs downloads on a dedicated thread pool, bounding both the total number of downloads and the
+ * number of downloads per host. Tasks over the host limit are queued without occupying a thread,
+ * so that a slow host never blocks downloads from other hosts.
+ */
+public final class DownloadEngine implements AutoCloseable {
+
+  private static final int DEFAULT_GLOBAL_LIMIT;
+  private static final int DEFAULT_HOST_LIMIT;
+
+  static {
+    DEFAULT_GLOBAL_LIMIT = 16;
+    DEFAULT_HOST_LIMIT = 4;
+  }
+
+  private final int globalLimit;
+  private final int hostLimit;
+  private final RetryPolicy retryPolicy;
+  private final SegmentPolicy segmentPolicy;
+  private final ThreadPoolExecutor executor;
+  private final Map<String, HostQueue> hosts;
+
+  DownloadEngine(
+      final int globalLimit,
+      final int hostLimit,
+      final RetryPolicy retryPolicy,
+      final SegmentPolicy segmentPolicy) {
+    if (globalLimit < 1 || hostLimit < 1) {
+      throw new IllegalArgumentException("Download concurrency limits must be at least 1!");
+    }
+    this.globalLimit = globalLimit;
+    this.hostLimit = hostLimit;
+    this.retryPolicy = retryPolicy;
+    this.segmentPolicy = segmentPolicy;
+    this.executor =
+        new ThreadPoolExecutor(
+            globalLimit,
+            globalLimit,
+            30L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            ThreadUtils.createDaemonFactory("emc-download"));
+    this.executor.allowCoreThreadTimeOut(true);
+    this.hosts = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates a new download engine with the default limits of 16 downloads in total and 4
+   * downloads per host, and the default retry policy.
+   *
+   * @return a new DownloadEngine
+   */
+  public static DownloadEngine ofEngine() {
+    return ofEngine(DEFAULT_GLOBAL_LIMIT, DEFAULT_HOST_LIMIT);
+  }
+
+  /**
+   * Creates a new download engine.
+   *
+   * @param globalLimit the maximum number of downloads running at once
+   * @param hostLimit the maximum number of downloads running at once against a single host
+   * @return a new DownloadEngine
+   */
+  public static DownloadEngine ofEngine(final int globalLimit, final int hostLimit) {
+    return ofEngine(globalLimit, hostLimit, RetryPolicy.DEFAULT);
+  }
+
+  /**
+   * Creates a new download engine.
+   *
+   * @param globalLimit the maximum number of downloads running at once
+   * @param hostLimit the maximum number of downloads running at once against a single host
+   * @param retryPolicy the policy applied to failed downloads
+   * @return a new DownloadEngine
+   */
+  public static DownloadEngine ofEngine(
+      final int globalLimit, final int hostLimit, final RetryPolicy retryPolicy) {
+    return ofEngine(globalLimit, hostLimit, retryPolicy, SegmentPolicy.NONE);
+  }
+
+  /**
+   * Creates a new download engine. Segments of a JAR are fetched on their own connections, which
+   * are not counted against the limits.
+   *
+   * @param globalLimit the maximum number of downloads running at once
+   * @param hostLimit the maximum number of downloads running at once against a single host
+   * @param retryPolicy the policy applied to failed downloads
+   * @param segmentPolicy the policy deciding which JARs are downloaded in segments
+   * @return a new DownloadEngine
+   */
+  public static DownloadEngine ofEngine(
+      final int globalLimit,
+      final int hostLimit,
+      final RetryPolicy retryPolicy,
+      final SegmentPolicy segmentPolicy) {
+    return new DownloadEngine(globalLimit, hostLimit, retryPolicy, segmentPolicy);
+  }
+
+  /**
+   * Submits a download task. The task is counted against the host of the url. Tasks against the
+   * same host start in the order they were submitted.
+   *
+   * @param url the url the task downloads from
+   * @param task the task
+   * @param <T> the result type
+   * @return a future completed with the result of the task
+   */
+  public <T> CompletableFuture<T> submit(final String url, final Callable<T> task) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final HostQueue queue = this.hosts.computeIfAbsent(this.getHost(url), key -> new HostQueue());
+    queue.submit(() -> this.complete(future, task));
+    return future;
+  }
+
+  private <T> void complete(final CompletableFuture<T> future, final Callable<T> task) {
+    if (future.isDone()) {
+      return;
+    }
+    try {
+      future.complete(task.call());
+    } catch (final Throwable e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  private String getHost(final String url) {
+    try {
+      final URL parsed = new URL(url);
+      return String.format("%s:%d", parsed.getHost(), parsed.getPort());
+    } catch (final MalformedURLException e) {
+      return url;
+    }
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  public int getGlobalLimit() {
+    return this.globalLimit;
+  }
+
+  public int getHostLimit() {
+    return this.hostLimit;
+  }
+
+  public RetryPolicy getRetryPolicy() {
+    return this.retryPolicy;
+  }
+
+  public SegmentPolicy getSegmentPolicy() {
+    return this.segmentPolicy;
+  }
+
+  private final class HostQueue {
+
+    private final Queue<Runnable> pending;
+    private int running;
+
+    HostQueue() {
+      this.pending = new ArrayDeque<>();
+    }
+
+    synchronized void submit(final Runnable task) {
+      if (this.running < DownloadEngine.this.hostLimit) {
+        this.running++;
+        this.dispatch(task);
+      } else {
+        this.pending.add(task);
+      }
+    }
+
+    private synchronized void release() {
+      final Runnable next = this.pending.poll();
+      if (next == null) {
+        this.running--;
+      } else {
+        this.dispatch(next);
+      }
+    }
+
+    private void dispatch(final Runnable task) {
+      DownloadEngine.this.executor.execute(
+          () -> {
+            try {
+              task.run();
+            } finally {
+              this.release();
+            }
+          });
+    }
+  }
+}
@@ -26,47 +26,84 @@ package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
 import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
 import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
 import io.github.pulsebeat02.emcdependencymanagement.component.Repository;
+import io.github.pulsebeat02.emcdependencymanagement.component.relocator.StreamingRelocator;
+import io.github.pulsebeat02.emcdependencymanagement.metrics.LoadListener;
 import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import io.github.pulsebeat02.emcdependencymanagement.util.HttpUtils;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
-import java.util.Arrays;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Scanner;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-/** Installs the JARs based on the artifacts given. */
+/**
+ * Installs the JARs based on the artifacts given. JARs are downloaded into a partial file first,
+ * which is resumed with a range request after an interruption, and only moved into place once its
+ * checksum was verified. Large JARs may be fetched in parallel segments instead, as decided by the
+ * {@link SegmentPolicy} of the download engine. JARs found in the {@link LocalRepository} of the
+ * resolver are linked or copied from it without any request.
+ */
 public final class JarInstaller {
 
+  private static final int TIMEOUT_MILLIS;
+
+  static {
+    TIMEOUT_MILLIS = 30_000;
+  }
+
   private final LoggerConfiguration logger;
+  private final LoadListener listener;
   private final Collection<Artifact> artifacts;
-  private final Collection<Repository> repositories;
-  private final Set<Path> paths;
+  private final RepositoryResolver resolver;
+  private final DownloadEngine engine;
+  private final StreamingRelocator relocator;
+  private final Map<Artifact, Path> installed;
+  private final Map<Artifact, String> checksums;
   private final Path target;
+  private final boolean owned;
 
   JarInstaller(
       final LoggerConfiguration logger,
+      final LoadListener listener,
       final Collection<Artifact> artifacts,
-      final Collection<Repository> repositories,
-      final Path target) {
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final StreamingRelocator relocator,
+      final Path target,
+      final boolean owned) {
     this.logger = logger;
+    this.listener = LoadListener.guarded(listener, logger);
     this.artifacts = artifacts;
-    this.repositories = repositories;
+    this.resolver = resolver;
+    this.engine = engine;
+    this.relocator = relocator;
     this.target = target;
-    this.paths = new HashSet<>();
-    repositories.addAll(
-        Arrays.asList(Repository.MAVEN_CENTRAL, Repository.OSS_SONATYPE, Repository.JCENTER));
+    this.owned = owned;
+    this.installed = new ConcurrentHashMap<>();
+    this.checksums = new ConcurrentHashMap<>();
   }
 
   /**
-   * Creates a new artifact installer.
+   * Creates a new artifact installer, which searches the repositories in order. The installer owns
+   * its resolver and download engine: the repository cache in the target directory is loaded
+   * before the installation and saved after it, and both are closed once it finished.
    *
    * @param logger the logger to use
    * @param artifacts the artifacts to install
@@ -79,19 +116,171 @@ public final class JarInstaller {
       final Collection<Artifact> artifacts,
       final Collection<Repository> repositories,
       final Path target) {
-    return new JarInstaller(logger, artifacts, repositories, target);
+    final List<Repository> all = new ArrayList<>(repositories);
+    all.addAll(Repository.getDefaultRepositories());
+    final RepositoryResolver resolver =
+        RepositoryResolver.ofResolver(
+            all, ResolutionStrategy.REPOSITORY_ORDER, RepositoryCache.ofCache(target));
+    return new JarInstaller(
+        logger,
+        LoadListener.empty(),
+        artifacts,
+        resolver,
+        DownloadEngine.ofEngine(),
+        null,
+        target,
+        true);
+  }
+
+  /**
+   * Creates a new artifact installer.
+   *
+   * @param logger the logger to use
+   * @param artifacts the artifacts to install
+   * @param resolver the resolver used to find the repository of each artifact
+   * @param engine the engine used to run downloads
+   * @param target the target directory
+   * @return a new JarInstaller
+   */
+  public static JarInstaller ofInstaller(
+      final LoggerConfiguration logger,
+      final Collection<Artifact> artifacts,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final Path target) {
+    return ofInstaller(logger, LoadListener.empty(), artifacts, resolver, engine, target);
   }
 
   /**
-   * Starts the installation process.
+   * Creates a new artifact installer, which reports the work done for every artifact.
+   *
+   * @param logger the logger to use
+   * @param listener the listener notified of every resolution, download, and verification
+   * @param artifacts the artifacts to install
+   * @param resolver the resolver used to find the repository of each artifact
+   * @param engine the engine used to run downloads
+   * @param target the target directory
+   * @return a new JarInstaller
+   */
+  public static JarInstaller ofInstaller(
+      final LoggerConfiguration logger,
+      final LoadListener listener,
+      final Collection<Artifact> artifacts,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final Path target) {
+    return new JarInstaller(logger, listener, artifacts, resolver, engine, null, target, false);
+  }
+
+  /**
+   * Creates a new artifact installer, which relocates every JAR while it is being downloaded. Only
+   * the relocated JARs are written to the disk, into the folder of the relocation cache, and
+   * interrupted downloads are restarted from the beginning.
+   *
+   * @param logger the logger to use
+   * @param artifacts the artifacts to install
+   * @param resolver the resolver used to find the repository of each artifact
+   * @param engine the engine used to run downloads
+   * @param relocator the relocator applied to the downloaded bytes
+   * @return a new JarInstaller
+   */
+  public static JarInstaller ofInstaller(
+      final LoggerConfiguration logger,
+      final Collection<Artifact> artifacts,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final StreamingRelocator relocator) {
+    return ofInstaller(logger, LoadListener.empty(), artifacts, resolver, engine, relocator);
+  }
+
+  /**
+   * Creates a new artifact installer, which relocates every JAR while it is being downloaded and
+   * reports the work done for every artifact. See {@link #ofInstaller(LoggerConfiguration,
+   * Collection, RepositoryResolver, DownloadEngine, StreamingRelocator)}.
+   *
+   * @param logger the logger to use
+   * @param listener the listener notified of every resolution, download, and verification
+   * @param artifacts the artifacts to install
+   * @param resolver the resolver used to find the repository of each artifact
+   * @param engine the engine used to run downloads
+   * @param relocator the relocator applied to the downloaded bytes
+   * @return a new JarInstaller
+   */
+  public static JarInstaller ofInstaller(
+      final LoggerConfiguration logger,
+      final LoadListener listener,
+      final Collection<Artifact> artifacts,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final StreamingRelocator relocator) {
+    return new JarInstaller(
+        logger,
+        listener,
+        artifacts,
+        resolver,
+        engine,
+        relocator,
+        relocator.getCache().getFolder(),
+        false);
+  }
+
+  /**
+   * Starts the installation process and waits for it to finish.
    *
    * @return Collection of all the artifact paths
    * @throws IOException if an issue occured during installation
    */
   public Collection<Path> install() throws IOException {
-    this.createFolder();
-    this.artifacts.parallelStream().forEach(this::installArtifact);
-    return this.paths;
+    try {
+      return this.installAsync().join();
+    } catch (final CompletionException e) {
+      throw new IOException("Failed to install artifacts!", e.getCause());
+    }
+  }
+
+  /**
+   * Starts the installation process. Every artifact is resolved and downloaded concurrently on
+   * the download engine.
+   *
+   * @return a future completed with all the artifact paths once every artifact finished
+   * @throws IOException if an issue occured while preparing the installation
+   */
+  public CompletableFuture<Collection<Path>> installAsync() throws IOException {
+    this.prepare();
+    final CompletableFuture<?>[] futures =
+        this.artifacts.stream().map(this::installArtifact).toArray(CompletableFuture[]::new);
+    final CompletableFuture<Collection<Path>> future =
+        CompletableFuture.allOf(futures)
+            .handle(
+                (ignored, throwable) ->
+                    Collections.unmodifiableCollection(this.installed.values()));
+    return this.owned ? future.whenComplete((paths, throwable) -> this.release()) : future;
+  }
+
+  private void prepare() throws IOException {
+    try {
+      this.createFolder();
+      if (this.owned) {
+        this.resolver.getCache().load();
+      }
+    } catch (final IOException e) {
+      if (this.owned) {
+        this.release();
+      }
+      throw e;
+    }
+  }
+
+  private void release() {
+    try {
+      this.resolver.getCache().save();
+    } catch (final IOException e) {
+      this.logger.warning(
+          String.format("Failed to save the repository cache! (%s)", e.getMessage()));
+    } finally {
+      this.resolver.close();
+      this.engine.close();
+    }
   }
 
   private void createFolder() throws IOException {
@@ -100,109 +289,443 @@ public final class JarInstaller {
     }
   }
 
-  private void installArtifact(final Artifact artifact) {
-    final String appended = this.getAppendedUrl(artifact);
-    for (final Repository repository : this.repositories) {
-      this.tryRepository(repository, appended).ifPresent(this::downloadJarExceptionally);
+  private CompletableFuture<Void> installArtifact(final Artifact artifact) {
+    final LocalRepository local = this.resolver.getLocalRepository();
+    final Optional<Path> jar = local == null ? Optional.empty() : local.getFile(artifact, "jar");
+    if (!jar.isPresent()) {
+      return this.installRemote(artifact);
     }
+    return this.engine
+        .submit(jar.get().toUri().toString(), () -> this.installLocal(artifact, local, jar.get()))
+        .thenCompose(
+            installed ->
+                installed ? CompletableFuture.completedFuture(null) : this.installRemote(artifact))
+        .exceptionally(throwable -> this.logFailure(artifact, throwable));
   }
 
-  private void downloadJarExceptionally(final String url) {
+  private boolean installLocal(
+      final Artifact artifact, final LocalRepository local, final Path jar) {
+    final Optional<String> checksum = local.getChecksum(artifact, "jar");
+    if (!checksum.isPresent()) {
+      return false;
+    }
+    final long start = System.nanoTime();
+    final String filename = jar.getFileName().toString();
+    final Path partPath = this.target.resolve(String.format("%s.part", filename));
     try {
-      this.downloadJar(url);
+      if (this.relocator == null) {
+        final MessageDigest digest = FileUtils.createDigest();
+        FileUtils.updateDigest(digest, jar);
+        final String hash = FileUtils.toUppercaseHex(digest.digest());
+        this.checkHash(partPath, jar.toString(), hash, checksum.get());
+        final Path jarPath = this.target.resolve(filename);
+        FileUtils.linkAtomically(jar, jarPath);
+        this.checksums.put(artifact, checksum.get());
+        this.installed.put(artifact, jarPath);
+      } else {
+        final MessageDigest digest = FileUtils.createDigest();
+        final String stored;
+        try (final InputStream in = new DigestInputStream(Files.newInputStream(jar), digest);
+            final OutputStream out = Files.newOutputStream(partPath)) {
+          stored = this.relocator.relocate(in, out);
+        } catch (final RuntimeException e) {
+          throw new IOException("Failed to relocate JAR!", e);
+        }
+        final String hash = FileUtils.toUppercaseHex(digest.digest());
+        this.checkHash(partPath, jar.toString(), hash, checksum.get());
+        this.finish(artifact, partPath, this.relocator.getOutput(filename, hash), stored);
+      }
     } catch (final IOException e) {
-      this.logger.error(String.format("Failed to download JAR located at url %s!", url));
+      this.logger.warning(
+          String.format(
+              "Could not install %s from the local repository! (%s)", jar, e.getMessage()));
+      try {
+        this.deletePart(partPath);
+      } catch (final IOException ignored) {
+      }
+      return false;
     }
+    final String coordinates = artifact.getCoordinates();
+    // a local file is found without any request, so only its verification takes time
+    this.listener.onResolved(coordinates, local.getFolder().toUri().toString(), false, 0L);
+    this.listener.onVerified(coordinates, System.nanoTime() - start);
+    return true;
   }
 
-  private void downloadJar(final String url) throws IOException {
+  private CompletableFuture<Void> installRemote(final Artifact artifact) {
+    final String path = this.getAppendedUrl(artifact);
+    final boolean cached = this.resolver.isCached(artifact);
+    final long start = System.nanoTime();
+    return this.resolver
+        .resolveAsync(artifact, path)
+        .thenApply(url -> this.reportResolved(artifact, path, url, cached, start))
+        .thenCompose(url -> this.installFrom(artifact, path, url))
+        .exceptionally(throwable -> this.logFailure(artifact, throwable));
+  }
+
+  private Optional<String> reportResolved(
+      final Artifact artifact,
+      final String path,
+      final Optional<String> url,
+      final boolean cached,
+      final long start) {
+    final String repository =
+        url.map(found -> found.substring(0, found.length() - path.length())).orElse(null);
+    this.listener.onResolved(
+        artifact.getCoordinates(), repository, cached, System.nanoTime() - start);
+    return url;
+  }
 
-    final Path jarPath = this.downloadFile(url);
-    if (this.checkHash(jarPath, url)) {
-      this.downloadJar(url);
+  private CompletableFuture<Void> installFrom(
+      final Artifact artifact, final String path, final Optional<String> url) {
+    if (!url.isPresent()) {
+      this.logger.error(
+          String.format("Could not find artifact %s in any repository!", artifact));
+      return CompletableFuture.completedFuture(null);
     }
+    return this.download(artifact, url.get())
+        .thenCompose(
+            success ->
+                success
+                    ? CompletableFuture.completedFuture(null)
+                    : this.retryArtifact(artifact, path, url.get()));
+  }
 
-    this.paths.add(jarPath);
+  private CompletableFuture<Void> retryArtifact(
+      final Artifact artifact, final String path, final String failed) {
+    this.resolver.invalidate(artifact);
+    return this.resolver
+        .resolveAsync(artifact, path)
+        .thenCompose(
+            url ->
+                url.filter(retry -> !retry.equals(failed))
+                    .map(retry -> this.download(artifact, retry).thenApply(success -> (Void) null))
+                    .orElse(CompletableFuture.completedFuture(null)));
   }
 
-  private boolean checkHash(final Path jarPath, final String url) throws IOException {
+  private Void logFailure(final Artifact artifact, final Throwable throwable) {
+    this.logger.error(
+        String.format("Failed to install artifact %s! (%s)", artifact, throwable.getMessage()));
+    return null;
+  }
+
+  private CompletableFuture<Boolean> download(final Artifact artifact, final String url) {
+    final CompletableFuture<String> checksum =
+        this.engine.submit(url, () -> this.getCheckSumArtifact(url));
+    return this.engine.submit(url, () -> this.downloadJarExceptionally(artifact, url, checksum));
+  }
+
+  private boolean downloadJarExceptionally(
+      final Artifact artifact, final String url, final CompletableFuture<String> checksum) {
+    try {
+      this.downloadJar(artifact, url, checksum);
+      return true;
+    } catch (final IOException e) {
+      this.logger.error(
+          String.format("Failed to download JAR located at url %s! (%s)", url, e.getMessage()));
+      return false;
+    }
+  }
+
+  private void downloadJar(
+      final Artifact artifact, final String url, final CompletableFuture<String> checksum)
+      throws IOException {
+    final RetryPolicy policy = this.engine.getRetryPolicy();
+    final String filename = this.getFilename(url);
+    final Path partPath = this.target.resolve(String.format("%s.part", filename));
+    final long start = System.nanoTime();
+    for (int attempt = 1; ; attempt++) {
+      // only the bytes of the attempt that succeeds are reported
+      final AtomicLong transferred = new AtomicLong();
+      try {
+        final String hash;
+        final String stored;
+        final Path jarPath;
+        if (this.relocator == null) {
+          hash = this.downloadFile(artifact, url, checksum, partPath, transferred);
+          stored = hash;
+          jarPath = this.target.resolve(filename);
+        } else {
+          final MessageDigest digest = FileUtils.createDigest();
+          stored = this.downloadRelocatedFile(url, partPath, digest, transferred);
+          hash = FileUtils.toUppercaseHex(digest.digest());
+          jarPath = this.relocator.getOutput(filename, hash);
+        }
+        final long downloaded = System.nanoTime();
+        this.checkHash(partPath, url, hash, checksum.join());
+        final long verified = System.nanoTime();
+        this.finish(artifact, partPath, jarPath, stored);
+        final String coordinates = artifact.getCoordinates();
+        this.listener.onDownloaded(coordinates, url, transferred.get(), downloaded - start);
+        this.listener.onVerified(coordinates, verified - downloaded);
+        return;
+      } catch (final IOException e) {
+        if (!policy.canRetry(attempt)) {
+          throw e;
+        }
+        this.logger.warning(
+            String.format("Retrying download of %s after attempt %d failed!", url, attempt));
+        policy.awaitRetry(attempt);
+      }
+    }
+  }
+
+  private void checkHash(
+      final Path partPath, final String url, final String hash, final String originalHash)
+      throws IOException {
 
-    final String originalHash = this.getCheckSumArtifact(url);
-    final String newHash = FileUtils.getUppercaseHash(jarPath);
     if (originalHash.isEmpty()) {
       this.logger.warning(
           String.format("Could not retrieve SHA1 hash for artifact %s! Skipping hash check!", url));
-      return false;
+      return;
     }
 
-    if (!originalHash.equals(newHash)) {
-      Files.deleteIfExists(jarPath);
-      return true;
+    if (!originalHash.equals(hash)) {
+      this.deletePart(partPath);
+      throw new IOException(String.format("SHA1 hash mismatch for artifact %s!", url));
     }
+  }
 
-    return false;
+  private void finish(
+      final Artifact artifact, final Path partPath, final Path jarPath, final String hash)
+      throws IOException {
+    FileUtils.moveAtomically(partPath, jarPath);
+    Files.deleteIfExists(this.getValidatorPath(partPath));
+    this.checksums.put(artifact, hash);
+    this.installed.put(artifact, jarPath);
   }
 
-  private Path downloadFile(final String url) throws IOException {
-    final URL website = new URL(url);
-    final String jar = this.getFilename(url);
-    final Path jarPath = this.target.resolve(jar);
-    try (final InputStream in = website.openStream()) {
-      Files.copy(in, jarPath, StandardCopyOption.REPLACE_EXISTING);
+  private String downloadRelocatedFile(
+      final String url,
+      final Path partPath,
+      final MessageDigest digest,
+      final AtomicLong transferred)
+      throws IOException {
+    final HttpURLConnection con = this.createConnection(url);
+    final int code = con.getResponseCode();
+    if (code != HttpURLConnection.HTTP_OK) {
+      HttpUtils.release(con);
+      throw new IOException(String.format("Unexpected response code %d for %s!", code, url));
+    }
+    try (final InputStream in =
+            new DigestInputStream(this.getInputStream(con, transferred), digest);
+        final OutputStream out = Files.newOutputStream(partPath)) {
+      return this.relocator.relocate(in, out);
+    } catch (final IOException e) {
+      this.deletePart(partPath);
+      throw e;
+    } catch (final RuntimeException e) {
+      this.deletePart(partPath);
+      throw new IOException(String.format("Failed to relocate JAR located at url %s!", url), e);
     }
-    return jarPath;
   }
 
-  private String getFilename(final String url) {
-    return url.substring(url.lastIndexOf('/') + 1);
+  private String downloadFile(
+      final Artifact artifact,
+      final String url,
+      final CompletableFuture<String> checksum,
+      final Path partPath,
+      final AtomicLong transferred)
+      throws IOException {
+    final SegmentPolicy segments = this.engine.getSegmentPolicy();
+    if (segments.isEnabled() && Files.notExists(partPath)) {
+      final SegmentedDownload download =
+          new SegmentedDownload(segments, partPath, transferred, TIMEOUT_MILLIS);
+      download.download(url, () -> this.getMirrors(artifact, checksum));
+      final MessageDigest digest = FileUtils.createDigest();
+      FileUtils.updateDigest(digest, partPath);
+      return FileUtils.toUppercaseHex(digest.digest());
+    }
+    return this.downloadFile(url, partPath, transferred);
   }
 
-  private Optional<String> tryRepository(final Repository repository, final String jarUrl) {
-    final String url = String.format("%s%s", repository.getUrl(), jarUrl);
+  private List<String> getMirrors(
+      final Artifact artifact, final CompletableFuture<String> checksum) {
+    // segments from other mirrors can only be trusted if the whole JAR is verified afterwards
+    if (checksum.join().isEmpty()) {
+      return Collections.emptyList();
+    }
     try {
-      if (this.isValidUrl(url)) {
-        return Optional.of(url);
-      }
-    } catch (final IOException ignored) {
+      return this.resolver.resolveMirrors(artifact, this.getAppendedUrl(artifact)).join();
+    } catch (final CompletionException e) {
+      return Collections.emptyList();
     }
-    return Optional.empty();
   }
 
-  private boolean isValidUrl(final String url) throws IOException {
-    return this.createConnection(url).getResponseCode() == HttpURLConnection.HTTP_OK;
+  private String downloadFile(final String url, final Path partPath, final AtomicLong transferred)
+      throws IOException {
+    final MessageDigest digest = FileUtils.createDigest();
+    final Path validatorPath = this.getValidatorPath(partPath);
+    final String validator = Files.exists(partPath) ? this.readValidator(validatorPath, url) : null;
+    final long offset = validator == null ? 0L : Files.size(partPath);
+    final HttpURLConnection con = this.createConnection(url);
+    if (offset > 0) {
+      con.setRequestProperty("Range", String.format("bytes=%d-", offset));
+      con.setRequestProperty("If-Range", validator);
+    }
+    final int code = con.getResponseCode();
+    final boolean resume = this.canResume(con, code, offset);
+    if (!resume && code != HttpURLConnection.HTTP_OK) {
+      HttpUtils.release(con);
+      this.deletePart(partPath);
+      throw new IOException(String.format("Unexpected response code %d for %s!", code, url));
+    }
+    if (resume) {
+      FileUtils.updateDigest(digest, partPath);
+    } else {
+      this.writeValidator(validatorPath, url, con);
+    }
+    try (final InputStream in =
+            new DigestInputStream(this.getInputStream(con, transferred), digest);
+        final OutputStream out =
+            resume
+                ? Files.newOutputStream(partPath, StandardOpenOption.APPEND)
+                : Files.newOutputStream(partPath)) {
+      this.copy(in, out);
+    }
+    return FileUtils.toUppercaseHex(digest.digest());
   }
 
-  private String getAppendedUrl(final Artifact artifact) {
-    final String groupId = artifact.getGroup().replace('.', '/');
-    final String artifactId = artifact.getArtifact();
-    final String version = artifact.getVersion();
-    final String jar = String.format("%s-%s.jar", artifactId, version);
-    return String.format("%s/%s/%s/%s", groupId, artifactId, version, jar);
+  private Path getValidatorPath(final Path partPath) {
+    return partPath.resolveSibling(String.format("%s.validator", partPath.getFileName()));
+  }
+
+  private String readValidator(final Path validatorPath, final String url) throws IOException {
+    if (Files.notExists(validatorPath)) {
+      return null;
+    }
+    final List<String> lines = Files.readAllLines(validatorPath, StandardCharsets.UTF_8);
+    return lines.size() == 2 && lines.get(0).equals(url) ? lines.get(1) : null;
   }
 
-  private String getCheckSumArtifact(final String url) throws IOException {
-    final String hashUrl = String.format("%s.sha1", url);
-    try (final Scanner scanner =
-        new Scanner(new URL(hashUrl).openStream(), "UTF-8").useDelimiter("\\A")) {
-      return scanner.next().toUpperCase(Locale.ROOT);
+  private void writeValidator(
+      final Path validatorPath, final String url, final HttpURLConnection con) throws IOException {
+    // a partial file may only be resumed from the same url while the file is unchanged there
+    final String etag = con.getHeaderField("ETag");
+    final String validator =
+        etag != null && !etag.startsWith("W/") ? etag : con.getHeaderField("Last-Modified");
+    if (validator == null) {
+      Files.deleteIfExists(validatorPath);
+      return;
+    }
+    Files.write(
+        validatorPath,
+        String.format("%s\n%s\n", url, validator).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void deletePart(final Path partPath) throws IOException {
+    Files.deleteIfExists(partPath);
+    Files.deleteIfExists(this.getValidatorPath(partPath));
+  }
+
+  private InputStream getInputStream(final HttpURLConnection con, final AtomicLong transferred)
+      throws IOException {
+    return new CountingInputStream(con.getInputStream(), transferred);
+  }
+
+  private boolean canResume(final HttpURLConnection con, final int code, final long offset) {
+    if (offset == 0 || code != HttpURLConnection.HTTP_PARTIAL) {
+      return false;
+    }
+    final String range = con.getHeaderField("Content-Range");
+    return range != null && range.startsWith(String.format("bytes %d-", offset));
+  }
+
+  private void copy(final InputStream in, final OutputStream out) throws IOException {
+    final byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
     }
   }
 
   private HttpURLConnection createConnection(final String url) throws IOException {
-    final HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
-    con.setRequestMethod("HEAD");
-    return con;
+    return HttpUtils.openConnection(url, TIMEOUT_MILLIS);
+  }
+
+  private String getFilename(final String url) {
+    return url.substring(url.lastIndexOf('/') + 1);
+  }
+
+  private String getAppendedUrl(final Artifact artifact) {
+    return artifact.getRepositoryPath("jar");
+  }
+
+  private String getCheckSumArtifact(final String url) {
+    final String text = HttpUtils.readText(String.format("%s.sha1", url), TIMEOUT_MILLIS);
+    final String content = text == null ? "" : text.trim();
+    return content.isEmpty() ? "" : content.split("\\s+")[0].toUpperCase(Locale.ROOT);
+  }
+
+  public LoadListener getListener() {
+    return this.listener;
   }
 
   public Collection<Artifact> getArtifacts() {
     return this.artifacts;
   }
 
-  public Collection<Repository> getRepositories() {
-    return this.repositories;
+  /**
+   * Gets the artifacts installed by the last installation, mapped to their files.
+   *
+   * @return the installed artifacts
+   */
+  public Map<Artifact, Path> getInstalledArtifacts() {
+    return this.installed;
+  }
+
+  public Map<Artifact, String> getInstalledChecksums() {
+    return this.checksums;
+  }
+
+  public StreamingRelocator getRelocator() {
+    return this.relocator;
+  }
+
+  public RepositoryResolver getResolver() {
+    return this.resolver;
+  }
+
+  public DownloadEngine getEngine() {
+    return this.engine;
   }
 
   public Path getTarget() {
     return this.target;
   }
+
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private final AtomicLong count;
+
+    CountingInputStream(final InputStream in, final AtomicLong count) {
+      super(in);
+      this.count = count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = super.read();
+      if (read != -1) {
+        this.count.incrementAndGet();
+      }
+      return read;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if (read > 0) {
+        this.count.addAndGet(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      this.count.addAndGet(skipped);
+      return skipped;
+    }
+  }
 }
@@ -0,0 +1,111 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Local Maven repository, such as the one Maven keeps in {@code ~/.m2/repository}. Files found in
+ * it are installed without any request, as long as they match the checksum of their {@code .sha1}
+ * sidecar file. Files without a sidecar, such as the ones installed by a local build, cannot be
+ * verified and are downloaded instead.
+ */
+public final class LocalRepository {
+
+  private final Path folder;
+
+  LocalRepository(final Path folder) {
+    this.folder = folder;
+  }
+
+  /**
+   * Creates a new local repository.
+   *
+   * @param folder the root folder of the repository
+   * @return a new LocalRepository
+   */
+  public static LocalRepository ofRepository(final Path folder) {
+    return new LocalRepository(folder);
+  }
+
+  /**
+   * Creates the local repository used by Maven, which is set by the {@code maven.repo.local} system
+   * property, or otherwise is {@code ~/.m2/repository}.
+   *
+   * @return a new LocalRepository
+   */
+  public static LocalRepository ofDefault() {
+    final String property = System.getProperty("maven.repo.local");
+    if (property != null && !property.isEmpty()) {
+      return ofRepository(Paths.get(property));
+    }
+    return ofRepository(Paths.get(System.getProperty("user.home"), ".m2", "repository"));
+  }
+
+  /**
+   * Gets a file of the artifact, if the repository has it.
+   *
+   * @param artifact the artifact the file belongs to
+   * @param extension the file extension, such as jar or pom
+   * @return the file, or empty if the repository does not have it
+   */
+  public Optional<Path> getFile(final Artifact artifact, final String extension) {
+    final Path file = this.folder.resolve(artifact.getRepositoryPath(extension));
+    return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+  }
+
+  /**
+   * Gets the checksum of a file of the artifact from its {@code .sha1} sidecar file.
+   *
+   * @param artifact the artifact the file belongs to
+   * @param extension the file extension, such as jar or pom
+   * @return the uppercase SHA-1 hash of the file, or empty if it has no readable sidecar
+   */
+  public Optional<String> getChecksum(final Artifact artifact, final String extension) {
+    final Path sidecar =
+        this.folder.resolve(String.format("%s.sha1", artifact.getRepositoryPath(extension)));
+    if (!Files.isRegularFile(sidecar)) {
+      return Optional.empty();
+    }
+    try {
+      final String content = new String(Files.readAllBytes(sidecar), StandardCharsets.UTF_8).trim();
+      return content.isEmpty()
+          ? Optional.empty()
+          : Optional.of(content.split("\\s+")[0].toUpperCase(Locale.ROOT));
+    } catch (final IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  public Path getFolder() {
+    return this.folder;
+  }
+}
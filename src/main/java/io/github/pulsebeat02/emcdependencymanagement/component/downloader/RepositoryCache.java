@@ -0,0 +1,259 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.Repository;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of which repository served an artifact. Hits are stored both for the exact
+ * coordinates and for the group id, so that other artifacts of the same group go straight to the
+ * same repository. Misses are stored per coordinates and repository, so that repositories known
+ * not to have an artifact are not probed again. All entries expire after their time to live.
+ */
+public final class RepositoryCache {
+
+  private static final String CACHE_NAME;
+  private static final String HEADER;
+  private static final Duration DEFAULT_HIT_TTL;
+  private static final Duration DEFAULT_MISS_TTL;
+
+  static {
+    CACHE_NAME = "repositories.emc";
+    HEADER = "# emc-repositories 1";
+    DEFAULT_HIT_TTL = Duration.ofDays(30);
+    DEFAULT_MISS_TTL = Duration.ofDays(1);
+  }
+
+  private final Path file;
+  private final long hitTtl;
+  private final long missTtl;
+  private final Map<String, Entry> entries;
+  private volatile boolean changed;
+
+  RepositoryCache(final Path folder, final Duration hitTtl, final Duration missTtl) {
+    this.file = folder.resolve(CACHE_NAME);
+    this.hitTtl = hitTtl.toMillis();
+    this.missTtl = missTtl.toMillis();
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates a new repository cache in the library folder, using the default time to live of 30
+   * days for hits and 1 day for misses. The cache must be loaded before use.
+   *
+   * @param folder the library folder
+   * @return a new RepositoryCache
+   */
+  public static RepositoryCache ofCache(final Path folder) {
+    return ofCache(folder, DEFAULT_HIT_TTL, DEFAULT_MISS_TTL);
+  }
+
+  /**
+   * Creates a new repository cache in the library folder. The cache must be loaded before use.
+   *
+   * @param folder the library folder
+   * @param hitTtl the time to live of a repository hit
+   * @param missTtl the time to live of a repository miss
+   * @return a new RepositoryCache
+   */
+  public static RepositoryCache ofCache(
+      final Path folder, final Duration hitTtl, final Duration missTtl) {
+    return new RepositoryCache(folder, hitTtl, missTtl);
+  }
+
+  /**
+   * Loads the cache from the disk, dropping every expired entry. A missing or unreadable cache is
+   * treated as empty.
+   *
+   * @throws IOException if an issue occurred while reading the cache
+   */
+  public void load() throws IOException {
+    this.entries.clear();
+    this.changed = false;
+    if (Files.notExists(this.file)) {
+      return;
+    }
+    final List<String> lines = Files.readAllLines(this.file, StandardCharsets.UTF_8);
+    if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+      this.changed = true;
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    for (final String line : lines.subList(1, lines.size())) {
+      final String[] parts = line.split("\t");
+      if (parts.length != 3) {
+        continue;
+      }
+      try {
+        final long expiry = Long.parseLong(parts[2]);
+        if (expiry > now) {
+          this.entries.put(parts[0], new Entry(parts[1], expiry));
+        }
+      } catch (final NumberFormatException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Writes the cache to the disk if it changed since it was loaded.
+   *
+   * @throws IOException if an issue occurred while writing the cache
+   */
+  public void save() throws IOException {
+    if (!this.changed) {
+      return;
+    }
+    final Path temp = this.file.resolveSibling(String.format("%s.tmp", CACHE_NAME));
+    try (final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+      for (final Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+        final Entry value = entry.getValue();
+        writer.write(String.format("%s\t%s\t%d", entry.getKey(), value.url, value.expiry));
+        writer.newLine();
+      }
+    }
+    FileUtils.moveAtomically(temp, this.file);
+    this.changed = false;
+  }
+
+  /**
+   * Gets the repository which last served the exact artifact.
+   *
+   * @param artifact the artifact
+   * @return the repository url, or empty if there is no live entry
+   */
+  public Optional<String> getArtifactHit(final Artifact artifact) {
+    return this.getLive(this.getArtifactKey(artifact));
+  }
+
+  /**
+   * Gets the repository which last served an artifact of the same group.
+   *
+   * @param artifact the artifact
+   * @return the repository url, or empty if there is no live entry
+   */
+  public Optional<String> getGroupHit(final Artifact artifact) {
+    return this.getLive(this.getGroupKey(artifact));
+  }
+
+  /**
+   * Checks whether the repository is known not to have the artifact.
+   *
+   * @param artifact the artifact
+   * @param repository the repository
+   * @return whether there is a live miss entry
+   */
+  public boolean isMiss(final Artifact artifact, final Repository repository) {
+    return this.getLive(this.getMissKey(artifact, repository)).isPresent();
+  }
+
+  /**
+   * Records that the repository served the artifact.
+   *
+   * @param artifact the artifact
+   * @param repository the repository url
+   */
+  public void recordHit(final Artifact artifact, final String repository) {
+    final long expiry = System.currentTimeMillis() + this.hitTtl;
+    this.entries.put(this.getArtifactKey(artifact), new Entry(repository, expiry));
+    this.entries.put(this.getGroupKey(artifact), new Entry(repository, expiry));
+    this.changed = true;
+  }
+
+  /**
+   * Records that the repository does not have the artifact.
+   *
+   * @param artifact the artifact
+   * @param repository the repository
+   */
+  public void recordMiss(final Artifact artifact, final Repository repository) {
+    final long expiry = System.currentTimeMillis() + this.missTtl;
+    this.entries.put(this.getMissKey(artifact, repository), new Entry("-", expiry));
+    this.changed = true;
+  }
+
+  /**
+   * Removes the hit of the exact artifact, for example after the repository failed to serve it.
+   *
+   * @param artifact the artifact
+   */
+  public void invalidate(final Artifact artifact) {
+    if (this.entries.remove(this.getArtifactKey(artifact)) != null) {
+      this.changed = true;
+    }
+  }
+
+  private Optional<String> getLive(final String key) {
+    final Entry entry = this.entries.get(key);
+    if (entry == null) {
+      return Optional.empty();
+    }
+    if (entry.expiry <= System.currentTimeMillis()) {
+      this.entries.remove(key, entry);
+      this.changed = true;
+      return Optional.empty();
+    }
+    return Optional.of(entry.url);
+  }
+
+  private String getArtifactKey(final Artifact artifact) {
+    return String.format("artifact:%s", artifact.getCoordinates());
+  }
+
+  private String getGroupKey(final Artifact artifact) {
+    return String.format("group:%s", artifact.getGroup());
+  }
+
+  private String getMissKey(final Artifact artifact, final Repository repository) {
+    return String.format("miss:%s@%s", artifact.getCoordinates(), repository.getUrl());
+  }
+
+  public Path getFile() {
+    return this.file;
+  }
+
+  private static final class Entry {
+
+    private final String url;
+    private final long expiry;
+
+    Entry(final String url, final long expiry) {
+      this.url = url;
+      this.expiry = expiry;
+    }
+  }
+}
@@ -0,0 +1,399 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.Repository;
+import io.github.pulsebeat02.emcdependencymanagement.util.HttpUtils;
+import io.github.pulsebeat02.emcdependencymanagement.util.ThreadUtils;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the repository serving a file. Repositories remembered by the {@link RepositoryCache} are
+ * tried first, otherwise all repositories are probed at the same time. A {@link LocalRepository}
+ * may be attached as well, which installers check before any remote repository.
+ */
+public final class RepositoryResolver implements AutoCloseable {
+
+  private static final int TIMEOUT_MILLIS;
+
+  static {
+    TIMEOUT_MILLIS = 10_000;
+  }
+
+  private final List<Repository> repositories;
+  private final ResolutionStrategy strategy;
+  private final RepositoryCache cache;
+  private final LocalRepository local;
+  private final ThreadPoolExecutor executor;
+
+  RepositoryResolver(
+      final Collection<Repository> repositories,
+      final ResolutionStrategy strategy,
+      final RepositoryCache cache,
+      final LocalRepository local) {
+    this.repositories = new ArrayList<>(repositories);
+    this.strategy = strategy;
+    this.cache = cache;
+    this.local = local;
+    final int threads = Math.max(8, this.repositories.size() * 2);
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            30L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            ThreadUtils.createDaemonFactory("emc-probe"));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Creates a new repository resolver. The resolver owns a thread pool, which should be closed
+   * after use.
+   *
+   * @param repositories the repositories to probe, in order of priority
+   * @param strategy the strategy used to pick between repositories
+   * @param cache the loaded repository cache
+   * @return a new RepositoryResolver
+   */
+  public static RepositoryResolver ofResolver(
+      final Collection<Repository> repositories,
+      final ResolutionStrategy strategy,
+      final RepositoryCache cache) {
+    return new RepositoryResolver(repositories, strategy, cache, null);
+  }
+
+  /**
+   * Creates a new repository resolver with a local repository, which is checked before the remote
+   * repositories are probed. See {@link #ofResolver(Collection, ResolutionStrategy,
+   * RepositoryCache)}.
+   *
+   * @param repositories the remote repositories to probe, in order of priority
+   * @param strategy the strategy used to pick between remote repositories
+   * @param cache the loaded repository cache
+   * @param local the local repository
+   * @return a new RepositoryResolver
+   */
+  public static RepositoryResolver ofResolver(
+      final Collection<Repository> repositories,
+      final ResolutionStrategy strategy,
+      final RepositoryCache cache,
+      final LocalRepository local) {
+    return new RepositoryResolver(repositories, strategy, cache, local);
+  }
+
+  /**
+   * Resolves the full url of a file belonging to the artifact. The path is appended to the url of
+   * the repository.
+   *
+   * <p>If the cache knows which repository served the artifact, its url is returned without any
+   * request. If it only knows which repository served the group, that repository is probed alone
+   * first. Otherwise, every repository not known to miss the artifact is probed.
+   *
+   * @param artifact the artifact the file belongs to
+   * @param path the path of the file relative to the repository root
+   * @return the full url of the file, or empty if no repository has the file
+   */
+  public Optional<String> resolve(final Artifact artifact, final String path) {
+    return this.resolveAsync(artifact, path).join();
+  }
+
+  /**
+   * Resolves the full url of a file belonging to the artifact without blocking. See {@link
+   * #resolve(Artifact, String)}.
+   *
+   * @param artifact the artifact the file belongs to
+   * @param path the path of the file relative to the repository root
+   * @return a future completed with the full url of the file, or empty if no repository has it
+   */
+  public CompletableFuture<Optional<String>> resolveAsync(
+      final Artifact artifact, final String path) {
+    final Optional<Repository> hit =
+        this.cache.getArtifactHit(artifact).flatMap(this::findRepository);
+    if (hit.isPresent()) {
+      return CompletableFuture.completedFuture(Optional.of(this.getFileUrl(hit.get(), path)));
+    }
+    final Optional<Repository> group =
+        this.cache
+            .getGroupHit(artifact)
+            .flatMap(this::findRepository)
+            .filter(repository -> !this.cache.isMiss(artifact, repository));
+    if (!group.isPresent()) {
+      return this.probeAll(artifact, path);
+    }
+    final Probe probe = new Probe(group.get(), this.getFileUrl(group.get(), path));
+    return this.submit(artifact, probe)
+        .thenCompose(
+            status ->
+                status == Status.PRESENT
+                    ? CompletableFuture.completedFuture(this.recordHit(artifact, probe))
+                    : this.probeAll(artifact, path));
+  }
+
+  /**
+   * Finds every repository serving a file belonging to the artifact, by probing all repositories
+   * not known to miss it at the same time. Unlike a resolution, this never changes the repository
+   * the cache remembers for the artifact.
+   *
+   * @param artifact the artifact the file belongs to
+   * @param path the path of the file relative to the repository root
+   * @return a future completed with the full urls of the file, in the order of the repositories
+   */
+  public CompletableFuture<List<String>> resolveMirrors(
+      final Artifact artifact, final String path) {
+    final List<Probe> probes = new ArrayList<>();
+    final List<CompletableFuture<Status>> futures = new ArrayList<>();
+    for (final Repository repository : this.repositories) {
+      if (this.cache.isMiss(artifact, repository)) {
+        continue;
+      }
+      final Probe probe = new Probe(repository, this.getFileUrl(repository, path));
+      probes.add(probe);
+      futures.add(
+          CompletableFuture.supplyAsync(probe::probe, this.executor)
+              .thenApply(status -> this.recordMiss(artifact, probe, status)));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            ignored -> {
+              final List<String> urls = new ArrayList<>();
+              for (int i = 0; i < probes.size(); i++) {
+                if (futures.get(i).join() == Status.PRESENT) {
+                  urls.add(probes.get(i).getUrl());
+                }
+              }
+              return urls;
+            });
+  }
+
+  private Status recordMiss(final Artifact artifact, final Probe probe, final Status status) {
+    // only a missing JAR rules the repository out, as POMs may be missing on their own
+    if (status == Status.ABSENT && probe.getUrl().endsWith(artifact.getRepositoryPath("jar"))) {
+      this.cache.recordMiss(artifact, probe.getRepository());
+    }
+    return status;
+  }
+
+  /**
+   * Checks whether the cache knows which repository serves the artifact, so that resolving it
+   * sends no request.
+   *
+   * @param artifact the artifact
+   * @return whether the repository of the artifact is cached
+   */
+  public boolean isCached(final Artifact artifact) {
+    return this.cache.getArtifactHit(artifact).flatMap(this::findRepository).isPresent();
+  }
+
+  /**
+   * Forgets the repository which served the artifact, for example after the download failed.
+   *
+   * @param artifact the artifact
+   */
+  public void invalidate(final Artifact artifact) {
+    this.cache.invalidate(artifact);
+  }
+
+  private CompletableFuture<Optional<String>> probeAll(
+      final Artifact artifact, final String path) {
+    final List<Probe> probes = new ArrayList<>();
+    final List<CompletableFuture<Status>> futures = new ArrayList<>();
+    for (final Repository repository : this.repositories) {
+      if (this.cache.isMiss(artifact, repository)) {
+        continue;
+      }
+      final Probe probe = new Probe(repository, this.getFileUrl(repository, path));
+      probes.add(probe);
+      futures.add(this.submit(artifact, probe));
+    }
+    final CompletableFuture<Optional<String>> result =
+        this.strategy == ResolutionStrategy.FIRST_RESPONSE
+            ? this.awaitFirst(probes, futures)
+            : this.awaitOrdered(probes, futures, 0);
+    return result
+        .thenApply(url -> url.flatMap(found -> this.recordHit(artifact, probes, found)))
+        .whenComplete((url, throwable) -> probes.forEach(Probe::cancel));
+  }
+
+  private CompletableFuture<Status> submit(final Artifact artifact, final Probe probe) {
+    return CompletableFuture.supplyAsync(probe::probe, this.executor)
+        .thenApply(status -> this.recordMiss(artifact, probe, status));
+  }
+
+  private Optional<String> recordHit(
+      final Artifact artifact, final List<Probe> probes, final String url) {
+    for (final Probe probe : probes) {
+      if (probe.getUrl().equals(url)) {
+        return this.recordHit(artifact, probe);
+      }
+    }
+    return Optional.of(url);
+  }
+
+  private Optional<String> recordHit(final Artifact artifact, final Probe probe) {
+    // only the chosen repository is remembered, as others may answer after it was chosen
+    this.cache.recordHit(artifact, probe.getRepository().getUrl());
+    return Optional.of(probe.getUrl());
+  }
+
+  private CompletableFuture<Optional<String>> awaitFirst(
+      final List<Probe> probes, final List<CompletableFuture<Status>> futures) {
+    final CompletableFuture<Optional<String>> result = new CompletableFuture<>();
+    for (int i = 0; i < probes.size(); i++) {
+      final String url = probes.get(i).getUrl();
+      futures.get(i).thenAccept(status -> this.completeIfPresent(result, url, status));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .whenComplete((ignored, throwable) -> result.complete(Optional.empty()));
+    return result;
+  }
+
+  private void completeIfPresent(
+      final CompletableFuture<Optional<String>> result, final String url, final Status status) {
+    if (status == Status.PRESENT) {
+      result.complete(Optional.of(url));
+    }
+  }
+
+  private CompletableFuture<Optional<String>> awaitOrdered(
+      final List<Probe> probes, final List<CompletableFuture<Status>> futures, final int index) {
+    if (index >= probes.size()) {
+      return CompletableFuture.completedFuture(Optional.empty());
+    }
+    return futures
+        .get(index)
+        .thenCompose(
+            status ->
+                status == Status.PRESENT
+                    ? CompletableFuture.completedFuture(Optional.of(probes.get(index).getUrl()))
+                    : this.awaitOrdered(probes, futures, index + 1));
+  }
+
+  private Optional<Repository> findRepository(final String url) {
+    return this.repositories.stream().filter(repo -> repo.getUrl().equals(url)).findFirst();
+  }
+
+  private String getFileUrl(final Repository repository, final String path) {
+    return String.format("%s%s", repository.getUrl(), path);
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  public Collection<Repository> getRepositories() {
+    return this.repositories;
+  }
+
+  public ResolutionStrategy getStrategy() {
+    return this.strategy;
+  }
+
+  public RepositoryCache getCache() {
+    return this.cache;
+  }
+
+  /**
+   * Gets the local repository checked before the remote repositories.
+   *
+   * @return the local repository, or null if there is none
+   */
+  public LocalRepository getLocalRepository() {
+    return this.local;
+  }
+
+  private enum Status {
+    PRESENT,
+    ABSENT,
+    UNKNOWN
+  }
+
+  private static final class Probe {
+
+    private final Repository repository;
+    private final String url;
+    private volatile HttpURLConnection connection;
+    private volatile boolean cancelled;
+
+    Probe(final Repository repository, final String url) {
+      this.repository = repository;
+      this.url = url;
+    }
+
+    Status probe() {
+      if (this.cancelled) {
+        return Status.UNKNOWN;
+      }
+      try {
+        final HttpURLConnection con = HttpUtils.openConnection(this.url, "HEAD", TIMEOUT_MILLIS);
+        this.connection = con;
+        if (this.cancelled) {
+          return Status.UNKNOWN;
+        }
+        final Status status = this.getStatus(con.getResponseCode());
+        HttpUtils.release(con);
+        return status;
+      } catch (final IOException e) {
+        return Status.UNKNOWN;
+      }
+    }
+
+    private Status getStatus(final int code) {
+      if (code == HttpURLConnection.HTTP_OK) {
+        return Status.PRESENT;
+      }
+      if (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_GONE) {
+        return Status.ABSENT;
+      }
+      return Status.UNKNOWN;
+    }
+
+    void cancel() {
+      this.cancelled = true;
+      final HttpURLConnection con = this.connection;
+      if (con != null) {
+        con.disconnect();
+      }
+    }
+
+    Repository getRepository() {
+      return this.repository;
+    }
+
+    String getUrl() {
+      return this.url;
+    }
+  }
+}
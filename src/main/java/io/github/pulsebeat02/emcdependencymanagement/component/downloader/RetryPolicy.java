@@ -0,0 +1,98 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+
+/** Policy deciding how often a failed download is attempted again. */
+public final class RetryPolicy {
+
+  public static final RetryPolicy DEFAULT;
+  public static final RetryPolicy NONE;
+
+  static {
+    DEFAULT = ofPolicy(3, Duration.ofMillis(500));
+    NONE = ofPolicy(1, Duration.ZERO);
+  }
+
+  private final int attempts;
+  private final Duration backoff;
+
+  RetryPolicy(final int attempts, final Duration backoff) {
+    if (attempts < 1) {
+      throw new IllegalArgumentException("A download must be attempted at least once!");
+    }
+    this.attempts = attempts;
+    this.backoff = backoff;
+  }
+
+  /**
+   * Creates a new retry policy. The delay before each retry doubles after every failed attempt.
+   *
+   * @param attempts the maximum number of attempts, including the first one
+   * @param backoff the delay before the first retry
+   * @return a new RetryPolicy
+   */
+  public static RetryPolicy ofPolicy(final int attempts, final Duration backoff) {
+    return new RetryPolicy(attempts, backoff);
+  }
+
+  /**
+   * Checks whether another attempt may follow the given attempt.
+   *
+   * @param attempt the attempt which just failed, starting at 1
+   * @return whether another attempt is allowed
+   */
+  public boolean canRetry(final int attempt) {
+    return attempt < this.attempts;
+  }
+
+  /**
+   * Waits before the attempt following the given attempt.
+   *
+   * @param attempt the attempt which just failed, starting at 1
+   * @throws InterruptedIOException if the thread was interrupted while waiting
+   */
+  public void awaitRetry(final int attempt) throws InterruptedIOException {
+    final long delay = this.backoff.toMillis() << Math.min(attempt - 1, 16);
+    if (delay <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(delay);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry a download!");
+    }
+  }
+
+  public int getAttempts() {
+    return this.attempts;
+  }
+
+  public Duration getBackoff() {
+    return this.backoff;
+  }
+}
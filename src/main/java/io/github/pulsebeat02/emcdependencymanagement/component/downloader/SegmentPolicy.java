@@ -0,0 +1,80 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
+
+/**
+ * Policy deciding when a JAR is downloaded in segments. The first request of every download only
+ * asks for the first bytes of the JAR, up to the threshold, so small JARs still take a single
+ * request. The rest of a larger JAR is split into byte ranges, fetched in parallel over several
+ * connections from every repository serving the JAR.
+ */
+public final class SegmentPolicy {
+
+  public static final SegmentPolicy DEFAULT;
+  public static final SegmentPolicy NONE;
+
+  static {
+    DEFAULT = ofPolicy(4L * 1024 * 1024, 4);
+    NONE = ofPolicy(Long.MAX_VALUE, 1);
+  }
+
+  private final long threshold;
+  private final int connections;
+
+  SegmentPolicy(final long threshold, final int connections) {
+    if (threshold < 1 || connections < 1) {
+      throw new IllegalArgumentException("The threshold and connections must be at least 1!");
+    }
+    this.threshold = threshold;
+    this.connections = connections;
+  }
+
+  /**
+   * Creates a new segment policy.
+   *
+   * @param threshold the size in bytes above which a JAR is downloaded in segments
+   * @param connections the number of connections the rest of a larger JAR is fetched over
+   * @return a new SegmentPolicy
+   */
+  public static SegmentPolicy ofPolicy(final long threshold, final int connections) {
+    return new SegmentPolicy(threshold, connections);
+  }
+
+  /**
+   * Checks whether JARs are ever downloaded in segments.
+   *
+   * @return whether more than one connection is used
+   */
+  public boolean isEnabled() {
+    return this.connections > 1;
+  }
+
+  public long getThreshold() {
+    return this.threshold;
+  }
+
+  public int getConnections() {
+    return this.connections;
+  }
+}
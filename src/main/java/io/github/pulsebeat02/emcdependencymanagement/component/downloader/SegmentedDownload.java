@@ -0,0 +1,245 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.downloader;
+
+import io.github.pulsebeat02.emcdependencymanagement.util.HttpUtils;
+import io.github.pulsebeat02.emcdependencymanagement.util.ThreadUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Downloads a JAR into a partial file, in segments if it is larger than the threshold of the
+ * {@link SegmentPolicy}. The first request asks for the bytes below the threshold only; the rest
+ * is split into byte ranges, spread over the mirrors serving the JAR, and fetched in parallel. A
+ * range failing on one mirror is fetched again from the next one. Only the bytes of the ranges that
+ * were fetched completely are counted as transferred.
+ *
+ * <p>The partial file is filled out of order, so it is deleted on failure instead of being
+ * resumed.
+ */
+final class SegmentedDownload {
+
+  private final SegmentPolicy policy;
+  private final Path partPath;
+  private final AtomicLong transferred;
+  private final int timeout;
+
+  SegmentedDownload(
+      final SegmentPolicy policy,
+      final Path partPath,
+      final AtomicLong transferred,
+      final int timeout) {
+    this.policy = policy;
+    this.partPath = partPath;
+    this.transferred = transferred;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Downloads the JAR.
+   *
+   * @param url the url the JAR was resolved to
+   * @param mirrors supplies every url serving the JAR, only called for JARs above the threshold;
+   *     empty if the JAR cannot be verified, in which case it is only fetched from the url
+   * @throws IOException if the JAR could not be downloaded
+   */
+  void download(final String url, final Supplier<List<String>> mirrors) throws IOException {
+    try (final FileChannel channel =
+        FileChannel.open(
+            this.partPath,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      final long end = this.policy.getThreshold() - 1;
+      final HttpURLConnection con = this.createConnection(url, 0, end);
+      final int code = con.getResponseCode();
+      if (code == HttpURLConnection.HTTP_OK) {
+        this.write(con, channel, 0, Long.MAX_VALUE, this.transferred);
+        return;
+      }
+      final long size = this.getSize(con, code, 0, end);
+      if (size < 0) {
+        HttpUtils.release(con);
+        throw new IOException(String.format("Unexpected response code %d for %s!", code, url));
+      }
+      final long head = Math.min(size, end + 1);
+      this.write(con, channel, 0, head, this.transferred);
+      if (head < size) {
+        this.downloadRanges(channel, this.getUrls(url, mirrors), head, size);
+      }
+    } catch (final IOException | RuntimeException e) {
+      Files.deleteIfExists(this.partPath);
+      throw e;
+    }
+  }
+
+  private List<String> getUrls(final String url, final Supplier<List<String>> mirrors) {
+    final List<String> urls = new ArrayList<>();
+    urls.add(url);
+    for (final String mirror : mirrors.get()) {
+      if (!urls.contains(mirror)) {
+        urls.add(mirror);
+      }
+    }
+    return urls;
+  }
+
+  private void downloadRanges(
+      final FileChannel channel, final List<String> urls, final long start, final long size)
+      throws IOException {
+    final int count = this.policy.getConnections();
+    final long length = (size - start + count - 1) / count;
+    final ExecutorService executor =
+        Executors.newFixedThreadPool(count - 1, ThreadUtils.createDaemonFactory("emc-segment"));
+    try {
+      final List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 1; i < count; i++) {
+        final int index = i;
+        final long from = start + length * i;
+        final long to = Math.min(size, from + length) - 1;
+        if (from <= to) {
+          futures.add(
+              executor.submit(() -> this.downloadRange(channel, urls, index, from, to, size)));
+        }
+      }
+      this.downloadRange(channel, urls, 0, start, Math.min(size, start + length) - 1, size);
+      for (final Future<Void> future : futures) {
+        this.await(future);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void await(final Future<Void> future) throws IOException {
+    try {
+      future.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while downloading a segment!", e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      throw cause instanceof IOException
+          ? (IOException) cause
+          : new IOException("Failed to download a segment!", cause);
+    }
+  }
+
+  private Void downloadRange(
+      final FileChannel channel,
+      final List<String> urls,
+      final int index,
+      final long from,
+      final long to,
+      final long size)
+      throws IOException {
+    IOException failure = null;
+    for (int i = 0; i < urls.size(); i++) {
+      final String url = urls.get((index + i) % urls.size());
+      try {
+        final HttpURLConnection con = this.createConnection(url, from, to);
+        final int code = con.getResponseCode();
+        if (this.getSize(con, code, from, to) != size) {
+          HttpUtils.release(con);
+          throw new IOException(String.format("Mirror %s does not serve the same range!", url));
+        }
+        final AtomicLong written = new AtomicLong();
+        this.write(con, channel, from, to - from + 1, written);
+        this.transferred.addAndGet(written.get());
+        return null;
+      } catch (final IOException e) {
+        failure = e;
+      }
+    }
+    throw failure;
+  }
+
+  private long getSize(
+      final HttpURLConnection con, final int code, final long from, final long to) {
+    if (code != HttpURLConnection.HTTP_PARTIAL) {
+      return -1;
+    }
+    final String range = con.getHeaderField("Content-Range");
+    final String prefix = String.format("bytes %d-", from);
+    if (range == null || !range.startsWith(prefix)) {
+      return -1;
+    }
+    final int slash = range.indexOf('/');
+    try {
+      final long last = Long.parseLong(range.substring(prefix.length(), slash));
+      final long size = Long.parseLong(range.substring(slash + 1));
+      return last == Math.min(to, size - 1) ? size : -1;
+    } catch (final NumberFormatException | StringIndexOutOfBoundsException e) {
+      return -1;
+    }
+  }
+
+  private void write(
+      final HttpURLConnection con,
+      final FileChannel channel,
+      final long from,
+      final long length,
+      final AtomicLong written)
+      throws IOException {
+    final byte[] buffer = new byte[8192];
+    long position = from;
+    try (final InputStream in = con.getInputStream()) {
+      while (position - from < length) {
+        final int n = in.read(buffer, 0, (int) Math.min(buffer.length, length - (position - from)));
+        if (n == -1) {
+          break;
+        }
+        final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, n);
+        while (bytes.hasRemaining()) {
+          position += channel.write(bytes, position);
+        }
+        written.addAndGet(n);
+      }
+    }
+    if (length != Long.MAX_VALUE && position - from != length) {
+      throw new IOException(String.format("Segment of %s ended early!", con.getURL()));
+    }
+  }
+
+  private HttpURLConnection createConnection(final String url, final long from, final long to)
+      throws IOException {
+    final HttpURLConnection con = HttpUtils.openConnection(url, this.timeout);
+    con.setRequestProperty("Range", String.format("bytes=%d-%d", from, to));
+    return con;
+  }
+}
@@ -0,0 +1,366 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.manifest;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent record of the installed artifacts, stored inside the library folder. Every entry maps
+ * the exact coordinates of an artifact to its file, size, modification time, and checksum, so that
+ * checking whether an artifact is installed never requires walking the folder.
+ */
+public final class InstallManifest {
+
+  private static final String MANIFEST_NAME;
+  private static final String HEADER;
+  private static final String NONE;
+  private static final String ROOT_PACKAGE;
+
+  static {
+    MANIFEST_NAME = "manifest.emc";
+    HEADER = "# emc-manifest 2";
+    NONE = "-";
+    ROOT_PACKAGE = "/";
+  }
+
+  private final Path folder;
+  private final Path jarFolder;
+  private final Path file;
+  private final Map<String, ManifestEntry> entries;
+  private volatile boolean changed;
+
+  InstallManifest(final Path folder, final Path jarFolder) {
+    this.folder = folder;
+    this.jarFolder = jarFolder;
+    this.file = folder.resolve(MANIFEST_NAME);
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Creates a new manifest for the library folder. The manifest must be loaded before use.
+   *
+   * @param folder the library folder
+   * @return a new InstallManifest
+   */
+  public static InstallManifest ofManifest(final Path folder) {
+    return new InstallManifest(folder, folder);
+  }
+
+  /**
+   * Creates a new manifest for the library folder, whose artifacts are installed in a separate
+   * folder. The manifest must be loaded before use.
+   *
+   * @param folder the library folder
+   * @param jarFolder the folder the artifacts are installed in
+   * @return a new InstallManifest
+   */
+  public static InstallManifest ofManifest(final Path folder, final Path jarFolder) {
+    return new InstallManifest(folder, jarFolder);
+  }
+
+  /**
+   * Loads the manifest from the disk. A missing or unreadable manifest is treated as empty, and
+   * will be rebuilt as artifacts are checked.
+   *
+   * @throws IOException if an issue occurred while reading the manifest
+   */
+  public void load() throws IOException {
+    this.entries.clear();
+    this.changed = false;
+    if (Files.notExists(this.file)) {
+      return;
+    }
+    final List<String> lines = Files.readAllLines(this.file, StandardCharsets.UTF_8);
+    if (lines.isEmpty() || !HEADER.equals(lines.get(0))) {
+      this.changed = true;
+      return;
+    }
+    for (final String line : lines.subList(1, lines.size())) {
+      this.parseLine(line).ifPresent(entry -> this.entries.put(entry.getCoordinates(), entry));
+    }
+  }
+
+  private Optional<ManifestEntry> parseLine(final String line) {
+    final String[] parts = line.split("\t");
+    if (parts.length != 5 && parts.length != 7) {
+      return Optional.empty();
+    }
+    try {
+      final Path path = this.folder.resolve(parts[1]);
+      final long size = Long.parseLong(parts[2]);
+      final long modified = Long.parseLong(parts[3]);
+      final ManifestEntry entry = ManifestEntry.ofEntry(parts[0], path, size, modified, parts[4]);
+      if (parts.length == 5) {
+        return Optional.of(entry);
+      }
+      return Optional.of(
+          entry.withPackages(this.folder.resolve(parts[5]), this.parsePackages(parts[6])));
+    } catch (final NumberFormatException | InvalidPathException e) {
+      return Optional.empty();
+    }
+  }
+
+  private List<String> parsePackages(final String packages) {
+    final List<String> parsed = new ArrayList<>();
+    if (NONE.equals(packages)) {
+      return parsed;
+    }
+    for (final String name : packages.split(",")) {
+      parsed.add(ROOT_PACKAGE.equals(name) ? "" : name);
+    }
+    return parsed;
+  }
+
+  /**
+   * Writes the manifest to the disk if it changed since it was loaded. The file is replaced
+   * atomically, so an interrupted write never leaves a partial manifest behind.
+   *
+   * @throws IOException if an issue occurred while writing the manifest
+   */
+  public void save() throws IOException {
+    if (!this.changed) {
+      return;
+    }
+    final Path temp = this.file.resolveSibling(String.format("%s.tmp", MANIFEST_NAME));
+    try (final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+      for (final ManifestEntry entry : this.getSortedEntries()) {
+        writer.write(this.formatEntry(entry));
+        writer.newLine();
+      }
+    }
+    FileUtils.moveAtomically(temp, this.file);
+    this.changed = false;
+  }
+
+  private List<ManifestEntry> getSortedEntries() {
+    final List<ManifestEntry> sorted = new ArrayList<>(this.entries.values());
+    sorted.sort(Comparator.comparing(ManifestEntry::getCoordinates));
+    return sorted;
+  }
+
+  private String formatEntry(final ManifestEntry entry) {
+    final String line =
+        String.format(
+            "%s\t%s\t%d\t%d\t%s",
+            entry.getCoordinates(),
+            this.relativize(entry.getPath()),
+            entry.getSize(),
+            entry.getModified(),
+            entry.getChecksum());
+    final Path loaded = entry.getLoaded();
+    if (loaded == null) {
+      return line;
+    }
+    return String.format(
+        "%s\t%s\t%s", line, this.relativize(loaded), this.formatPackages(entry.getPackages()));
+  }
+
+  private String relativize(final Path path) {
+    return this.folder.relativize(path).toString().replace('\\', '/');
+  }
+
+  private String formatPackages(final List<String> packages) {
+    if (packages.isEmpty()) {
+      return NONE;
+    }
+    final StringJoiner joiner = new StringJoiner(",");
+    for (final String name : packages) {
+      joiner.add(name.isEmpty() ? ROOT_PACKAGE : name);
+    }
+    return joiner.toString();
+  }
+
+  /**
+   * Checks whether the artifact is installed. Entries whose file went missing or changed size are
+   * dropped, and entries whose modification time changed are re-hashed before being trusted. If
+   * the artifact has no entry, a valid JAR with the exact published file name is adopted.
+   *
+   * @param artifact the artifact
+   * @return whether the artifact is installed
+   * @throws IOException if an issue occurred while checking the file
+   */
+  public boolean isInstalled(final Artifact artifact) throws IOException {
+    final ManifestEntry entry = this.entries.get(artifact.getCoordinates());
+    if (entry == null) {
+      return this.adoptFile(artifact);
+    }
+    return this.validateEntry(entry);
+  }
+
+  private boolean validateEntry(final ManifestEntry entry) throws IOException {
+    final Path path = entry.getPath();
+    if (Files.notExists(path)) {
+      this.removeEntry(entry.getCoordinates());
+      return false;
+    }
+    final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    if (attributes.size() != entry.getSize()) {
+      this.removeEntry(entry.getCoordinates());
+      return false;
+    }
+    final long modified = attributes.lastModifiedTime().toMillis();
+    if (modified == entry.getModified()) {
+      return true;
+    }
+    if (!FileUtils.getUppercaseHash(path).equals(entry.getChecksum())) {
+      this.removeEntry(entry.getCoordinates());
+      return false;
+    }
+    this.putEntry(entry.withModified(modified));
+    return true;
+  }
+
+  private boolean adoptFile(final Artifact artifact) throws IOException {
+    final Path path = this.jarFolder.resolve(artifact.getJarName());
+    if (Files.notExists(path) || !FileUtils.isValidZip(path)) {
+      return false;
+    }
+    this.record(artifact, path);
+    return true;
+  }
+
+  /**
+   * Records the current state of an installed artifact file.
+   *
+   * @param artifact the artifact
+   * @param path the installed file
+   * @return the recorded entry
+   * @throws IOException if an issue occurred while reading the file
+   */
+  public ManifestEntry record(final Artifact artifact, final Path path) throws IOException {
+    return this.record(artifact, path, FileUtils.getUppercaseHash(path));
+  }
+
+  /**
+   * Records the current state of an installed artifact file, whose hash is already known.
+   *
+   * @param artifact the artifact
+   * @param path the installed file
+   * @param checksum the uppercase SHA-1 hash of the file
+   * @return the recorded entry
+   * @throws IOException if an issue occurred while reading the file
+   */
+  public ManifestEntry record(final Artifact artifact, final Path path, final String checksum)
+      throws IOException {
+    final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    final ManifestEntry entry =
+        ManifestEntry.ofEntry(
+            artifact.getCoordinates(),
+            path,
+            attributes.size(),
+            attributes.lastModifiedTime().toMillis(),
+            checksum);
+    this.putEntry(entry);
+    return entry;
+  }
+
+  /**
+   * Records the packages of the JAR an installed artifact is loaded from, so that the next load can
+   * index the JAR without opening it. The packages are kept until the entry is recorded again.
+   *
+   * @param entry the entry of the artifact
+   * @param loaded the loaded JAR, which may be a relocated copy of the installed file
+   * @param packages the packages of the loaded JAR
+   */
+  public void recordPackages(
+      final ManifestEntry entry, final Path loaded, final Collection<String> packages) {
+    final ManifestEntry current = this.entries.get(entry.getCoordinates());
+    if (current != null) {
+      this.putEntry(current.withPackages(loaded, packages));
+    }
+  }
+
+  /**
+   * Removes the entry of an artifact, if present.
+   *
+   * @param artifact the artifact
+   */
+  public void remove(final Artifact artifact) {
+    this.removeEntry(artifact.getCoordinates());
+  }
+
+  /**
+   * Removes an entry, if present.
+   *
+   * @param entry the entry
+   */
+  public void remove(final ManifestEntry entry) {
+    this.removeEntry(entry.getCoordinates());
+  }
+
+  private void putEntry(final ManifestEntry entry) {
+    this.entries.put(entry.getCoordinates(), entry);
+    this.changed = true;
+  }
+
+  private void removeEntry(final String coordinates) {
+    if (this.entries.remove(coordinates) != null) {
+      this.changed = true;
+    }
+  }
+
+  /**
+   * Gets the entry of an artifact.
+   *
+   * @param artifact the artifact
+   * @return the entry, or empty if the artifact was never recorded
+   */
+  public Optional<ManifestEntry> getEntry(final Artifact artifact) {
+    return Optional.ofNullable(this.entries.get(artifact.getCoordinates()));
+  }
+
+  public Collection<ManifestEntry> getEntries() {
+    return this.entries.values();
+  }
+
+  public Path getFolder() {
+    return this.folder;
+  }
+
+  public Path getJarFolder() {
+    return this.jarFolder;
+  }
+
+  public Path getFile() {
+    return this.file;
+  }
+}
@@ -0,0 +1,226 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.manifest;
+
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Persistent record of the last complete load, stored inside the library folder. It holds a
+ * fingerprint of the configuration the load ran with, and the JARs it loaded with their size and
+ * modification time. As long as neither changed, the next load can inject the same JARs straight
+ * away, without resolving, searching, installing, or relocating anything.
+ */
+public final class LoadState {
+
+  private static final String STATE_NAME;
+  private static final String HEADER;
+
+  static {
+    STATE_NAME = "state.emc";
+    HEADER = "# emc-state 1";
+  }
+
+  private final Path folder;
+  private final Path file;
+  private final List<String> coordinates;
+  private final List<Path> jars;
+  private final List<long[]> attributes;
+  private String fingerprint;
+
+  LoadState(final Path folder) {
+    this.folder = folder;
+    this.file = folder.resolve(STATE_NAME);
+    this.coordinates = new ArrayList<>();
+    this.jars = new ArrayList<>();
+    this.attributes = new ArrayList<>();
+  }
+
+  /**
+   * Creates a new load state for the library folder. The state must be loaded before use.
+   *
+   * @param folder the library folder
+   * @return a new LoadState
+   */
+  public static LoadState ofState(final Path folder) {
+    return new LoadState(folder);
+  }
+
+  /**
+   * Loads the state from the disk. A missing or unreadable state is treated as empty, which never
+   * matches.
+   *
+   * @throws IOException if an issue occurred while reading the state
+   */
+  public void load() throws IOException {
+    this.clear();
+    if (Files.notExists(this.file)) {
+      return;
+    }
+    final List<String> lines = Files.readAllLines(this.file, StandardCharsets.UTF_8);
+    if (lines.size() < 2 || !HEADER.equals(lines.get(0))) {
+      return;
+    }
+    for (final String line : lines.subList(2, lines.size())) {
+      if (!this.parseLine(line)) {
+        this.clear();
+        return;
+      }
+    }
+    this.fingerprint = lines.get(1);
+  }
+
+  private boolean parseLine(final String line) {
+    final String[] parts = line.split("\t");
+    if (parts.length != 4) {
+      return false;
+    }
+    try {
+      final long[] attributes = {Long.parseLong(parts[2]), Long.parseLong(parts[3])};
+      this.coordinates.add(parts[0]);
+      this.jars.add(this.folder.resolve(parts[1]));
+      this.attributes.add(attributes);
+      return true;
+    } catch (final NumberFormatException | InvalidPathException e) {
+      return false;
+    }
+  }
+
+  private void clear() {
+    this.fingerprint = null;
+    this.coordinates.clear();
+    this.jars.clear();
+    this.attributes.clear();
+  }
+
+  /**
+   * Checks whether the state was recorded with the same configuration, and whether every JAR it
+   * loaded is still on the disk with the same size and modification time. Only the recorded JARs
+   * are checked, so the folder is never walked.
+   *
+   * @param fingerprint the fingerprint of the current configuration
+   * @return whether the recorded JARs can be loaded as is
+   * @throws IOException if an issue occurred while checking the JARs
+   */
+  public boolean matches(final String fingerprint) throws IOException {
+    if (!fingerprint.equals(this.fingerprint)) {
+      return false;
+    }
+    for (int i = 0; i < this.jars.size(); i++) {
+      final long[] expected = this.attributes.get(i);
+      final BasicFileAttributes attributes;
+      try {
+        attributes = Files.readAttributes(this.jars.get(i), BasicFileAttributes.class);
+      } catch (final NoSuchFileException e) {
+        return false;
+      }
+      if (attributes.size() != expected[0]
+          || attributes.lastModifiedTime().toMillis() != expected[1]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Records a complete load and writes it to the disk. The file is replaced atomically.
+   *
+   * @param fingerprint the fingerprint of the configuration the load ran with
+   * @param coordinates the exact coordinates of the loaded artifacts
+   * @param jars the loaded JARs, in the order of the coordinates
+   * @throws IOException if an issue occurred while reading the JARs or writing the state
+   */
+  public void record(
+      final String fingerprint, final List<String> coordinates, final List<Path> jars)
+      throws IOException {
+    this.clear();
+    for (final Path jar : jars) {
+      final BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+      this.attributes.add(
+          new long[] {attributes.size(), attributes.lastModifiedTime().toMillis()});
+    }
+    this.coordinates.addAll(coordinates);
+    this.jars.addAll(jars);
+    this.fingerprint = fingerprint;
+    this.save();
+  }
+
+  private void save() throws IOException {
+    final Path temp = this.file.resolveSibling(String.format("%s.tmp", STATE_NAME));
+    try (final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.newLine();
+      writer.write(this.fingerprint);
+      writer.newLine();
+      for (int i = 0; i < this.jars.size(); i++) {
+        final long[] attributes = this.attributes.get(i);
+        writer.write(
+            String.format(
+                "%s\t%s\t%d\t%d",
+                this.coordinates.get(i),
+                this.folder.relativize(this.jars.get(i)).toString().replace('\\', '/'),
+                attributes[0],
+                attributes[1]));
+        writer.newLine();
+      }
+    }
+    FileUtils.moveAtomically(temp, this.file);
+  }
+
+  /**
+   * Gets the exact coordinates of the artifacts of the recorded load.
+   *
+   * @return the coordinates, in load order
+   */
+  public List<String> getCoordinates() {
+    return Collections.unmodifiableList(this.coordinates);
+  }
+
+  /**
+   * Gets the JARs of the recorded load.
+   *
+   * @return the JARs, in the order of the coordinates
+   */
+  public List<Path> getJars() {
+    return Collections.unmodifiableList(this.jars);
+  }
+
+  public String getFingerprint() {
+    return this.fingerprint;
+  }
+
+  public Path getFile() {
+    return this.file;
+  }
+}
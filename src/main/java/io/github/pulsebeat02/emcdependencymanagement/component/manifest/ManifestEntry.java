@@ -0,0 +1,154 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.manifest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/** Class used to hold the recorded state of an installed artifact. */
+public final class ManifestEntry {
+
+  private final String coordinates;
+  private final Path path;
+  private final long size;
+  private final long modified;
+  private final String checksum;
+  private final Path loaded;
+  private final List<String> packages;
+
+  ManifestEntry(
+      final String coordinates,
+      final Path path,
+      final long size,
+      final long modified,
+      final String checksum,
+      final Path loaded,
+      final List<String> packages) {
+    this.coordinates = coordinates;
+    this.path = path;
+    this.size = size;
+    this.modified = modified;
+    this.checksum = checksum;
+    this.loaded = loaded;
+    this.packages = packages;
+  }
+
+  /**
+   * Creates a new manifest entry.
+   *
+   * @param coordinates the exact coordinates of the artifact
+   * @param path the installed file
+   * @param size the size of the file in bytes
+   * @param modified the last modified time of the file in milliseconds
+   * @param checksum the uppercase SHA-1 hash of the file
+   * @return a new ManifestEntry
+   */
+  public static ManifestEntry ofEntry(
+      final String coordinates,
+      final Path path,
+      final long size,
+      final long modified,
+      final String checksum) {
+    return new ManifestEntry(
+        coordinates, path, size, modified, checksum, null, Collections.emptyList());
+  }
+
+  /**
+   * Creates a copy of this entry with a different modification time.
+   *
+   * @param modified the new last modified time in milliseconds
+   * @return a new ManifestEntry
+   */
+  public ManifestEntry withModified(final long modified) {
+    return new ManifestEntry(
+        this.coordinates,
+        this.path,
+        this.size,
+        modified,
+        this.checksum,
+        this.loaded,
+        this.packages);
+  }
+
+  /**
+   * Creates a copy of this entry with the packages of the JAR it is loaded from, which may be a
+   * relocated copy of the installed file.
+   *
+   * @param loaded the loaded JAR
+   * @param packages the packages of the loaded JAR
+   * @return a new ManifestEntry
+   */
+  public ManifestEntry withPackages(final Path loaded, final Collection<String> packages) {
+    return new ManifestEntry(
+        this.coordinates,
+        this.path,
+        this.size,
+        this.modified,
+        this.checksum,
+        loaded,
+        Collections.unmodifiableList(new ArrayList<>(packages)));
+  }
+
+  /**
+   * Gets the packages of a loaded JAR, if they were recorded for that exact JAR.
+   *
+   * @param loaded the loaded JAR
+   * @return the packages, or empty if they were not recorded
+   */
+  public Optional<List<String>> getPackages(final Path loaded) {
+    return loaded.equals(this.loaded) ? Optional.of(this.packages) : Optional.empty();
+  }
+
+  public String getCoordinates() {
+    return this.coordinates;
+  }
+
+  public Path getPath() {
+    return this.path;
+  }
+
+  public long getSize() {
+    return this.size;
+  }
+
+  public long getModified() {
+    return this.modified;
+  }
+
+  public String getChecksum() {
+    return this.checksum;
+  }
+
+  public Path getLoaded() {
+    return this.loaded;
+  }
+
+  public List<String> getPackages() {
+    return this.packages;
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.ClassRemapper;
+
+/** Relocates the names and contents of JAR entries, shared by every relocator. */
+final class EntryRelocator {
+
+  private static final String SERVICES;
+  private static final Pattern SERVICE_NAME;
+
+  static {
+    SERVICES = "META-INF/services/";
+    SERVICE_NAME = Pattern.compile("^([ \\t]*)([^\\s#]+)", Pattern.MULTILINE);
+  }
+
+  private final RelocatingRemapper remapper;
+  private final PackageScanner scanner;
+
+  EntryRelocator(final Collection<Relocation> relocations) {
+    this.remapper = new RelocatingRemapper(relocations);
+    this.scanner = new PackageScanner(relocations);
+  }
+
+  /**
+   * Checks whether an entry is a signature, which no longer matches once the JAR is relocated and
+   * must therefore be dropped.
+   *
+   * @param name the entry name
+   * @return whether the entry is a signature
+   */
+  boolean isSignature(final String name) {
+    final String upper = name.toUpperCase(Locale.ROOT);
+    if (!upper.startsWith("META-INF/") || upper.indexOf('/', 9) != -1) {
+      return false;
+    }
+    return upper.endsWith(".SF")
+        || upper.endsWith(".RSA")
+        || upper.endsWith(".DSA")
+        || upper.endsWith(".EC")
+        || upper.equals("META-INF/INDEX.LIST");
+  }
+
+  /**
+   * Relocates the name of an entry.
+   *
+   * @param name the entry name
+   * @return the relocated name
+   */
+  String getName(final String name) {
+    if (name.startsWith(SERVICES) && name.length() > SERVICES.length()) {
+      return SERVICES + this.remapper.mapName(name.substring(SERVICES.length()));
+    }
+    return this.remapper.mapPath(name);
+  }
+
+  /**
+   * Checks whether the content of an entry may change when relocated. Other entries can be copied
+   * as is.
+   *
+   * @param name the relocated entry name
+   * @return whether the content of the entry may change
+   */
+  boolean isRewritten(final String name) {
+    return name.endsWith(".class") || name.startsWith(SERVICES);
+  }
+
+  /**
+   * Checks whether the content of an entry mentions any relocated package, and must therefore be
+   * relocated.
+   *
+   * @param content the entry content
+   * @return whether the content must be relocated
+   */
+  boolean isAffected(final byte[] content) {
+    return this.scanner.matches(content);
+  }
+
+  /**
+   * Checks whether the content of an entry read from a stream mentions any relocated package. The
+   * stream is only read up to the first mention.
+   *
+   * @param in the stream of the entry content
+   * @return whether the content must be relocated
+   * @throws IOException if an issue occurred while reading the stream
+   */
+  boolean isAffected(final InputStream in) throws IOException {
+    return this.scanner.matches(in);
+  }
+
+  /**
+   * Relocates the content of an entry. Contents which do not mention any relocated package are
+   * returned as is.
+   *
+   * @param name the relocated entry name
+   * @param content the entry content
+   * @return the relocated content
+   */
+  byte[] getContent(final String name, final byte[] content) {
+    if (!this.isRewritten(name) || !this.isAffected(content)) {
+      return content;
+    }
+    if (name.startsWith(SERVICES)) {
+      return this.getServices(content);
+    }
+    final ClassReader reader = new ClassReader(content);
+    final ClassWriter writer = new ClassWriter(0);
+    reader.accept(new ClassRemapper(writer, this.remapper), 0);
+    return writer.toByteArray();
+  }
+
+  private byte[] getServices(final byte[] content) {
+    // only the class name of each line is remapped, so comments, whitespace, and line terminators
+    // are kept as they are
+    final Matcher matcher = SERVICE_NAME.matcher(new String(content, StandardCharsets.UTF_8));
+    final StringBuffer buffer = new StringBuffer(content.length);
+    while (matcher.find()) {
+      final String name = this.remapper.mapName(matcher.group(2));
+      matcher.appendReplacement(buffer, Matcher.quoteReplacement(matcher.group(1) + name));
+    }
+    matcher.appendTail(buffer);
+    return buffer.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
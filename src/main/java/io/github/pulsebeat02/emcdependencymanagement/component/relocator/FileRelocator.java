@@ -23,26 +23,41 @@
  */
 package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
 
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.RawEntry;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.RawZipWriter;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.ZipIndex;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.ZipRecord;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
-import me.lucko.jarrelocator.JarRelocator;
-import me.lucko.jarrelocator.Relocation;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 /** Relocates all JARs for files. */
 public final class FileRelocator {
 
   private final Collection<Relocation> relocations;
+  private final EntryRelocator relocator;
   private final Collection<Path> files;
 
-  FileRelocator(
-      final Collection<io.github.pulsebeat02.emcdependencymanagement.component.Relocation>
-          relocations,
-      final Collection<Path> files) {
-    this.relocations = this.convertToProperRelocator(relocations);
+  FileRelocator(final Collection<Relocation> relocations, final Collection<Path> files) {
+    this.relocations = relocations;
+    this.relocator = new EntryRelocator(relocations);
     this.files = files;
   }
 
@@ -54,9 +69,7 @@ public final class FileRelocator {
    * @return a new FileRelocator
    */
   public static FileRelocator ofRelocator(
-      final Collection<io.github.pulsebeat02.emcdependencymanagement.component.Relocation>
-          relocations,
-      final Collection<Path> files) {
+      final Collection<Relocation> relocations, final Collection<Path> files) {
     return new FileRelocator(relocations, files);
   }
 
@@ -66,33 +79,163 @@ public final class FileRelocator {
     }
   }
 
+  /**
+   * Relocates a single JAR into a separate output file, leaving the source untouched. The output
+   * is written to a temporary file first and moved into place atomically, so it is either complete
+   * or absent.
+   *
+   * @param source the JAR to relocate
+   * @param output the relocated JAR
+   * @throws IOException if an issue occurred during relocation
+   */
+  public void relocate(final Path source, final Path output) throws IOException {
+    final String name = String.format("%s.tmp", output.getFileName());
+    final Path temp = output.resolveSibling(name);
+    try {
+      this.relocateJar(source, temp);
+      FileUtils.moveAtomically(temp, output);
+    } catch (final RuntimeException e) {
+      throw new IOException(String.format("Failed to relocate JAR %s!", source), e);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Checks whether relocating a JAR would change it, reading only its central directory and the
+   * bytes of its class and service files. Entries are inflated as they are scanned, and the scan
+   * stops at the first mention of a relocated package. JARs that contain no relocated package and
+   * never mention one can be used as is.
+   *
+   * @param source the JAR
+   * @return whether the JAR must be relocated
+   * @throws IOException if an issue occurred while reading the JAR
+   */
+  public boolean isAffected(final Path source) throws IOException {
+    final Optional<ZipIndex> index = ZipIndex.open(source);
+    if (!index.isPresent()) {
+      return true;
+    }
+    try (final ZipIndex zip = index.get()) {
+      final List<ZipRecord> records = zip.getRecords();
+      for (final ZipRecord record : records) {
+        final String name = record.getName();
+        if (!name.equals(this.relocator.getName(name))) {
+          return true;
+        }
+      }
+      for (final ZipRecord record : records) {
+        if (!record.isDirectory()
+            && this.relocator.isRewritten(record.getName())
+            && this.isAffected(zip, record)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isAffected(final ZipIndex zip, final ZipRecord record) throws IOException {
+    try (final InputStream in = zip.openStream(record)) {
+      return this.relocator.isAffected(in);
+    }
+  }
+
   private void relocateJarExceptionally(final Path jar) {
     try {
-      this.relocateJar(jar);
+      this.relocate(jar, jar);
     } catch (final IOException e) {
       e.printStackTrace();
     }
   }
 
-  private void relocateJar(final Path jar) throws IOException {
-    final String original = jar.getFileName().toString();
-    final String name = String.format("temp-%s", original);
-    final Path relocated = jar.getParent().resolve(name);
-    final JarRelocator relocator =
-        new JarRelocator(jar.toFile(), relocated.toFile(), this.relocations);
-    relocator.run();
-    Files.deleteIfExists(jar);
-    Files.move(relocated, relocated.resolveSibling(original));
+  private void relocateJar(final Path source, final Path output) throws IOException {
+    final Optional<ZipIndex> index = ZipIndex.open(source);
+    if (!index.isPresent()) {
+      this.relocateArchive(source, output);
+      return;
+    }
+    try (final ZipIndex zip = index.get();
+        final RawZipWriter stream = RawZipWriter.ofWriter(Files.newOutputStream(output))) {
+      final OrderedEntryWriter writer = new OrderedEntryWriter(stream, ForkJoinPool.commonPool());
+      final Set<String> names = new HashSet<>();
+      try {
+        for (final ZipRecord record : zip.getRecords()) {
+          if (this.relocator.isSignature(record.getName())) {
+            continue;
+          }
+          final String name = this.relocator.getName(record.getName());
+          if (!names.add(name)) {
+            continue;
+          }
+          writer.submit(name, () -> this.relocateRecord(zip, record, name));
+        }
+        writer.finish();
+      } finally {
+        writer.cancel();
+      }
+    }
+  }
+
+  private RawEntry relocateRecord(final ZipIndex zip, final ZipRecord record, final String name)
+      throws IOException {
+    if (record.isDirectory()) {
+      return RawEntry.ofDirectory(name, record.getDosTime());
+    }
+    if (!this.relocator.isRewritten(name)) {
+      return RawEntry.ofRecord(name, record, zip.readRaw(record));
+    }
+    final byte[] content = zip.read(record);
+    final byte[] relocated = this.relocator.getContent(name, content);
+    if (Arrays.equals(content, relocated)) {
+      return RawEntry.ofRecord(name, record, zip.readRaw(record));
+    }
+    return RawEntry.ofContent(name, record.getDosTime(), relocated);
+  }
+
+  private void relocateArchive(final Path source, final Path output) throws IOException {
+    try (final ZipFile zip = new ZipFile(source.toFile());
+        final OutputStream out = Files.newOutputStream(output);
+        final ZipOutputStream stream = new ZipOutputStream(out)) {
+      final Set<String> names = new HashSet<>();
+      final Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        final ZipEntry entry = entries.nextElement();
+        if (this.relocator.isSignature(entry.getName())) {
+          continue;
+        }
+        final String name = this.relocator.getName(entry.getName());
+        if (!names.add(name)) {
+          continue;
+        }
+        final ZipEntry relocated = new ZipEntry(name);
+        relocated.setTime(entry.getTime());
+        stream.putNextEntry(relocated);
+        if (!entry.isDirectory()) {
+          try (final InputStream in = zip.getInputStream(entry)) {
+            stream.write(this.relocator.getContent(name, this.readEntry(in)));
+          }
+        }
+        stream.closeEntry();
+      }
+    }
+  }
+
+  private byte[] readEntry(final InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
   }
 
-  private Collection<Relocation> convertToProperRelocator(
-      final Collection<io.github.pulsebeat02.emcdependencymanagement.component.Relocation>
-          relocations) {
-    return relocations.stream().map(this::createRelocation).collect(Collectors.toList());
+  public Collection<Relocation> getRelocations() {
+    return this.relocations;
   }
 
-  private Relocation createRelocation(
-      final io.github.pulsebeat02.emcdependencymanagement.component.Relocation relocation) {
-    return new Relocation(relocation.getOriginal(), relocation.getRelocation());
+  public Collection<Path> getFiles() {
+    return this.files;
   }
 }
@@ -0,0 +1,102 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.RawEntry;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.RawZipWriter;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes relocated entries in their original order, while they are relocated and compressed in
+ * parallel on a fork-join pool. At most a window of entries is in flight at once, which bounds the
+ * memory held by entries waiting to be written.
+ */
+final class OrderedEntryWriter {
+
+  private static final int WINDOW;
+
+  static {
+    WINDOW = Math.max(16, ForkJoinPool.getCommonPoolParallelism() * 8);
+  }
+
+  private final RawZipWriter output;
+  private final ForkJoinPool pool;
+  private final Deque<ForkJoinTask<RawEntry>> pending;
+  private final Set<String> names;
+
+  OrderedEntryWriter(final RawZipWriter output, final ForkJoinPool pool) {
+    this.output = output;
+    this.pool = pool;
+    this.pending = new ArrayDeque<>();
+    this.names = new HashSet<>();
+  }
+
+  /**
+   * Submits an entry to be written. Entries whose name was already written are skipped.
+   *
+   * @param name the relocated entry name
+   * @param entry the task producing the relocated entry
+   * @throws IOException if an issue occurred while writing earlier entries
+   */
+  void submit(final String name, final Callable<RawEntry> entry) throws IOException {
+    if (!this.names.add(name)) {
+      return;
+    }
+    if (this.pending.size() >= WINDOW) {
+      this.writeNext();
+    }
+    this.pending.add(this.pool.submit(entry));
+  }
+
+  /**
+   * Writes every pending entry and finishes the archive.
+   *
+   * @throws IOException if an issue occurred while writing the entries
+   */
+  void finish() throws IOException {
+    while (!this.pending.isEmpty()) {
+      this.writeNext();
+    }
+    this.output.finish();
+  }
+
+  /** Cancels every pending entry, after a failure. */
+  void cancel() {
+    for (final ForkJoinTask<RawEntry> task : this.pending) {
+      task.cancel(false);
+    }
+    this.pending.clear();
+  }
+
+  private void writeNext() throws IOException {
+    this.output.write(this.pending.poll().join());
+  }
+}
@@ -0,0 +1,151 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Searches raw bytes for the original packages of the relocations, in both their internal and
+ * their dotted form. Used to tell cheaply whether an entry could be changed by relocation, without
+ * parsing it. Matches may be false positives, but a content without a match is never relocated.
+ */
+final class PackageScanner {
+
+  private static final int BUFFER_SIZE;
+
+  static {
+    BUFFER_SIZE = 8192;
+  }
+
+  private final byte[][][] patterns;
+  private final int maxLength;
+
+  PackageScanner(final Collection<Relocation> relocations) {
+    final Set<String> prefixes = new LinkedHashSet<>();
+    for (final Relocation relocation : relocations) {
+      prefixes.add(relocation.getOriginal());
+      prefixes.add(relocation.getOriginal().replace('.', '/'));
+    }
+    int maxLength = 0;
+    final List<List<byte[]>> buckets = new ArrayList<>(256);
+    for (int i = 0; i < 256; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    for (final String prefix : prefixes) {
+      final byte[] pattern = prefix.getBytes(StandardCharsets.UTF_8);
+      if (pattern.length > 0) {
+        buckets.get(pattern[0] & 0xFF).add(pattern);
+        maxLength = Math.max(maxLength, pattern.length);
+      }
+    }
+    this.maxLength = maxLength;
+    this.patterns = new byte[256][][];
+    for (int i = 0; i < 256; i++) {
+      final List<byte[]> bucket = buckets.get(i);
+      this.patterns[i] = bucket.isEmpty() ? null : bucket.toArray(new byte[0][]);
+    }
+  }
+
+  /**
+   * Checks whether the content contains any of the original packages.
+   *
+   * @param content the content
+   * @return whether any package was found
+   */
+  boolean matches(final byte[] content) {
+    return this.matches(content, content.length);
+  }
+
+  /**
+   * Checks whether the content read from a stream contains any of the original packages. The
+   * stream is only read up to the first match.
+   *
+   * @param in the stream of the content
+   * @return whether any package was found
+   * @throws IOException if an issue occurred while reading the stream
+   */
+  boolean matches(final InputStream in) throws IOException {
+    if (this.maxLength == 0) {
+      return false;
+    }
+    final int overlap = this.maxLength - 1;
+    final byte[] buffer = new byte[BUFFER_SIZE + overlap];
+    int length = 0;
+    boolean end = false;
+    while (!end) {
+      while (length < buffer.length) {
+        final int n = in.read(buffer, length, buffer.length - length);
+        if (n < 0) {
+          end = true;
+          break;
+        }
+        length += n;
+      }
+      if (this.matches(buffer, length)) {
+        return true;
+      }
+      // keep the tail, which may hold the start of a match cut off by the buffer
+      final int kept = Math.min(overlap, length);
+      System.arraycopy(buffer, length - kept, buffer, 0, kept);
+      length = kept;
+    }
+    return false;
+  }
+
+  private boolean matches(final byte[] content, final int length) {
+    for (int i = 0; i < length; i++) {
+      final byte[][] candidates = this.patterns[content[i] & 0xFF];
+      if (candidates == null) {
+        continue;
+      }
+      for (final byte[] pattern : candidates) {
+        if (this.matchesAt(content, length, i, pattern)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean matchesAt(
+      final byte[] content, final int length, final int offset, final byte[] pattern) {
+    if (offset + pattern.length > length) {
+      return false;
+    }
+    for (int i = 1; i < pattern.length; i++) {
+      if (content[offset + i] != pattern[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
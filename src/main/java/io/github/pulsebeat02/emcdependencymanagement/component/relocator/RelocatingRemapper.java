@@ -0,0 +1,111 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import java.util.Collection;
+import org.objectweb.asm.commons.Remapper;
+
+/**
+ * Remaps class names, descriptors, string constants, and resource paths from the original packages
+ * of the relocations to their new packages. The relocations are compiled into prefix tries, so
+ * every lookup is a single pass over the name, however many relocations there are.
+ */
+final class RelocatingRemapper extends Remapper {
+
+  private final RelocationTrie paths;
+  private final RelocationTrie names;
+
+  RelocatingRemapper(final Collection<Relocation> relocations) {
+    this.paths = new RelocationTrie('/');
+    this.names = new RelocationTrie('.');
+    for (final Relocation relocation : relocations) {
+      final String original = relocation.getOriginal();
+      final String relocated = relocation.getRelocation();
+      this.paths.add(original.replace('.', '/'), relocated.replace('.', '/'));
+      this.names.add(original, relocated);
+    }
+  }
+
+  @Override
+  public String map(final String internalName) {
+    final String mapped = this.paths.relocate(internalName);
+    return mapped == null ? internalName : mapped;
+  }
+
+  @Override
+  public Object mapValue(final Object value) {
+    if (value instanceof String) {
+      final String string = (String) value;
+      final String path = this.paths.relocate(string);
+      if (path != null) {
+        return path;
+      }
+      final String name = this.names.relocate(string);
+      if (name != null) {
+        return name;
+      }
+      final String descriptor = this.mapDescriptorValue(string);
+      if (descriptor != null) {
+        return descriptor;
+      }
+    }
+    return super.mapValue(value);
+  }
+
+  private String mapDescriptorValue(final String string) {
+    int start = 0;
+    while (start < string.length() && string.charAt(start) == '[') {
+      start++;
+    }
+    final int end = string.length() - 1;
+    if (end <= start + 1 || string.charAt(start) != 'L' || string.charAt(end) != ';') {
+      return null;
+    }
+    final String mapped = this.paths.relocate(string.substring(start + 1, end));
+    return mapped == null ? null : String.format("%sL%s;", string.substring(0, start), mapped);
+  }
+
+  /**
+   * Relocates the path of a resource, such as a class file or a properties file.
+   *
+   * @param path the resource path
+   * @return the relocated path
+   */
+  String mapPath(final String path) {
+    final String mapped = this.paths.relocate(path);
+    return mapped == null ? path : mapped;
+  }
+
+  /**
+   * Relocates a fully qualified class name, such as the name of a service file.
+   *
+   * @param name the class name
+   * @return the relocated name
+   */
+  String mapName(final String name) {
+    final String mapped = this.names.relocate(name);
+    return mapped == null ? name : mapped;
+  }
+}
@@ -0,0 +1,363 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.ManifestEntry;
+import io.github.pulsebeat02.emcdependencymanagement.component.store.SharedStore;
+import io.github.pulsebeat02.emcdependencymanagement.component.store.StoreLock;
+import io.github.pulsebeat02.emcdependencymanagement.logger.DefaultLoggerConfiguration;
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import io.github.pulsebeat02.emcdependencymanagement.metrics.LoadListener;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache of relocated JARs. Every output is named after the checksum of its pristine source and a
+ * fingerprint of the relocation set, so a JAR is only relocated again when either of them changes.
+ */
+public final class RelocationCache {
+
+  private static final int KEY_LENGTH;
+  private static final Pattern OUTPUT;
+  private static final LoggerConfiguration LOGGER;
+
+  static {
+    KEY_LENGTH = 12;
+    OUTPUT = Pattern.compile("(.+)-[0-9a-f]{1,12}-([0-9a-f]{12})\\.jar(\\.unaffected)?");
+    LOGGER = new DefaultLoggerConfiguration();
+  }
+
+  private final Collection<Relocation> relocations;
+  private final Path folder;
+  private final String fingerprint;
+  private final String suffix;
+  private final SharedStore store;
+
+  RelocationCache(
+      final Collection<Relocation> relocations, final Path folder, final SharedStore store) {
+    this.relocations = relocations;
+    this.folder = folder;
+    this.store = store;
+    this.fingerprint = this.createFingerprint(relocations);
+    this.suffix = String.format("-%s.jar", this.fingerprint.substring(0, KEY_LENGTH));
+  }
+
+  /**
+   * Creates a new relocation cache.
+   *
+   * @param relocations the relocations to apply
+   * @param folder the folder relocated JARs are stored in
+   * @return a new RelocationCache
+   */
+  public static RelocationCache ofCache(
+      final Collection<Relocation> relocations, final Path folder) {
+    return new RelocationCache(relocations, folder, null);
+  }
+
+  /**
+   * Creates a new relocation cache sharing its outputs with other caches through a store. Outputs
+   * missing from the cache are linked from the store when it has them, and new outputs are
+   * published to it.
+   *
+   * @param relocations the relocations to apply
+   * @param folder the folder relocated JARs are stored in
+   * @param store the store shared with other caches
+   * @return a new RelocationCache
+   */
+  public static RelocationCache ofCache(
+      final Collection<Relocation> relocations, final Path folder, final SharedStore store) {
+    return new RelocationCache(relocations, folder, store);
+  }
+
+  private String createFingerprint(final Collection<Relocation> relocations) {
+    final List<String> lines =
+        relocations.stream()
+            .map(relocation -> relocation.getOriginal() + "=>" + relocation.getRelocation())
+            .sorted()
+            .distinct()
+            .collect(Collectors.toList());
+    final MessageDigest digest = FileUtils.createDigest();
+    for (final String line : lines) {
+      digest.update(line.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) '\n');
+    }
+    return FileUtils.toUppercaseHex(digest.digest()).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Gets the relocated JARs of the installed artifacts, relocating only the ones without a cached
+   * output. If there are no relocations, the pristine JARs are returned as is, and so are JARs
+   * that contain no relocated package and never mention one. Such JARs are remembered with an
+   * empty marker file rather than copied. Outputs of the same JARs left by other relocation sets
+   * are deleted.
+   *
+   * @param entries the manifest entries of the installed artifacts
+   * @return the JARs to load, in the order of the entries
+   * @throws IOException if an issue occurred during relocation
+   */
+  public Collection<Path> relocate(final Collection<ManifestEntry> entries) throws IOException {
+    return this.relocate(entries, LoadListener.empty());
+  }
+
+  /**
+   * Gets the relocated JARs of the installed artifacts, and reports whether each of them was
+   * cached. See {@link #relocate(Collection)}. Exceptions thrown by the listener are logged
+   * instead of failing the relocation, unless it is already guarded with its own logger.
+   *
+   * @param entries the manifest entries of the installed artifacts
+   * @param listener the listener notified of every relocated artifact
+   * @return the JARs to load, in the order of the entries
+   * @throws IOException if an issue occurred during relocation
+   */
+  public Collection<Path> relocate(
+      final Collection<ManifestEntry> entries, final LoadListener listener) throws IOException {
+    return this.relocateEntries(entries, LoadListener.guarded(listener, LOGGER));
+  }
+
+  private Collection<Path> relocateEntries(
+      final Collection<ManifestEntry> entries, final LoadListener listener) throws IOException {
+    if (this.relocations.isEmpty()) {
+      return entries.stream().map(ManifestEntry::getPath).collect(Collectors.toList());
+    }
+    this.createFolder();
+    final List<ManifestEntry> missing = new ArrayList<>();
+    for (final ManifestEntry entry : entries) {
+      final Path output = this.getOutput(entry);
+      if (!this.isOutput(entry.getPath())
+          && Files.notExists(output)
+          && Files.notExists(this.getMarker(output))
+          && !this.linkStored(output)) {
+        missing.add(entry);
+      } else {
+        listener.onRelocated(entry.getCoordinates(), true, 0L);
+      }
+    }
+    if (this.store == null || missing.isEmpty()) {
+      this.relocateMissing(missing, listener);
+    } else {
+      this.relocateLocked(missing, listener);
+    }
+    final List<Path> outputs = new ArrayList<>();
+    for (final ManifestEntry entry : entries) {
+      outputs.add(this.getLoadedPath(entry));
+    }
+    this.pruneOutputs(entries);
+    return outputs;
+  }
+
+  private void pruneOutputs(final Collection<ManifestEntry> entries) throws IOException {
+    final Set<String> bases = new HashSet<>();
+    for (final ManifestEntry entry : entries) {
+      final Path path = entry.getPath();
+      final Path output = this.isOutput(path) ? path : this.getOutput(entry);
+      final Matcher matcher = OUTPUT.matcher(output.getFileName().toString());
+      if (matcher.matches()) {
+        bases.add(matcher.group(1));
+      }
+    }
+    final String key = this.fingerprint.substring(0, KEY_LENGTH);
+    final List<Path> stale;
+    try (final Stream<Path> files = Files.list(this.folder)) {
+      stale =
+          files
+              .filter(
+                  file -> {
+                    final Matcher matcher = OUTPUT.matcher(file.getFileName().toString());
+                    return matcher.matches()
+                        && bases.contains(matcher.group(1))
+                        && !matcher.group(2).equals(key);
+                  })
+              .collect(Collectors.toList());
+    }
+    for (final Path file : stale) {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private Path getLoadedPath(final ManifestEntry entry) {
+    final Path path = entry.getPath();
+    if (this.isOutput(path)) {
+      return path;
+    }
+    final Path output = this.getOutput(entry);
+    return Files.exists(this.getMarker(output)) ? path : output;
+  }
+
+  private void relocateLocked(final List<ManifestEntry> missing, final LoadListener listener)
+      throws IOException {
+    final List<Path> outputs = missing.stream().map(this::getOutput).collect(Collectors.toList());
+    final StoreLock lock = this.store.lockRelocated(outputs);
+    try {
+      final List<ManifestEntry> remaining = new ArrayList<>();
+      for (final ManifestEntry entry : missing) {
+        if (this.linkStored(this.getOutput(entry))) {
+          listener.onRelocated(entry.getCoordinates(), true, 0L);
+        } else {
+          remaining.add(entry);
+        }
+      }
+      this.relocateMissing(remaining, listener);
+    } finally {
+      lock.close();
+    }
+  }
+
+  private void relocateMissing(final List<ManifestEntry> missing, final LoadListener listener)
+      throws IOException {
+    final List<Path> sources =
+        missing.stream().map(ManifestEntry::getPath).collect(Collectors.toList());
+    final FileRelocator relocator = FileRelocator.ofRelocator(this.relocations, sources);
+    try {
+      missing.parallelStream().forEach(entry -> this.relocateEntry(relocator, entry, listener));
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void relocateEntry(
+      final FileRelocator relocator, final ManifestEntry entry, final LoadListener listener) {
+    final Path source = entry.getPath();
+    final Path output = this.getOutput(entry);
+    final long start = System.nanoTime();
+    try {
+      if (relocator.isAffected(source)) {
+        relocator.relocate(source, output);
+      } else {
+        Files.createFile(this.getMarker(output));
+      }
+    } catch (final FileAlreadyExistsException e) {
+      // another load already found the JAR unaffected
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.publishStored(output);
+    listener.onRelocated(entry.getCoordinates(), false, System.nanoTime() - start);
+  }
+
+  private boolean linkStored(final Path output) throws IOException {
+    return this.store != null
+        && (this.store.linkRelocated(output) || this.store.linkRelocated(this.getMarker(output)));
+  }
+
+  private void publishStored(final Path output) {
+    if (this.store == null) {
+      return;
+    }
+    try {
+      this.store.publishRelocated(Files.exists(output) ? output : this.getMarker(output));
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Path getMarker(final Path output) {
+    return output.resolveSibling(String.format("%s.unaffected", output.getFileName()));
+  }
+
+  /**
+   * Gets the cached output of an installed artifact. The file may not exist yet.
+   *
+   * @param entry the manifest entry of the artifact
+   * @return the path of the relocated JAR
+   */
+  public Path getOutput(final ManifestEntry entry) {
+    return this.getOutput(entry.getPath().getFileName().toString(), entry.getChecksum());
+  }
+
+  /**
+   * Gets the cached output of a JAR. The file may not exist yet.
+   *
+   * @param fileName the file name of the pristine JAR
+   * @param checksum the uppercase SHA-1 hash of the pristine JAR
+   * @return the path of the relocated JAR
+   */
+  public Path getOutput(final String fileName, final String checksum) {
+    final String base =
+        fileName.endsWith(".jar") ? fileName.substring(0, fileName.length() - 4) : fileName;
+    final String key = checksum.toLowerCase(Locale.ROOT);
+    return this.folder.resolve(
+        String.format(
+            "%s-%s%s", base, key.substring(0, Math.min(KEY_LENGTH, key.length())), this.suffix));
+  }
+
+  /**
+   * Checks whether an installed artifact can still be loaded with the current relocations. Pristine
+   * JARs always can, while JARs that were relocated as they were downloaded have no pristine copy,
+   * and are only usable if they were relocated with the same relocations.
+   *
+   * @param entry the manifest entry of the artifact
+   * @return whether the artifact can be loaded
+   */
+  public boolean isUsable(final ManifestEntry entry) {
+    final Path path = entry.getPath();
+    if (!this.folder.equals(path.getParent())) {
+      return true;
+    }
+    return !this.relocations.isEmpty() && this.isOutput(path);
+  }
+
+  private boolean isOutput(final Path path) {
+    return this.folder.equals(path.getParent())
+        && path.getFileName().toString().endsWith(this.suffix);
+  }
+
+  private void createFolder() throws IOException {
+    if (Files.notExists(this.folder)) {
+      Files.createDirectories(this.folder);
+    }
+  }
+
+  public Collection<Relocation> getRelocations() {
+    return this.relocations;
+  }
+
+  public Path getFolder() {
+    return this.folder;
+  }
+
+  public String getFingerprint() {
+    return this.fingerprint;
+  }
+
+  public SharedStore getStore() {
+    return this.store;
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import java.util.Arrays;
+
+/**
+ * Character trie of package prefixes. A value is matched in a single pass over its characters, so
+ * the cost of a lookup depends on the length of the value rather than on the number of prefixes.
+ * The longest prefix ending at a separator or at the end of the value wins.
+ */
+final class RelocationTrie {
+
+  private final Node root;
+  private final char separator;
+
+  RelocationTrie(final char separator) {
+    this.root = new Node();
+    this.separator = separator;
+  }
+
+  /**
+   * Adds a prefix to the trie. A prefix added twice keeps its first replacement.
+   *
+   * @param prefix the original prefix
+   * @param replacement the prefix it is replaced with
+   */
+  void add(final String prefix, final String replacement) {
+    Node node = this.root;
+    for (int i = 0; i < prefix.length(); i++) {
+      node = node.getOrCreate(prefix.charAt(i));
+    }
+    if (node.replacement == null) {
+      node.replacement = replacement;
+    }
+  }
+
+  /**
+   * Relocates a value.
+   *
+   * @param value the value
+   * @return the relocated value, or null if no prefix matches
+   */
+  String relocate(final String value) {
+    Node node = this.root;
+    String replacement = null;
+    int length = 0;
+    for (int i = 0; i < value.length(); i++) {
+      node = node.get(value.charAt(i));
+      if (node == null) {
+        break;
+      }
+      if (node.replacement != null
+          && (i + 1 == value.length() || value.charAt(i + 1) == this.separator)) {
+        replacement = node.replacement;
+        length = i + 1;
+      }
+    }
+    return replacement == null ? null : replacement + value.substring(length);
+  }
+
+  private static final class Node {
+
+    private char[] keys;
+    private Node[] children;
+    private String replacement;
+
+    Node() {
+      this.keys = new char[0];
+      this.children = new Node[0];
+    }
+
+    Node get(final char key) {
+      final int index = Arrays.binarySearch(this.keys, key);
+      return index < 0 ? null : this.children[index];
+    }
+
+    Node getOrCreate(final char key) {
+      final int index = Arrays.binarySearch(this.keys, key);
+      if (index >= 0) {
+        return this.children[index];
+      }
+      final int insert = -index - 1;
+      final Node child = new Node();
+      final char[] keys = new char[this.keys.length + 1];
+      final Node[] children = new Node[this.children.length + 1];
+      System.arraycopy(this.keys, 0, keys, 0, insert);
+      System.arraycopy(this.children, 0, children, 0, insert);
+      keys[insert] = key;
+      children[insert] = child;
+      System.arraycopy(this.keys, insert, keys, insert + 1, this.keys.length - insert);
+      System.arraycopy(this.children, insert, children, insert + 1, this.children.length - insert);
+      this.keys = keys;
+      this.children = children;
+      return child;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.RawEntry;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.RawZipWriter;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Relocates a JAR while it is being read, entry by entry, so that a downloaded JAR can be written
+ * to the disk only once, already relocated. Outputs are named like the ones of the {@link
+ * RelocationCache} they belong to.
+ */
+public final class StreamingRelocator {
+
+  private final RelocationCache cache;
+  private final EntryRelocator relocator;
+
+  StreamingRelocator(final RelocationCache cache) {
+    this.cache = cache;
+    this.relocator = new EntryRelocator(cache.getRelocations());
+  }
+
+  /**
+   * Creates a new streaming relocator.
+   *
+   * @param cache the cache the relocated JARs are stored in
+   * @return a new StreamingRelocator
+   */
+  public static StreamingRelocator ofRelocator(final RelocationCache cache) {
+    return new StreamingRelocator(cache);
+  }
+
+  /**
+   * Relocates the JAR read from the input into the output. The input is read until its end, so
+   * that a digest computed over it covers the whole JAR.
+   *
+   * @param in the original JAR
+   * @param out the relocated JAR
+   * @return the uppercase SHA-1 hash of the relocated JAR
+   * @throws IOException if an issue occurred during relocation
+   */
+  public String relocate(final InputStream in, final OutputStream out) throws IOException {
+    final MessageDigest digest = FileUtils.createDigest();
+    final ZipInputStream zip = new ZipInputStream(in);
+    final RawZipWriter output = RawZipWriter.ofWriter(new DigestOutputStream(out, digest));
+    final OrderedEntryWriter writer = new OrderedEntryWriter(output, ForkJoinPool.commonPool());
+    try {
+      ZipEntry entry;
+      while ((entry = zip.getNextEntry()) != null) {
+        if (this.relocator.isSignature(entry.getName())) {
+          continue;
+        }
+        final String name = this.relocator.getName(entry.getName());
+        writer.submit(name, this.getEntry(zip, entry, name));
+      }
+      writer.finish();
+    } finally {
+      writer.cancel();
+    }
+    this.drain(in);
+    return FileUtils.toUppercaseHex(digest.digest());
+  }
+
+  private Callable<RawEntry> getEntry(
+      final InputStream in, final ZipEntry entry, final String name) throws IOException {
+    final int time = RawEntry.toDosTime(entry.getTime());
+    if (entry.isDirectory()) {
+      return () -> RawEntry.ofDirectory(name, time);
+    }
+    final byte[] content = this.readEntry(in);
+    return () -> RawEntry.ofContent(name, time, this.relocator.getContent(name, content));
+  }
+
+  private byte[] readEntry(final InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+  private void drain(final InputStream in) throws IOException {
+    final byte[] buffer = new byte[8192];
+    while (in.read(buffer) != -1) {
+      // the central directory is not needed, but must be hashed
+    }
+  }
+
+  /**
+   * Gets the path a relocated JAR is stored at, once the hash of its original is known.
+   *
+   * @param fileName the file name of the original JAR
+   * @param checksum the uppercase SHA-1 hash of the original JAR
+   * @return the path of the relocated JAR
+   */
+  public Path getOutput(final String fileName, final String checksum) {
+    return this.cache.getOutput(fileName, checksum);
+  }
+
+  public RelocationCache getCache() {
+    return this.cache;
+  }
+}
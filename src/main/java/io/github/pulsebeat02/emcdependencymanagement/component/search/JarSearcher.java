@@ -24,34 +24,33 @@
 package io.github.pulsebeat02.emcdependencymanagement.component.search;
 
 import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.manifest.InstallManifest;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Stream;
 
-/** Searches for JARs which need to be loaded based on the file name. */
+/** Searches for JARs which need to be loaded based on the install manifest. */
 public final class JarSearcher {
 
   private final Collection<Artifact> artifacts;
-  private final Path folder;
+  private final InstallManifest manifest;
 
-  JarSearcher(final Collection<Artifact> artifacts, final Path folder) {
+  JarSearcher(final Collection<Artifact> artifacts, final InstallManifest manifest) {
     this.artifacts = artifacts;
-    this.folder = folder;
+    this.manifest = manifest;
   }
 
   /**
    * Creates a new JAR searcher.
    *
    * @param artifacts the artifacts needed to be loaded
-   * @param folder the search path
+   * @param manifest the loaded install manifest of the library folder
    * @return a new JAR searcher
    */
-  public static JarSearcher ofSearcher(final Collection<Artifact> artifacts, final Path folder) {
-    return new JarSearcher(artifacts, folder);
+  public static JarSearcher ofSearcher(
+      final Collection<Artifact> artifacts, final InstallManifest manifest) {
+    return new JarSearcher(artifacts, manifest);
   }
 
   /**
@@ -64,24 +63,10 @@ public final class JarSearcher {
   public Collection<Artifact> getNeededInstallation() throws IOException {
     final List<Artifact> needed = new ArrayList<>();
     for (final Artifact artifact : this.artifacts) {
-      this.handleArtifact(needed, artifact);
-    }
-    return needed;
-  }
-
-  private void handleArtifact(final List<Artifact> needed, final Artifact artifact)
-      throws IOException {
-    try (final Stream<Path> stream = Files.walk(this.folder).parallel()) {
-      final boolean present =
-          stream.filter(Files::isRegularFile).anyMatch(path -> this.matchFile(artifact, path));
-      if (!present) {
+      if (!this.manifest.isInstalled(artifact)) {
         needed.add(artifact);
       }
     }
-  }
-
-  private boolean matchFile(final Artifact artifact, final Path file) {
-    final String name = file.getFileName().toString();
-    return name.contains(artifact.getArtifact()) && name.contains(artifact.getVersion());
+    return needed;
   }
 }
@@ -0,0 +1,260 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.store;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Content-addressed store of JARs shared by every library folder of a host. Pristine JARs are
+ * stored once under their checksum, with a reference from the coordinates of their artifact, and
+ * relocated JARs are stored under their cache file name, which already identifies both their
+ * source and their relocations. Library folders link to the stored JARs instead of downloading
+ * or relocating them again.
+ *
+ * <p>Processes coordinate through file locks on the artifacts they install, so that concurrent
+ * loads on a host download every artifact once: a load waiting on a lock finds the artifact in the
+ * store once the lock is released.
+ */
+public final class SharedStore {
+
+  private static final long LOCK_POLL_MILLIS;
+
+  static {
+    LOCK_POLL_MILLIS = 50L;
+  }
+
+  private final Path folder;
+  private final Path blobs;
+  private final Path refs;
+  private final Path relocated;
+  private final Path locks;
+
+  SharedStore(final Path folder) {
+    this.folder = folder;
+    this.blobs = folder.resolve("blobs");
+    this.refs = folder.resolve("refs");
+    this.relocated = folder.resolve("relocated");
+    this.locks = folder.resolve("locks");
+  }
+
+  /**
+   * Creates a new shared store. The folder is created when first written to.
+   *
+   * @param folder the folder of the store, shared by every library folder of the host
+   * @return a new SharedStore
+   */
+  public static SharedStore ofStore(final Path folder) {
+    return new SharedStore(folder);
+  }
+
+  /**
+   * Locks the artifacts against other processes using the store, waiting for the locks held by
+   * others. Artifacts are locked in the order of their coordinates, so that two processes locking
+   * overlapping artifacts never deadlock.
+   *
+   * @param artifacts the artifacts
+   * @return the held locks, to be closed once the artifacts were installed and published
+   * @throws IOException if an issue occurred while locking
+   */
+  public StoreLock lock(final Collection<Artifact> artifacts) throws IOException {
+    final TreeSet<String> names = new TreeSet<>();
+    for (final Artifact artifact : artifacts) {
+      names.add(artifact.getCoordinates());
+    }
+    return this.lock(names);
+  }
+
+  /**
+   * Locks relocated JARs against other processes using the store, waiting for the locks held by
+   * others. See {@link #lock(Collection)}.
+   *
+   * @param outputs the paths of the relocated JARs in a relocation cache
+   * @return the held locks, to be closed once the JARs were relocated and published
+   * @throws IOException if an issue occurred while locking
+   */
+  public StoreLock lockRelocated(final Collection<Path> outputs) throws IOException {
+    final TreeSet<String> names = new TreeSet<>();
+    for (final Path output : outputs) {
+      names.add(output.getFileName().toString());
+    }
+    return this.lock(names);
+  }
+
+  private StoreLock lock(final TreeSet<String> names) throws IOException {
+    final List<FileChannel> channels = new ArrayList<>();
+    final StoreLock lock = new StoreLock(channels);
+    try {
+      if (!names.isEmpty()) {
+        Files.createDirectories(this.locks);
+      }
+      for (final String name : names) {
+        final FileChannel channel =
+            FileChannel.open(
+                this.locks.resolve(String.format("%s.lock", this.getKey(name))),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        channels.add(channel);
+        this.acquire(channel);
+      }
+      return lock;
+    } catch (final IOException | RuntimeException e) {
+      lock.close();
+      throw e;
+    }
+  }
+
+  private FileLock acquire(final FileChannel channel) throws IOException {
+    while (true) {
+      try {
+        return channel.lock();
+      } catch (final OverlappingFileLockException e) {
+        // another load of this JVM holds the lock, which the file lock cannot wait on
+        this.sleep();
+      }
+    }
+  }
+
+  private void sleep() throws InterruptedIOException {
+    try {
+      Thread.sleep(LOCK_POLL_MILLIS);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a store lock!");
+    }
+  }
+
+  private String getKey(final String name) {
+    return FileUtils.toUppercaseHex(
+            FileUtils.createDigest().digest(name.getBytes(StandardCharsets.UTF_8)))
+        .toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Links the stored JAR of an artifact into a library folder, if the store has it.
+   *
+   * @param artifact the artifact
+   * @param target the path the JAR is installed at
+   * @return the uppercase SHA-1 hash of the JAR, or empty if the store does not have it
+   * @throws IOException if an issue occurred while linking
+   */
+  public Optional<String> link(final Artifact artifact, final Path target) throws IOException {
+    final Path ref = this.getRef(artifact);
+    if (Files.notExists(ref)) {
+      return Optional.empty();
+    }
+    final String checksum = new String(Files.readAllBytes(ref), StandardCharsets.UTF_8).trim();
+    final Path blob = this.getBlob(checksum);
+    if (checksum.isEmpty() || Files.notExists(blob)) {
+      return Optional.empty();
+    }
+    Files.createDirectories(target.getParent());
+    FileUtils.linkAtomically(blob, target);
+    return Optional.of(checksum);
+  }
+
+  /**
+   * Publishes the installed JAR of an artifact, so that other library folders can link to it.
+   *
+   * @param artifact the artifact
+   * @param file the installed JAR
+   * @param checksum the uppercase SHA-1 hash of the JAR
+   * @throws IOException if an issue occurred while publishing
+   */
+  public void publish(final Artifact artifact, final Path file, final String checksum)
+      throws IOException {
+    final Path blob = this.getBlob(checksum);
+    if (Files.notExists(blob)) {
+      Files.createDirectories(blob.getParent());
+      FileUtils.linkAtomically(file, blob);
+    }
+    final Path ref = this.getRef(artifact);
+    Files.createDirectories(ref.getParent());
+    final Path temp = ref.resolveSibling(String.format("%s.tmp", ref.getFileName()));
+    Files.write(temp, checksum.getBytes(StandardCharsets.UTF_8));
+    FileUtils.moveAtomically(temp, ref);
+  }
+
+  /**
+   * Links a stored relocated JAR into a relocation cache, if the store has it. Markers of JARs left
+   * unaffected by their relocations are linked the same way.
+   *
+   * @param output the path of the relocated JAR or marker in the relocation cache
+   * @return whether the store had the JAR
+   * @throws IOException if an issue occurred while linking
+   */
+  public boolean linkRelocated(final Path output) throws IOException {
+    final Path stored = this.relocated.resolve(output.getFileName().toString());
+    if (Files.notExists(stored)) {
+      return false;
+    }
+    FileUtils.linkAtomically(stored, output);
+    return true;
+  }
+
+  /**
+   * Publishes a relocated JAR, so that other relocation caches can link to it. Relocated JARs are
+   * named after their source and relocations, so publishing the same name twice is harmless.
+   *
+   * @param output the relocated JAR or marker in the relocation cache
+   * @throws IOException if an issue occurred while publishing
+   */
+  public void publishRelocated(final Path output) throws IOException {
+    final Path stored = this.relocated.resolve(output.getFileName().toString());
+    if (Files.notExists(stored)) {
+      Files.createDirectories(this.relocated);
+      FileUtils.linkAtomically(output, stored);
+    }
+  }
+
+  private Path getRef(final Artifact artifact) {
+    return this.refs.resolve(artifact.getRepositoryPath("sha1"));
+  }
+
+  private Path getBlob(final String checksum) {
+    final String key = checksum.toLowerCase(Locale.ROOT);
+    return this.blobs
+        .resolve(key.substring(0, Math.min(2, key.length())))
+        .resolve(String.format("%s.jar", key));
+  }
+
+  public Path getFolder() {
+    return this.folder;
+  }
+}
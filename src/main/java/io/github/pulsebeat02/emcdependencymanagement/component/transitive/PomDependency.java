@@ -0,0 +1,127 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Class used to hold a dependency declared in a POM. */
+public final class PomDependency {
+
+  private final String group;
+  private final String artifact;
+  private final String version;
+  private final String type;
+  private final String classifier;
+  private final String scope;
+  private final boolean optional;
+  private final Set<String> exclusions;
+
+  PomDependency(
+      final String group,
+      final String artifact,
+      final String version,
+      final String type,
+      final String classifier,
+      final String scope,
+      final boolean optional,
+      final Collection<String> exclusions) {
+    this.group = group;
+    this.artifact = artifact;
+    this.version = version;
+    this.type = type;
+    this.classifier = classifier;
+    this.scope = scope;
+    this.optional = optional;
+    this.exclusions = new HashSet<>(exclusions);
+  }
+
+  /**
+   * Creates a new POM dependency. Missing elements are passed as null.
+   *
+   * @param group the group id
+   * @param artifact the artifact id
+   * @param version the version, or null if managed
+   * @param type the type, or null for a JAR
+   * @param classifier the classifier, or null
+   * @param scope the scope, or null if managed
+   * @param optional whether the dependency is optional
+   * @param exclusions the excluded dependencies, as group:artifact keys
+   * @return a new PomDependency
+   */
+  public static PomDependency ofDependency(
+      final String group,
+      final String artifact,
+      final String version,
+      final String type,
+      final String classifier,
+      final String scope,
+      final boolean optional,
+      final Collection<String> exclusions) {
+    return new PomDependency(
+        group, artifact, version, type, classifier, scope, optional, exclusions);
+  }
+
+  /**
+   * Gets the group:artifact key identifying the dependency regardless of its version.
+   *
+   * @return the key
+   */
+  public String getKey() {
+    return String.format("%s:%s", this.group, this.artifact);
+  }
+
+  public String getGroup() {
+    return this.group;
+  }
+
+  public String getArtifact() {
+    return this.artifact;
+  }
+
+  public String getVersion() {
+    return this.version;
+  }
+
+  public String getType() {
+    return this.type;
+  }
+
+  public String getClassifier() {
+    return this.classifier;
+  }
+
+  public String getScope() {
+    return this.scope;
+  }
+
+  public boolean isOptional() {
+    return this.optional;
+  }
+
+  public Set<String> getExclusions() {
+    return this.exclusions;
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/** Class used to hold the parts of a POM needed to resolve dependencies. */
+public final class PomModel {
+
+  private final String group;
+  private final String artifact;
+  private final String version;
+  private final PomDependency parent;
+  private final Map<String, String> properties;
+  private final List<PomDependency> management;
+  private final List<PomDependency> dependencies;
+
+  PomModel(
+      final String group,
+      final String artifact,
+      final String version,
+      final PomDependency parent,
+      final Map<String, String> properties,
+      final List<PomDependency> management,
+      final List<PomDependency> dependencies) {
+    this.group = group;
+    this.artifact = artifact;
+    this.version = version;
+    this.parent = parent;
+    this.properties = properties;
+    this.management = management;
+    this.dependencies = dependencies;
+  }
+
+  /**
+   * Creates a new POM model. The group id and version may be null if they are inherited from the
+   * parent.
+   *
+   * @param group the group id
+   * @param artifact the artifact id
+   * @param version the version
+   * @param parent the parent POM, or null
+   * @param properties the declared properties
+   * @param management the entries of the dependencyManagement section
+   * @param dependencies the entries of the dependencies section
+   * @return a new PomModel
+   */
+  public static PomModel ofModel(
+      final String group,
+      final String artifact,
+      final String version,
+      final PomDependency parent,
+      final Map<String, String> properties,
+      final List<PomDependency> management,
+      final List<PomDependency> dependencies) {
+    return new PomModel(
+        group, artifact, version, parent, properties, management, dependencies);
+  }
+
+  public String getGroup() {
+    return this.group;
+  }
+
+  public String getArtifact() {
+    return this.artifact;
+  }
+
+  public String getVersion() {
+    return this.version;
+  }
+
+  public Optional<PomDependency> getParent() {
+    return Optional.ofNullable(this.parent);
+  }
+
+  public Map<String, String> getProperties() {
+    return this.properties;
+  }
+
+  public List<PomDependency> getManagement() {
+    return this.management;
+  }
+
+  public List<PomDependency> getDependencies() {
+    return this.dependencies;
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/** Parses the parts of a POM file needed to resolve dependencies. */
+public final class PomParser {
+
+  private static final DocumentBuilderFactory FACTORY;
+
+  static {
+    FACTORY = DocumentBuilderFactory.newInstance();
+    FACTORY.setNamespaceAware(false);
+    FACTORY.setExpandEntityReferences(false);
+    try {
+      FACTORY.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      FACTORY.setFeature("http://xml.org/sax/features/external-general-entities", false);
+      FACTORY.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+    } catch (final ParserConfigurationException ignored) {
+    }
+  }
+
+  private PomParser() {}
+
+  /**
+   * Parses a POM file.
+   *
+   * @param file the POM file
+   * @return the parsed model
+   * @throws IOException if the file could not be read or is not a valid POM
+   */
+  public static PomModel parse(final Path file) throws IOException {
+    try (final InputStream in = Files.newInputStream(file)) {
+      final DocumentBuilder builder = FACTORY.newDocumentBuilder();
+      return parseProject(builder.parse(in).getDocumentElement());
+    } catch (final ParserConfigurationException | SAXException e) {
+      throw new IOException(String.format("Failed to parse POM %s!", file), e);
+    }
+  }
+
+  private static PomModel parseProject(final Element project) throws IOException {
+    if (!"project".equals(project.getTagName())) {
+      throw new IOException("POM root element is not a project!");
+    }
+    final Element parent = getChild(project, "parent");
+    final Element management = getChild(project, "dependencyManagement");
+    return PomModel.ofModel(
+        getChildText(project, "groupId"),
+        getChildText(project, "artifactId"),
+        getChildText(project, "version"),
+        parent == null ? null : parseDependency(parent),
+        parseProperties(getChild(project, "properties")),
+        management == null
+            ? Collections.emptyList()
+            : parseDependencies(getChild(management, "dependencies")),
+        parseDependencies(getChild(project, "dependencies")));
+  }
+
+  private static Map<String, String> parseProperties(final Element properties) {
+    final Map<String, String> map = new HashMap<>();
+    for (final Element property : getChildren(properties)) {
+      map.put(property.getTagName(), property.getTextContent().trim());
+    }
+    return map;
+  }
+
+  private static List<PomDependency> parseDependencies(final Element dependencies) {
+    final List<PomDependency> list = new ArrayList<>();
+    for (final Element dependency : getChildren(dependencies)) {
+      if ("dependency".equals(dependency.getTagName())) {
+        list.add(parseDependency(dependency));
+      }
+    }
+    return list;
+  }
+
+  private static PomDependency parseDependency(final Element dependency) {
+    final List<String> exclusions = new ArrayList<>();
+    for (final Element exclusion : getChildren(getChild(dependency, "exclusions"))) {
+      exclusions.add(
+          String.format(
+              "%s:%s", getChildText(exclusion, "groupId"), getChildText(exclusion, "artifactId")));
+    }
+    return PomDependency.ofDependency(
+        getChildText(dependency, "groupId"),
+        getChildText(dependency, "artifactId"),
+        getChildText(dependency, "version"),
+        getChildText(dependency, "type"),
+        getChildText(dependency, "classifier"),
+        getChildText(dependency, "scope"),
+        "true".equals(getChildText(dependency, "optional")),
+        exclusions);
+  }
+
+  private static List<Element> getChildren(final Element element) {
+    final List<Element> children = new ArrayList<>();
+    if (element == null) {
+      return children;
+    }
+    final NodeList nodes = element.getChildNodes();
+    for (int i = 0; i < nodes.getLength(); i++) {
+      final Node node = nodes.item(i);
+      if (node.getNodeType() == Node.ELEMENT_NODE) {
+        children.add((Element) node);
+      }
+    }
+    return children;
+  }
+
+  private static Element getChild(final Element element, final String name) {
+    for (final Element child : getChildren(element)) {
+      if (name.equals(child.getTagName())) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  private static String getChildText(final Element element, final String name) {
+    final Element child = getChild(element, name);
+    if (child == null) {
+      return null;
+    }
+    final String text = child.getTextContent().trim();
+    return text.isEmpty() ? null : text;
+  }
+}
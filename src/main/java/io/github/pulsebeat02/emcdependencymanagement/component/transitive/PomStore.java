@@ -0,0 +1,536 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.DownloadEngine;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.LocalRepository;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RepositoryResolver;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RetryPolicy;
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import io.github.pulsebeat02.emcdependencymanagement.util.FileUtils;
+import io.github.pulsebeat02.emcdependencymanagement.util.HttpUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fetches, caches, and evaluates POMs. Downloaded POMs are kept on the disk in the layout of a
+ * Maven repository, so later resolutions need no network, and every model is only built once per
+ * store even when many artifacts share it.
+ */
+public final class PomStore {
+
+  private static final int TIMEOUT_MILLIS;
+  private static final int MAX_DEPTH;
+  private static final Pattern PROPERTY;
+  private static final Set<String> RUNTIME_SCOPES;
+  private static final Set<String> JAR_TYPES;
+
+  static {
+    TIMEOUT_MILLIS = 30_000;
+    MAX_DEPTH = 16;
+    PROPERTY = Pattern.compile("\\$\\{([^}]+)}");
+    RUNTIME_SCOPES = new HashSet<>(Arrays.asList("compile", "runtime"));
+    JAR_TYPES = new HashSet<>(Arrays.asList("jar", "bundle"));
+  }
+
+  private final LoggerConfiguration logger;
+  private final RepositoryResolver resolver;
+  private final DownloadEngine engine;
+  private final Path folder;
+  private final Map<Artifact, CompletableFuture<Optional<PomModel>>> models;
+  private final Map<Artifact, CompletableFuture<Optional<PomModel>>> inherited;
+  private final Map<Artifact, CompletableFuture<List<PomDependency>>> dependencies;
+  private final AtomicBoolean complete;
+
+  PomStore(
+      final LoggerConfiguration logger,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final Path folder) {
+    this.logger = logger;
+    this.resolver = resolver;
+    this.engine = engine;
+    this.folder = folder;
+    this.models = new ConcurrentHashMap<>();
+    this.inherited = new ConcurrentHashMap<>();
+    this.dependencies = new ConcurrentHashMap<>();
+    this.complete = new AtomicBoolean(true);
+  }
+
+  /**
+   * Creates a new POM store.
+   *
+   * @param logger the logger to use
+   * @param resolver the resolver used to find POMs which are not cached yet
+   * @param engine the engine used to download POMs
+   * @param folder the folder POMs are cached in
+   * @return a new PomStore
+   */
+  public static PomStore ofStore(
+      final LoggerConfiguration logger,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final Path folder) {
+    return new PomStore(logger, resolver, engine, folder);
+  }
+
+  /**
+   * Gets the dependencies an artifact needs at runtime, as declared by its POM and inherited from
+   * its parents. Versions and scopes are taken from dependency management where missing, and
+   * test, provided, system, optional, classified, and non-JAR dependencies are left out.
+   *
+   * @param artifact the artifact
+   * @return a future completed with the dependencies, or an empty list if there is no POM
+   */
+  public CompletableFuture<List<PomDependency>> getDependencies(final Artifact artifact) {
+    return this.memoize(this.dependencies, artifact, () -> this.loadDependencies(artifact));
+  }
+
+  private CompletableFuture<List<PomDependency>> loadDependencies(final Artifact artifact) {
+    return this.getEffectiveModel(artifact, 0)
+        .thenApply(
+            model ->
+                model.map(this::getRuntimeDependencies).orElse(Collections.emptyList()));
+  }
+
+  private CompletableFuture<Optional<PomModel>> getEffectiveModel(
+      final Artifact artifact, final int depth) {
+    return this.getInheritedModel(artifact, depth)
+        .thenCompose(
+            model ->
+                model.isPresent()
+                    ? this.importManagement(this.interpolate(model.get()), depth)
+                        .thenApply(Optional::of)
+                    : CompletableFuture.completedFuture(Optional.empty()));
+  }
+
+  private CompletableFuture<Optional<PomModel>> getInheritedModel(
+      final Artifact artifact, final int depth) {
+    return this.memoize(this.inherited, artifact, () -> this.loadInheritedModel(artifact, depth));
+  }
+
+  private CompletableFuture<Optional<PomModel>> loadInheritedModel(
+      final Artifact artifact, final int depth) {
+    return this.getModel(artifact)
+        .thenCompose(
+            model -> {
+              final Optional<Artifact> parent =
+                  model.flatMap(PomModel::getParent).flatMap(this::toArtifact);
+              if (!parent.isPresent() || depth >= MAX_DEPTH) {
+                return CompletableFuture.completedFuture(model);
+              }
+              return this.getInheritedModel(parent.get(), depth + 1)
+                  .thenApply(
+                      inherited ->
+                          Optional.of(
+                              inherited
+                                  .map(value -> this.inherit(value, model.get()))
+                                  .orElse(model.get())));
+            });
+  }
+
+  private PomModel inherit(final PomModel parent, final PomModel child) {
+    final Map<String, String> properties = new HashMap<>(parent.getProperties());
+    properties.putAll(child.getProperties());
+    final List<PomDependency> management = new ArrayList<>(child.getManagement());
+    management.addAll(parent.getManagement());
+    final List<PomDependency> dependencies = new ArrayList<>(child.getDependencies());
+    final Set<String> declared = new HashSet<>();
+    child.getDependencies().forEach(dependency -> declared.add(dependency.getKey()));
+    for (final PomDependency dependency : parent.getDependencies()) {
+      if (!declared.contains(dependency.getKey())) {
+        dependencies.add(dependency);
+      }
+    }
+    return PomModel.ofModel(
+        child.getGroup() == null ? parent.getGroup() : child.getGroup(),
+        child.getArtifact(),
+        child.getVersion() == null ? parent.getVersion() : child.getVersion(),
+        child.getParent().orElse(null),
+        properties,
+        management,
+        dependencies);
+  }
+
+  private CompletableFuture<PomModel> importManagement(final PomModel model, final int depth) {
+    final List<CompletableFuture<List<PomDependency>>> imports = new ArrayList<>();
+    final List<PomDependency> management = new ArrayList<>();
+    for (final PomDependency entry : model.getManagement()) {
+      if (!"import".equals(entry.getScope())) {
+        management.add(entry);
+        continue;
+      }
+      final Optional<Artifact> bom = this.toArtifact(entry);
+      if (bom.isPresent() && depth < MAX_DEPTH) {
+        imports.add(
+            this.getEffectiveModel(bom.get(), depth + 1)
+                .thenApply(
+                    imported ->
+                        imported.map(PomModel::getManagement).orElse(Collections.emptyList())));
+      }
+    }
+    if (imports.isEmpty()) {
+      return CompletableFuture.completedFuture(model);
+    }
+    return CompletableFuture.allOf(imports.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            ignored -> {
+              imports.forEach(future -> management.addAll(future.join()));
+              return PomModel.ofModel(
+                  model.getGroup(),
+                  model.getArtifact(),
+                  model.getVersion(),
+                  model.getParent().orElse(null),
+                  model.getProperties(),
+                  management,
+                  model.getDependencies());
+            });
+  }
+
+  private List<PomDependency> getRuntimeDependencies(final PomModel model) {
+    final Map<String, PomDependency> managed = new HashMap<>();
+    for (final PomDependency entry : model.getManagement()) {
+      managed.putIfAbsent(entry.getKey(), entry);
+    }
+    final List<PomDependency> runtime = new ArrayList<>();
+    for (final PomDependency dependency : model.getDependencies()) {
+      this.toRuntimeDependency(model, dependency, managed.get(dependency.getKey()))
+          .ifPresent(runtime::add);
+    }
+    return runtime;
+  }
+
+  private Optional<PomDependency> toRuntimeDependency(
+      final PomModel model, final PomDependency dependency, final PomDependency managed) {
+    final String scope =
+        this.getOrManaged(dependency.getScope(), managed == null ? null : managed.getScope());
+    final String type = dependency.getType() == null ? "jar" : dependency.getType();
+    if (dependency.isOptional()
+        || dependency.getClassifier() != null
+        || !RUNTIME_SCOPES.contains(scope == null ? "compile" : scope)
+        || !JAR_TYPES.contains(type)) {
+      return Optional.empty();
+    }
+    final String version =
+        this.normalizeVersion(
+            this.getOrManaged(
+                dependency.getVersion(), managed == null ? null : managed.getVersion()));
+    if (version == null || dependency.getGroup() == null || version.contains("${")) {
+      this.logger.warning(
+          String.format(
+              "Could not determine the version of %s required by %s:%s! Skipping it!",
+              dependency.getKey(), model.getGroup(), model.getArtifact()));
+      return Optional.empty();
+    }
+    final Set<String> exclusions = new HashSet<>(dependency.getExclusions());
+    if (managed != null) {
+      exclusions.addAll(managed.getExclusions());
+    }
+    return Optional.of(
+        PomDependency.ofDependency(
+            dependency.getGroup(),
+            dependency.getArtifact(),
+            version,
+            type,
+            null,
+            scope == null ? "compile" : scope,
+            false,
+            exclusions));
+  }
+
+  private String getOrManaged(final String value, final String managed) {
+    return value == null ? managed : value;
+  }
+
+  private String normalizeVersion(final String version) {
+    if (version == null || !(version.startsWith("[") || version.startsWith("("))) {
+      return version;
+    }
+    final String[] bounds = version.substring(1, version.length() - 1).split(",", -1);
+    if (version.startsWith("[") && !bounds[0].trim().isEmpty()) {
+      return bounds[0].trim();
+    }
+    if (bounds.length > 1 && version.endsWith("]") && !bounds[1].trim().isEmpty()) {
+      return bounds[1].trim();
+    }
+    return null;
+  }
+
+  private PomModel interpolate(final PomModel model) {
+    final Map<String, String> properties = new HashMap<>(model.getProperties());
+    this.putBuiltIn(properties, "groupId", model.getGroup());
+    this.putBuiltIn(properties, "artifactId", model.getArtifact());
+    this.putBuiltIn(properties, "version", model.getVersion());
+    model
+        .getParent()
+        .ifPresent(
+            parent -> {
+              this.putBuiltIn(properties, "parent.groupId", parent.getGroup());
+              this.putBuiltIn(properties, "parent.version", parent.getVersion());
+            });
+    return PomModel.ofModel(
+        model.getGroup(),
+        model.getArtifact(),
+        model.getVersion(),
+        model.getParent().orElse(null),
+        model.getProperties(),
+        this.interpolate(model.getManagement(), properties),
+        this.interpolate(model.getDependencies(), properties));
+  }
+
+  private void putBuiltIn(
+      final Map<String, String> properties, final String key, final String value) {
+    if (value != null) {
+      properties.put(key, value);
+      properties.put(String.format("project.%s", key), value);
+      properties.put(String.format("pom.%s", key), value);
+    }
+  }
+
+  private List<PomDependency> interpolate(
+      final List<PomDependency> dependencies, final Map<String, String> properties) {
+    final List<PomDependency> interpolated = new ArrayList<>();
+    for (final PomDependency dependency : dependencies) {
+      interpolated.add(
+          PomDependency.ofDependency(
+              this.interpolate(dependency.getGroup(), properties),
+              this.interpolate(dependency.getArtifact(), properties),
+              this.interpolate(dependency.getVersion(), properties),
+              this.interpolate(dependency.getType(), properties),
+              this.interpolate(dependency.getClassifier(), properties),
+              this.interpolate(dependency.getScope(), properties),
+              dependency.isOptional(),
+              dependency.getExclusions()));
+    }
+    return interpolated;
+  }
+
+  private String interpolate(final String value, final Map<String, String> properties) {
+    if (value == null) {
+      return null;
+    }
+    String current = value;
+    for (int i = 0; i < MAX_DEPTH && current.contains("${"); i++) {
+      final Matcher matcher = PROPERTY.matcher(current);
+      final StringBuffer buffer = new StringBuffer();
+      boolean replaced = false;
+      while (matcher.find()) {
+        final String property = properties.get(matcher.group(1));
+        replaced |= property != null;
+        matcher.appendReplacement(
+            buffer, Matcher.quoteReplacement(property == null ? matcher.group() : property));
+      }
+      matcher.appendTail(buffer);
+      current = buffer.toString();
+      if (!replaced) {
+        break;
+      }
+    }
+    return current;
+  }
+
+  private CompletableFuture<Optional<PomModel>> getModel(final Artifact artifact) {
+    return this.memoize(this.models, artifact, () -> this.loadModel(artifact));
+  }
+
+  private CompletableFuture<Optional<PomModel>> loadModel(final Artifact artifact) {
+    final Path file = this.folder.resolve(artifact.getRepositoryPath("pom"));
+    if (Files.exists(file)) {
+      return CompletableFuture.completedFuture(this.parse(artifact, file));
+    }
+    final LocalRepository local = this.resolver.getLocalRepository();
+    final Optional<Path> pom = local == null ? Optional.empty() : local.getFile(artifact, "pom");
+    if (pom.isPresent() && this.copy(pom.get(), file)) {
+      return CompletableFuture.completedFuture(this.parse(artifact, file));
+    }
+    return this.resolver
+        .resolveAsync(artifact, artifact.getRepositoryPath("pom"))
+        .thenCompose(
+            url ->
+                url.isPresent()
+                    ? this.engine.submit(url.get(), () -> this.downloadVerified(url.get(), file))
+                    : CompletableFuture.completedFuture(false))
+        .exceptionally(throwable -> false)
+        .thenApply(downloaded -> downloaded ? this.parse(artifact, file) : this.missing(artifact));
+  }
+
+  private Optional<PomModel> parse(final Artifact artifact, final Path file) {
+    try {
+      return Optional.of(PomParser.parse(file));
+    } catch (final IOException e) {
+      this.logger.warning(String.format("Failed to parse the POM of %s!", artifact));
+      this.complete.set(false);
+      try {
+        Files.deleteIfExists(file);
+      } catch (final IOException ignored) {
+      }
+      return Optional.empty();
+    }
+  }
+
+  private Optional<PomModel> missing(final Artifact artifact) {
+    this.complete.set(false);
+    this.logger.warning(
+        String.format("Could not find the POM of %s! Its dependencies are skipped!", artifact));
+    return Optional.empty();
+  }
+
+  private boolean copy(final Path pom, final Path file) {
+    try {
+      Files.createDirectories(file.getParent());
+      final Path temp = file.resolveSibling(String.format("%s.tmp", file.getFileName()));
+      Files.copy(pom, temp, StandardCopyOption.REPLACE_EXISTING);
+      FileUtils.moveAtomically(temp, file);
+      return true;
+    } catch (final IOException e) {
+      return false;
+    }
+  }
+
+  private boolean downloadVerified(final String url, final Path file) throws IOException {
+    final RetryPolicy policy = this.engine.getRetryPolicy();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return this.download(url, file);
+      } catch (final IOException e) {
+        if (!policy.canRetry(attempt)) {
+          this.logger.warning(
+              String.format("Failed to download POM located at url %s! (%s)", url, e.getMessage()));
+          return false;
+        }
+        policy.awaitRetry(attempt);
+      }
+    }
+  }
+
+  private boolean download(final String url, final Path file) throws IOException {
+    final HttpURLConnection con = HttpUtils.openConnection(url, TIMEOUT_MILLIS);
+    final int code = con.getResponseCode();
+    if (code != HttpURLConnection.HTTP_OK) {
+      HttpUtils.release(con);
+      if (code >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+        throw new IOException(String.format("Unexpected response code %d for %s!", code, url));
+      }
+      return false;
+    }
+    Files.createDirectories(file.getParent());
+    final Path temp = file.resolveSibling(String.format("%s.tmp", file.getFileName()));
+    final MessageDigest digest = FileUtils.createDigest();
+    try (final InputStream in = new DigestInputStream(con.getInputStream(), digest)) {
+      Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+    }
+    final String checksum = this.getChecksum(url);
+    if (!checksum.isEmpty() && !checksum.equals(FileUtils.toUppercaseHex(digest.digest()))) {
+      Files.deleteIfExists(temp);
+      throw new IOException(String.format("SHA1 hash mismatch for POM %s!", url));
+    }
+    FileUtils.moveAtomically(temp, file);
+    return true;
+  }
+
+  private String getChecksum(final String url) {
+    final String text = HttpUtils.readText(String.format("%s.sha1", url), TIMEOUT_MILLIS);
+    final String content = text == null ? "" : text.trim();
+    return content.isEmpty() ? "" : content.split("\\s+")[0].toUpperCase(Locale.ROOT);
+  }
+
+  private Optional<Artifact> toArtifact(final PomDependency dependency) {
+    if (dependency.getGroup() == null
+        || dependency.getArtifact() == null
+        || dependency.getVersion() == null
+        || dependency.getVersion().contains("${")) {
+      return Optional.empty();
+    }
+    return Optional.of(
+        Artifact.ofArtifact(
+            dependency.getGroup(), dependency.getArtifact(), dependency.getVersion()));
+  }
+
+  private <T> CompletableFuture<T> memoize(
+      final Map<Artifact, CompletableFuture<T>> cache,
+      final Artifact artifact,
+      final Supplier<CompletableFuture<T>> loader) {
+    final CompletableFuture<T> existing = cache.get(artifact);
+    if (existing != null) {
+      return existing;
+    }
+    final CompletableFuture<T> created = new CompletableFuture<>();
+    final CompletableFuture<T> raced = cache.putIfAbsent(artifact, created);
+    if (raced != null) {
+      return raced;
+    }
+    try {
+      loader
+          .get()
+          .whenComplete(
+              (value, throwable) -> {
+                if (throwable != null) {
+                  created.completeExceptionally(throwable);
+                } else {
+                  created.complete(value);
+                }
+              });
+    } catch (final RuntimeException e) {
+      created.completeExceptionally(e);
+    }
+    return created;
+  }
+
+  /**
+   * Checks whether every POM loaded so far was found and parsed. Dependencies of the artifacts
+   * whose POM is missing were skipped, so the resolution should not be trusted later on.
+   *
+   * @return whether no POM was missing
+   */
+  public boolean isComplete() {
+    return this.complete.get();
+  }
+
+  public Path getFolder() {
+    return this.folder;
+  }
+}
@@ -0,0 +1,193 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.DownloadEngine;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RepositoryResolver;
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Resolves the transitive dependencies of artifacts by walking their POMs. Every level of the
+ * dependency graph is fetched in parallel, and versions are mediated like Maven does: the declared
+ * artifacts always win, then the dependency nearest to a declared artifact, then the one declared
+ * first.
+ */
+public final class TransitiveResolver {
+
+  private final LoggerConfiguration logger;
+  private final RepositoryResolver resolver;
+  private final DownloadEngine engine;
+  private final Path folder;
+  private volatile boolean complete;
+
+  TransitiveResolver(
+      final LoggerConfiguration logger,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final Path folder) {
+    this.logger = logger;
+    this.resolver = resolver;
+    this.engine = engine;
+    this.folder = folder;
+    this.complete = true;
+  }
+
+  /**
+   * Creates a new transitive resolver.
+   *
+   * @param logger the logger to use
+   * @param resolver the resolver used to find the repository of each POM
+   * @param engine the engine used to download POMs
+   * @param folder the library folder, in which POMs are cached
+   * @return a new TransitiveResolver
+   */
+  public static TransitiveResolver ofResolver(
+      final LoggerConfiguration logger,
+      final RepositoryResolver resolver,
+      final DownloadEngine engine,
+      final Path folder) {
+    return new TransitiveResolver(logger, resolver, engine, folder);
+  }
+
+  /**
+   * Resolves the declared artifacts and all of their runtime dependencies.
+   *
+   * @param declared the declared artifacts
+   * @return the deduplicated artifacts to install, declared artifacts first
+   * @throws IOException if an issue occurred during resolution
+   */
+  public Collection<Artifact> resolve(final Collection<Artifact> declared) throws IOException {
+    final PomStore store =
+        PomStore.ofStore(this.logger, this.resolver, this.engine, this.folder.resolve("poms"));
+    try {
+      final Collection<Artifact> artifacts = this.walk(store, declared);
+      this.complete = store.isComplete();
+      return artifacts;
+    } catch (final CompletionException e) {
+      this.complete = false;
+      throw new IOException("Failed to resolve transitive dependencies!", e.getCause());
+    }
+  }
+
+  /**
+   * Checks whether the last resolution found the POM of every artifact. Dependencies of artifacts
+   * whose POM was missing or could not be downloaded are skipped, so an incomplete resolution may
+   * miss artifacts that a later resolution finds.
+   *
+   * @return whether the last resolution was complete
+   */
+  public boolean isComplete() {
+    return this.complete;
+  }
+
+  private Collection<Artifact> walk(final PomStore store, final Collection<Artifact> declared) {
+    final Map<String, Artifact> selected = new LinkedHashMap<>();
+    List<Node> frontier = new ArrayList<>();
+    for (final Artifact artifact : declared) {
+      if (selected.putIfAbsent(this.getKey(artifact), artifact) == null) {
+        frontier.add(new Node(artifact, new HashSet<>()));
+      }
+    }
+    final int direct = selected.size();
+    while (!frontier.isEmpty()) {
+      final List<CompletableFuture<List<PomDependency>>> futures = new ArrayList<>();
+      for (final Node node : frontier) {
+        futures.add(store.getDependencies(node.artifact));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+      final List<Node> next = new ArrayList<>();
+      for (int i = 0; i < frontier.size(); i++) {
+        final Node node = frontier.get(i);
+        for (final PomDependency dependency : futures.get(i).join()) {
+          this.select(selected, next, node, dependency);
+        }
+      }
+      frontier = next;
+    }
+    final int transitive = selected.size() - direct;
+    if (transitive > 0) {
+      this.logger.info(String.format("Resolved %d transitive dependencies!", transitive));
+    }
+    return new ArrayList<>(selected.values());
+  }
+
+  private void select(
+      final Map<String, Artifact> selected,
+      final List<Node> next,
+      final Node node,
+      final PomDependency dependency) {
+    if (node.isExcluded(dependency) || selected.containsKey(dependency.getKey())) {
+      return;
+    }
+    final Artifact artifact =
+        Artifact.ofArtifact(
+            dependency.getGroup(), dependency.getArtifact(), dependency.getVersion());
+    selected.put(dependency.getKey(), artifact);
+    final Set<String> exclusions = new HashSet<>(node.exclusions);
+    exclusions.addAll(dependency.getExclusions());
+    next.add(new Node(artifact, exclusions));
+  }
+
+  private String getKey(final Artifact artifact) {
+    return String.format("%s:%s", artifact.getGroup(), artifact.getArtifact());
+  }
+
+  public RepositoryResolver getResolver() {
+    return this.resolver;
+  }
+
+  public Path getFolder() {
+    return this.folder;
+  }
+
+  private static final class Node {
+
+    private final Artifact artifact;
+    private final Set<String> exclusions;
+
+    Node(final Artifact artifact, final Set<String> exclusions) {
+      this.artifact = artifact;
+      this.exclusions = exclusions;
+    }
+
+    boolean isExcluded(final PomDependency dependency) {
+      return this.exclusions.contains(dependency.getKey())
+          || this.exclusions.contains("*:*")
+          || this.exclusions.contains(String.format("%s:*", dependency.getGroup()))
+          || this.exclusions.contains(String.format("*:%s", dependency.getArtifact()));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.injector;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+
+/**
+ * Handler of the URLs served by a {@link JarIndex}. The handler is bound to the URLs it creates,
+ * so no protocol has to be registered globally.
+ */
+final class IndexURLHandler extends URLStreamHandler {
+
+  private final JarIndex index;
+
+  IndexURLHandler(final JarIndex index) {
+    this.index = index;
+  }
+
+  /**
+   * Creates the root URL of the index.
+   *
+   * @param id a unique identifier of the index
+   * @return the root URL
+   * @throws IOException if the URL could not be created
+   */
+  URL createRoot(final String id) throws IOException {
+    return new URL("emc-index", id, -1, "/", this);
+  }
+
+  @Override
+  protected URLConnection openConnection(final URL url) throws IOException {
+    return new IndexURLConnection(url, this.index);
+  }
+
+  private static final class IndexURLConnection extends URLConnection {
+
+    private final JarIndex index;
+    private InputStream in;
+
+    IndexURLConnection(final URL url, final JarIndex index) {
+      super(url);
+      this.index = index;
+    }
+
+    @Override
+    public void connect() throws IOException {
+      if (this.connected) {
+        return;
+      }
+      final String name = this.getName();
+      this.in = this.index.getInputStream(name);
+      if (this.in == null) {
+        throw new FileNotFoundException(this.url.toString());
+      }
+      this.connected = true;
+    }
+
+    private String getName() throws IOException {
+      try {
+        final String path = this.url.toURI().getPath();
+        return path.startsWith("/") ? path.substring(1) : path;
+      } catch (final URISyntaxException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      this.connect();
+      return this.in;
+    }
+  }
+}
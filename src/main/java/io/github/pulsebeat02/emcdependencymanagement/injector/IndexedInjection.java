@@ -0,0 +1,140 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.injector;
+
+import static io.github.pulsebeat02.emcdependencymanagement.util.UnsafeUtils.getField;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Injects a {@link JarIndex} into a class loader as a single class path entry. The class loader
+ * then resolves every dependency class and resource with one index lookup, however many JARs were
+ * loaded, instead of probing each JAR in turn.
+ */
+public final class IndexedInjection {
+
+  private static final String PROBE;
+
+  static {
+    PROBE = "emc-index/probe";
+  }
+
+  private final JarIndex index;
+  private final URLClassLoader classloader;
+  private final LoaderDelegation delegation;
+
+  IndexedInjection(
+      final JarIndex index,
+      final URLClassLoader classloader,
+      final LoaderDelegation delegation) {
+    this.index = index;
+    this.classloader = classloader;
+    this.delegation = delegation;
+  }
+
+  /**
+   * Creates a new indexed injection. The index must stay open as long as the class loader is used.
+   *
+   * @param index the index of the dependencies
+   * @param classloader the class loader to inject into
+   * @param delegation the order in which the dependencies are consulted
+   * @return a new IndexedInjection
+   */
+  public static IndexedInjection ofInjection(
+      final JarIndex index,
+      final URLClassLoader classloader,
+      final LoaderDelegation delegation) {
+    return new IndexedInjection(index, classloader, delegation);
+  }
+
+  public void inject() throws IOException, NoSuchFieldException {
+    final URL root = new IndexURLHandler(this.index).createRoot(UUID.randomUUID().toString());
+    final Object ucp = getField(URLClassLoader.class, this.classloader, "ucp");
+    final ArrayDeque<URL> unopened = getClassPathField(ucp, "unopenedUrls");
+    final ArrayList<URL> paths = getClassPathField(ucp, "path");
+    synchronized (unopened) {
+      unopened.add(root);
+      paths.add(root);
+    }
+    if (this.delegation == LoaderDelegation.DEPENDENCIES_FIRST) {
+      this.moveFirst(ucp, root);
+    }
+  }
+
+  private void moveFirst(final Object ucp, final URL root)
+      throws IOException, NoSuchFieldException {
+    final ArrayList<Object> loaders = getClassPathField(ucp, "loaders");
+    synchronized (ucp) {
+      this.classloader.findResource(PROBE);
+      for (int i = 0; i < loaders.size(); i++) {
+        final Object loader = loaders.get(i);
+        if (root.toExternalForm().equals(getBaseURL(loader).toExternalForm())) {
+          loaders.add(0, loaders.remove(i));
+          return;
+        }
+      }
+    }
+    throw new IOException(
+        String.format("Could not find the loader of %s to consult it first!", root));
+  }
+
+  /**
+   * Reads a field of the class path of the class loader. The deque of unopened URLs and the lists
+   * of URLs and loaders are declared with these exact types by every supported JDK.
+   *
+   * @param ucp the class path of the class loader
+   * @param name the name of the field
+   * @param <T> the declared type of the field
+   * @return the value of the field
+   * @throws NoSuchFieldException if the class path has no such field
+   */
+  @SuppressWarnings("unchecked")
+  private static <T> T getClassPathField(final Object ucp, final String name)
+      throws NoSuchFieldException {
+    return (T) getField(ucp, name);
+  }
+
+  private static URL getBaseURL(final Object loader) throws NoSuchFieldException {
+    for (Class<?> type = loader.getClass(); type != null; type = type.getSuperclass()) {
+      try {
+        return (URL) getField(type, loader, "base");
+      } catch (final NoSuchFieldException ignored) {
+      }
+    }
+    throw new NoSuchFieldException("base");
+  }
+
+  public JarIndex getIndex() {
+    return this.index;
+  }
+
+  public LoaderDelegation getDelegation() {
+    return this.delegation;
+  }
+}
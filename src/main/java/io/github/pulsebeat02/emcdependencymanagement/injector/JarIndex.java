@@ -0,0 +1,251 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.injector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Index from every package to the JARs containing it, built once when the JARs are loaded. Looking
+ * up a class or a resource only probes the JARs of its package, usually a single one, instead of
+ * every JAR in turn. Service files are merged across all the JARs providing them.
+ */
+public final class JarIndex implements Closeable {
+
+  private static final String SERVICES;
+
+  static {
+    SERVICES = "META-INF/services";
+  }
+
+  private final List<JarSource> sources;
+  private final Map<String, List<JarSource>> packages;
+
+  JarIndex(final List<JarSource> sources, final Map<String, List<JarSource>> packages) {
+    this.sources = sources;
+    this.packages = packages;
+  }
+
+  /**
+   * Creates a new index over the JARs, which are opened until the index is closed.
+   *
+   * @param jars the JARs, in the order they are searched
+   * @return a new JarIndex
+   * @throws IOException if an issue occurred while reading the JARs
+   */
+  public static JarIndex ofIndex(final Collection<Path> jars) throws IOException {
+    return ofIndex(jars, false);
+  }
+
+  /**
+   * Creates a new index over the JARs, which are opened until the index is closed.
+   *
+   * @param jars the JARs, in the order they are searched
+   * @param mapped whether to memory-map the JARs, which falls back to regular reading for JARs
+   *     that cannot be mapped
+   * @return a new JarIndex
+   * @throws IOException if an issue occurred while reading the JARs
+   */
+  public static JarIndex ofIndex(final Collection<Path> jars, final boolean mapped)
+      throws IOException {
+    return ofIndex(jars, mapped, Collections.emptyMap());
+  }
+
+  /**
+   * Creates a new index over the JARs. JARs whose packages are already known are only opened once
+   * an entry of theirs is requested, while the others are opened right away to read their
+   * packages. Every opened JAR stays open until the index is closed.
+   *
+   * @param jars the JARs, in the order they are searched
+   * @param mapped whether to memory-map the JARs, which falls back to regular reading for JARs
+   *     that cannot be mapped
+   * @param known the packages of the JARs that were indexed before
+   * @return a new JarIndex
+   * @throws IOException if an issue occurred while reading the JARs
+   */
+  public static JarIndex ofIndex(
+      final Collection<Path> jars,
+      final boolean mapped,
+      final Map<Path, ? extends Collection<String>> known)
+      throws IOException {
+    return ofIndex(jars, mapped, known, (jar, nanos) -> {});
+  }
+
+  /**
+   * Creates a new index over the JARs, and reports the time spent opening and indexing each of
+   * them. See {@link #ofIndex(Collection, boolean, Map)}.
+   *
+   * @param jars the JARs, in the order they are searched
+   * @param mapped whether to memory-map the JARs, which falls back to regular reading for JARs
+   *     that cannot be mapped
+   * @param known the packages of the JARs that were indexed before
+   * @param indexed called with every JAR and the nanoseconds spent on it
+   * @return a new JarIndex
+   * @throws IOException if an issue occurred while reading the JARs
+   */
+  public static JarIndex ofIndex(
+      final Collection<Path> jars,
+      final boolean mapped,
+      final Map<Path, ? extends Collection<String>> known,
+      final ObjLongConsumer<Path> indexed)
+      throws IOException {
+    final List<JarSource> sources = new ArrayList<>();
+    final Map<String, List<JarSource>> index = new HashMap<>();
+    try {
+      for (final Path jar : jars) {
+        final long start = System.nanoTime();
+        final Collection<String> packages = known.get(jar);
+        final JarSource source =
+            packages == null ? openSource(jar, mapped) : new LazyJarSource(jar, packages, mapped);
+        sources.add(source);
+        for (final String name : source.getPackages()) {
+          index.computeIfAbsent(name, key -> new ArrayList<>(1)).add(source);
+        }
+        indexed.accept(jar, System.nanoTime() - start);
+      }
+      return new JarIndex(sources, index);
+    } catch (final IOException e) {
+      closeAll(sources);
+      throw e;
+    }
+  }
+
+  static JarSource openSource(final Path jar, final boolean mapped) throws IOException {
+    if (!mapped) {
+      return new ZipJarSource(jar);
+    }
+    final Optional<JarSource> source = MappedJarSource.open(jar);
+    return source.isPresent() ? source.get() : new ZipJarSource(jar);
+  }
+
+  /**
+   * Gets the package of an entry, as the directory of the entry.
+   *
+   * @param name the entry name
+   * @return the package, or an empty string for entries at the root
+   */
+  static String getPackage(final String name) {
+    final int index = name.lastIndexOf('/');
+    return index < 0 ? "" : name.substring(0, index);
+  }
+
+  /**
+   * Checks whether any JAR contains an entry.
+   *
+   * @param name the entry name
+   * @return whether the entry exists
+   * @throws IOException if an issue occurred while reading the JARs
+   */
+  public boolean contains(final String name) throws IOException {
+    for (final JarSource source : this.getSources(name)) {
+      if (source.contains(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Opens an entry, from the first JAR containing it. Service files are merged across all the JARs
+   * containing them.
+   *
+   * @param name the entry name
+   * @return the content of the entry, or null if no JAR contains it
+   * @throws IOException if an issue occurred while reading the JARs
+   */
+  public InputStream getInputStream(final String name) throws IOException {
+    final List<JarSource> sources = this.getSources(name);
+    if (SERVICES.equals(getPackage(name)) && sources.size() > 1) {
+      return this.getMergedInputStream(sources, name);
+    }
+    for (final JarSource source : sources) {
+      final InputStream in = source.getInputStream(name);
+      if (in != null) {
+        return in;
+      }
+    }
+    return null;
+  }
+
+  private InputStream getMergedInputStream(final List<JarSource> sources, final String name)
+      throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    boolean found = false;
+    for (final JarSource source : sources) {
+      try (final InputStream in = source.getInputStream(name)) {
+        if (in == null) {
+          continue;
+        }
+        found = true;
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+          out.write(buffer, 0, n);
+        }
+        out.write('\n');
+      }
+    }
+    return found ? new ByteArrayInputStream(out.toByteArray()) : null;
+  }
+
+  private List<JarSource> getSources(final String name) {
+    final List<JarSource> sources = this.packages.get(getPackage(name));
+    return sources == null ? Collections.emptyList() : sources;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeAll(this.sources);
+  }
+
+  private static void closeAll(final List<JarSource> sources) throws IOException {
+    IOException exception = null;
+    for (final JarSource source : sources) {
+      try {
+        source.close();
+      } catch (final IOException e) {
+        exception = e;
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  public List<JarSource> getSources() {
+    return this.sources;
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.injector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/** JAR whose entries are served by a {@link JarIndex}. */
+public interface JarSource extends Closeable {
+
+  /**
+   * Gets the packages of the JAR, as the directories of its entries in internal form. Entries at
+   * the root of the JAR belong to the empty package.
+   *
+   * @return the packages of the JAR
+   * @throws IOException if an issue occurred while reading the JAR
+   */
+  Collection<String> getPackages() throws IOException;
+
+  /**
+   * Checks whether the JAR contains an entry.
+   *
+   * @param name the entry name
+   * @return whether the entry exists
+   * @throws IOException if an issue occurred while reading the JAR
+   */
+  boolean contains(String name) throws IOException;
+
+  /**
+   * Opens an entry of the JAR. The stream holds no resources, so leaving it unclosed is harmless.
+   *
+   * @param name the entry name
+   * @return the content of the entry, or null if the JAR does not contain it
+   * @throws IOException if an issue occurred while reading the JAR
+   */
+  InputStream getInputStream(String name) throws IOException;
+
+  /**
+   * Gets the path of the JAR.
+   *
+   * @return the path
+   */
+  Path getPath();
+}
@@ -0,0 +1,99 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.injector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * JAR source whose packages are known in advance, so that the JAR itself is only opened the first
+ * time one of its entries is requested. JARs of features that are never used hold no file handle
+ * and no central directory.
+ */
+final class LazyJarSource implements JarSource {
+
+  private final Path path;
+  private final Collection<String> packages;
+  private final boolean mapped;
+  private volatile JarSource delegate;
+  private boolean closed;
+
+  LazyJarSource(final Path path, final Collection<String> packages, final boolean mapped) {
+    this.path = path;
+    this.packages = packages;
+    this.mapped = mapped;
+  }
+
+  private JarSource getDelegate() throws IOException {
+    JarSource source = this.delegate;
+    if (source != null) {
+      return source;
+    }
+    synchronized (this) {
+      if (this.closed) {
+        throw new IOException(String.format("JAR %s is closed!", this.path));
+      }
+      source = this.delegate;
+      if (source == null) {
+        source = JarIndex.openSource(this.path, this.mapped);
+        this.delegate = source;
+      }
+      return source;
+    }
+  }
+
+  @Override
+  public Collection<String> getPackages() {
+    return this.packages;
+  }
+
+  @Override
+  public boolean contains(final String name) throws IOException {
+    return this.getDelegate().contains(name);
+  }
+
+  @Override
+  public InputStream getInputStream(final String name) throws IOException {
+    return this.getDelegate().getInputStream(name);
+  }
+
+  @Override
+  public Path getPath() {
+    return this.path;
+  }
+
+  @Override
+  public void close() throws IOException {
+    final JarSource source;
+    synchronized (this) {
+      this.closed = true;
+      source = this.delegate;
+    }
+    if (source != null) {
+      source.close();
+    }
+  }
+}
@@ -0,0 +1,220 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.injector;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.ZipIndex;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.ZipRecord;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * JAR source reading its entries from a memory-mapped file. The central directory is parsed once
+ * into an index, stored entries are served straight from the mapping, and deflated entries are
+ * inflated with an inflater and an input buffer reused by each thread.
+ */
+final class MappedJarSource implements JarSource {
+
+  private static final ThreadLocal<Inflater> INFLATER;
+  private static final ThreadLocal<byte[]> BUFFER;
+  private static final int MAX_BUFFER;
+
+  static {
+    MAX_BUFFER = 1 << 22;
+    INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+    BUFFER = ThreadLocal.withInitial(() -> new byte[1 << 16]);
+  }
+
+  private final Path path;
+  private final ByteBuffer archive;
+  private final Map<String, ZipRecord> records;
+
+  MappedJarSource(final Path path, final ByteBuffer archive, final List<ZipRecord> records) {
+    this.path = path;
+    this.archive = archive;
+    this.records = new HashMap<>(records.size() * 2);
+    for (final ZipRecord record : records) {
+      this.records.put(record.getName(), record);
+    }
+  }
+
+  /**
+   * Maps a JAR.
+   *
+   * @param path the JAR
+   * @return the source, or empty if the JAR is too large to be mapped or uses unsupported features
+   * @throws IOException if an issue occurred while reading the JAR
+   */
+  static Optional<JarSource> open(final Path path) throws IOException {
+    final MappedByteBuffer mapped;
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        return Optional.empty();
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    final ByteBuffer archive = mapped.order(ByteOrder.LITTLE_ENDIAN);
+    final Optional<List<ZipRecord>> records = ZipIndex.readRecords(archive);
+    if (!records.isPresent()) {
+      return Optional.empty();
+    }
+    return Optional.of(new MappedJarSource(path, archive, records.get()));
+  }
+
+  @Override
+  public Collection<String> getPackages() {
+    final Set<String> packages = new LinkedHashSet<>();
+    for (final ZipRecord record : this.records.values()) {
+      if (!record.isDirectory()) {
+        packages.add(JarIndex.getPackage(record.getName()));
+      }
+    }
+    return packages;
+  }
+
+  @Override
+  public boolean contains(final String name) {
+    return this.records.containsKey(name);
+  }
+
+  @Override
+  public InputStream getInputStream(final String name) throws IOException {
+    final ZipRecord record = this.records.get(name);
+    if (record == null || record.isDirectory()) {
+      return null;
+    }
+    final int offset = ZipIndex.getDataOffset(this.archive, record);
+    final int length = (int) record.getCompressedSize();
+    if (record.getMethod() == ZipEntry.STORED) {
+      return new MappedInputStream(this.slice(offset, length));
+    }
+    if (record.getMethod() != ZipEntry.DEFLATED) {
+      throw new ZipException(
+          String.format("Unsupported compression method %d for %s!", record.getMethod(), name));
+    }
+    return new ByteArrayInputStream(this.inflate(record, offset, length));
+  }
+
+  private ByteBuffer slice(final int offset, final int length) {
+    final ByteBuffer buffer = this.archive.duplicate();
+    buffer.limit(offset + length);
+    buffer.position(offset);
+    return buffer.slice();
+  }
+
+  private byte[] inflate(final ZipRecord record, final int offset, final int length)
+      throws IOException {
+    final byte[] input = this.getBuffer(length + 1);
+    this.slice(offset, length).get(input, 0, length);
+    input[length] = 0;
+    final byte[] content = new byte[(int) record.getSize()];
+    final Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(input, 0, length + 1);
+    try {
+      int size = 0;
+      while (size < content.length) {
+        final int n = inflater.inflate(content, size, content.length - size);
+        if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new ZipException(String.format("Truncated entry %s!", record.getName()));
+        }
+        size += n;
+      }
+      return content;
+    } catch (final DataFormatException e) {
+      throw new ZipException(String.format("Malformed entry %s!", record.getName()));
+    }
+  }
+
+  private byte[] getBuffer(final int length) {
+    final byte[] buffer = BUFFER.get();
+    if (buffer.length >= length) {
+      return buffer;
+    }
+    if (length > MAX_BUFFER) {
+      return new byte[length];
+    }
+    final byte[] grown = new byte[Math.min(MAX_BUFFER, Integer.highestOneBit(length) << 1)];
+    BUFFER.set(grown);
+    return grown;
+  }
+
+  @Override
+  public Path getPath() {
+    return this.path;
+  }
+
+  /**
+   * Does nothing. The index is read by class loading threads without synchronization, so it is
+   * never changed once built, and the mapping is released when the source is garbage collected.
+   */
+  @Override
+  public void close() {}
+
+  private static final class MappedInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    MappedInputStream(final ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+      if (!this.buffer.hasRemaining()) {
+        return -1;
+      }
+      final int n = Math.min(length, this.buffer.remaining());
+      this.buffer.get(bytes, offset, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return this.buffer.remaining();
+    }
+  }
+}
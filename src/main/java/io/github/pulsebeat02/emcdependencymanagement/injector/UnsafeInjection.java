@@ -63,12 +63,16 @@ public final class UnsafeInjection {
 
   public void inject() throws MalformedURLException {
     for (final Path path : this.jars) {
-      final URL url = path.toUri().toURL();
-      this.unopened.add(url);
-      this.paths.add(url);
+      this.inject(path);
     }
   }
 
+  public void inject(final Path path) throws MalformedURLException {
+    final URL url = path.toUri().toURL();
+    this.unopened.add(url);
+    this.paths.add(url);
+  }
+
   private ArrayList<URL> getPathURLs(final Object ucp) throws NoSuchFieldException {
     return (ArrayList<URL>) getField(ucp, "path");
   }
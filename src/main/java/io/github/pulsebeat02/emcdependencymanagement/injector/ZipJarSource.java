@@ -0,0 +1,94 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.injector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/** JAR source reading its entries through a {@link ZipFile}. */
+final class ZipJarSource implements JarSource {
+
+  private final Path path;
+  private final ZipFile zip;
+
+  ZipJarSource(final Path path) throws IOException {
+    this.path = path;
+    this.zip = new ZipFile(path.toFile());
+  }
+
+  @Override
+  public Collection<String> getPackages() {
+    final Set<String> packages = new LinkedHashSet<>();
+    final Enumeration<? extends ZipEntry> entries = this.zip.entries();
+    while (entries.hasMoreElements()) {
+      final ZipEntry entry = entries.nextElement();
+      if (!entry.isDirectory()) {
+        packages.add(JarIndex.getPackage(entry.getName()));
+      }
+    }
+    return packages;
+  }
+
+  @Override
+  public boolean contains(final String name) {
+    return this.zip.getEntry(name) != null;
+  }
+
+  @Override
+  public InputStream getInputStream(final String name) throws IOException {
+    final ZipEntry entry = this.zip.getEntry(name);
+    if (entry == null || entry.isDirectory()) {
+      return null;
+    }
+    final int size = entry.getSize() < 0 ? 8192 : (int) entry.getSize();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+    try (final InputStream in = this.zip.getInputStream(entry)) {
+      final byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+    }
+    return new ByteArrayInputStream(out.toByteArray());
+  }
+
+  @Override
+  public Path getPath() {
+    return this.path;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.zip.close();
+  }
+}
@@ -0,0 +1,112 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.metrics;
+
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import java.nio.file.Path;
+
+/**
+ * Listener forwarding every event to another listener, logging and swallowing any exception it
+ * throws, so that a failing listener never fails the load it observes.
+ */
+final class GuardedLoadListener implements LoadListener {
+
+  private final LoadListener listener;
+  private final LoggerConfiguration logger;
+
+  GuardedLoadListener(final LoadListener listener, final LoggerConfiguration logger) {
+    this.listener = listener;
+    this.logger = logger;
+  }
+
+  @Override
+  public void onPhase(final LoadPhase phase, final long nanos) {
+    try {
+      this.listener.onPhase(phase, nanos);
+    } catch (final RuntimeException e) {
+      this.logFailure("onPhase", e);
+    }
+  }
+
+  @Override
+  public void onSearched(final String coordinates, final boolean installed) {
+    try {
+      this.listener.onSearched(coordinates, installed);
+    } catch (final RuntimeException e) {
+      this.logFailure("onSearched", e);
+    }
+  }
+
+  @Override
+  public void onResolved(
+      final String coordinates, final String repository, final boolean cached, final long nanos) {
+    try {
+      this.listener.onResolved(coordinates, repository, cached, nanos);
+    } catch (final RuntimeException e) {
+      this.logFailure("onResolved", e);
+    }
+  }
+
+  @Override
+  public void onDownloaded(
+      final String coordinates, final String url, final long bytes, final long nanos) {
+    try {
+      this.listener.onDownloaded(coordinates, url, bytes, nanos);
+    } catch (final RuntimeException e) {
+      this.logFailure("onDownloaded", e);
+    }
+  }
+
+  @Override
+  public void onVerified(final String coordinates, final long nanos) {
+    try {
+      this.listener.onVerified(coordinates, nanos);
+    } catch (final RuntimeException e) {
+      this.logFailure("onVerified", e);
+    }
+  }
+
+  @Override
+  public void onRelocated(final String coordinates, final boolean cached, final long nanos) {
+    try {
+      this.listener.onRelocated(coordinates, cached, nanos);
+    } catch (final RuntimeException e) {
+      this.logFailure("onRelocated", e);
+    }
+  }
+
+  @Override
+  public void onInjected(final String coordinates, final Path jar, final long nanos) {
+    try {
+      this.listener.onInjected(coordinates, jar, nanos);
+    } catch (final RuntimeException e) {
+      this.logFailure("onInjected", e);
+    }
+  }
+
+  private void logFailure(final String event, final RuntimeException e) {
+    this.logger.warning(
+        String.format("Load listener failed to handle %s! (%s)", event, e.getMessage()));
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.metrics;
+
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import java.nio.file.Path;
+
+/**
+ * Listener notified of the progress of a load, with the duration of every phase and the work done
+ * for every artifact. Artifacts are identified by their exact coordinates, and durations are in
+ * nanoseconds. Every method does nothing by default, so implementations only override the events
+ * they record.
+ *
+ * <p>Events of different artifacts are reported concurrently from the download threads, so
+ * implementations must be thread-safe.
+ */
+public interface LoadListener {
+
+  /**
+   * Gets a listener ignoring every event.
+   *
+   * @return the empty listener
+   */
+  static LoadListener empty() {
+    return EmptyLoadListener.INSTANCE;
+  }
+
+  /**
+   * Guards a listener, so that any exception it throws is logged instead of failing the load. A
+   * listener that is already guarded, or ignores every event, is returned as is.
+   *
+   * @param listener the listener to guard
+   * @param logger the logger the failures of the listener are logged to
+   * @return the guarded listener
+   */
+  static LoadListener guarded(final LoadListener listener, final LoggerConfiguration logger) {
+    if (listener instanceof GuardedLoadListener || listener instanceof EmptyLoadListener) {
+      return listener;
+    }
+    return new GuardedLoadListener(listener, logger);
+  }
+
+  /**
+   * Called once a phase of the load finished.
+   *
+   * @param phase the phase
+   * @param nanos the duration of the phase
+   */
+  default void onPhase(final LoadPhase phase, final long nanos) {}
+
+  /**
+   * Called once an artifact was checked against the install manifest.
+   *
+   * @param coordinates the coordinates of the artifact
+   * @param installed whether the artifact was already installed, so that it needs no download
+   */
+  default void onSearched(final String coordinates, final boolean installed) {}
+
+  /**
+   * Called once the repository serving an artifact was found.
+   *
+   * @param coordinates the coordinates of the artifact
+   * @param repository the url of the repository, or null if no repository has the artifact
+   * @param cached whether the repository cache knew the repository, so that no request was sent
+   * @param nanos the duration of the resolution
+   */
+  default void onResolved(
+      final String coordinates, final String repository, final boolean cached, final long nanos) {}
+
+  /**
+   * Called once an artifact was downloaded. When JARs are relocated while they are downloaded,
+   * the duration includes the relocation.
+   *
+   * @param coordinates the coordinates of the artifact
+   * @param url the url the artifact was downloaded from
+   * @param bytes the number of bytes transferred, over every attempt
+   * @param nanos the time from the first request until the JAR was received, including retries
+   */
+  default void onDownloaded(
+      final String coordinates, final String url, final long bytes, final long nanos) {}
+
+  /**
+   * Called once the checksum of a downloaded artifact was verified.
+   *
+   * @param coordinates the coordinates of the artifact
+   * @param nanos the duration of the verification, including waiting for the published checksum
+   */
+  default void onVerified(final String coordinates, final long nanos) {}
+
+  /**
+   * Called once the relocated JAR of an artifact is available. Not called when there are no
+   * relocations.
+   *
+   * @param coordinates the coordinates of the artifact
+   * @param cached whether the relocated JAR was already cached, so that nothing was relocated
+   * @param nanos the duration of the relocation
+   */
+  default void onRelocated(final String coordinates, final boolean cached, final long nanos) {}
+
+  /**
+   * Called once the JAR of an artifact was added to the class loader.
+   *
+   * @param coordinates the coordinates of the artifact
+   * @param jar the loaded JAR
+   * @param nanos the time spent opening and adding the JAR
+   */
+  default void onInjected(final String coordinates, final Path jar, final long nanos) {}
+}
@@ -0,0 +1,49 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.metrics;
+
+/**
+ * Phases of a load, in the order they run. A load whose configuration and JARs are unchanged since
+ * the last load only runs the first and last phase.
+ */
+public enum LoadPhase {
+
+  /** Loading the install manifest and the repository cache. */
+  PREPARE,
+
+  /** Resolving the transitive dependencies of the artifacts. */
+  RESOLVE,
+
+  /** Checking which artifacts are already installed. */
+  SEARCH,
+
+  /** Downloading and verifying the missing artifacts. */
+  INSTALL,
+
+  /** Relocating the installed artifacts. */
+  RELOCATE,
+
+  /** Adding the JARs to the class loader. */
+  INJECT
+}
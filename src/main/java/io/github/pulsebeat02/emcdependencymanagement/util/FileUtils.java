@@ -23,12 +23,17 @@
  */
 package io.github.pulsebeat02.emcdependencymanagement.util;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Locale;
+import java.util.zip.ZipFile;
 
 public final class FileUtils {
 
@@ -48,18 +53,64 @@ public final class FileUtils {
     }
   }
 
+  public static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-1");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new AssertionError("SHA-1 is not supported!");
+    }
+  }
+
+  public static String toUppercaseHex(final byte[] digest) {
+    return bytesToHex(digest);
+  }
+
   private static byte[] createByteSHA(final Path file) throws Exception {
-    final MessageDigest digest = MessageDigest.getInstance("SHA-1");
-    final InputStream fis = Files.newInputStream(file);
-    int n = 0;
-    final byte[] buffer = new byte[8192];
-    while (n != -1) {
-      n = fis.read(buffer);
-      if (n > 0) {
+    final MessageDigest digest = createDigest();
+    updateDigest(digest, file);
+    return digest.digest();
+  }
+
+  public static void updateDigest(final MessageDigest digest, final Path file)
+      throws IOException {
+    try (final InputStream fis = Files.newInputStream(file)) {
+      final byte[] buffer = new byte[8192];
+      int n;
+      while ((n = fis.read(buffer)) != -1) {
         digest.update(buffer, 0, n);
       }
     }
-    return digest.digest();
+  }
+
+  public static void moveAtomically(final Path source, final Path target) throws IOException {
+    try {
+      Files.move(
+          source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  public static void linkAtomically(final Path source, final Path target) throws IOException {
+    final Path temp =
+        target.resolveSibling(
+            String.format(
+                "%s.%d-%d.tmp",
+                target.getFileName(), Thread.currentThread().getId(), System.nanoTime()));
+    try {
+      Files.createLink(temp, source);
+    } catch (final IOException | UnsupportedOperationException e) {
+      Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+    }
+    moveAtomically(temp, target);
+  }
+
+  public static boolean isValidZip(final Path file) {
+    try (final ZipFile zip = new ZipFile(file.toFile())) {
+      return zip.size() >= 0;
+    } catch (final IOException e) {
+      return false;
+    }
   }
 
   private static String bytesToHex(final byte[] bytes) {
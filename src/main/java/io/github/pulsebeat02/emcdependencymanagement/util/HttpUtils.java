@@ -0,0 +1,142 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Opens and releases HTTP connections so that they are reused. The JDK keeps idle keep-alive
+ * connections in a pool per host, but only takes a connection back once its response was read to
+ * the end and closed, while {@link HttpURLConnection#disconnect()} closes the socket. Every request
+ * to a repository then pays for a new TCP and TLS handshake, which dominates the cost of the small
+ * files served by Maven repositories.
+ */
+public final class HttpUtils {
+
+  private static final long DRAIN_LIMIT;
+
+  static {
+    DRAIN_LIMIT = 64L * 1024;
+  }
+
+  private HttpUtils() {}
+
+  /**
+   * Opens a GET connection, which is served by a pooled connection to the host if one is idle.
+   *
+   * @param url the url
+   * @param timeout the connect and read timeout in milliseconds
+   * @return the connection, not connected yet
+   * @throws IOException if the url is invalid
+   */
+  public static HttpURLConnection openConnection(final String url, final int timeout)
+      throws IOException {
+    return openConnection(url, "GET", timeout);
+  }
+
+  /**
+   * Opens a connection, which is served by a pooled connection to the host if one is idle.
+   *
+   * @param url the url
+   * @param method the request method, such as GET or HEAD
+   * @param timeout the connect and read timeout in milliseconds
+   * @return the connection, not connected yet
+   * @throws IOException if the url is invalid
+   */
+  public static HttpURLConnection openConnection(
+      final String url, final String method, final int timeout) throws IOException {
+    final HttpURLConnection con = (HttpURLConnection) new URL(url).openConnection();
+    con.setRequestMethod(method);
+    con.setConnectTimeout(timeout);
+    con.setReadTimeout(timeout);
+    return con;
+  }
+
+  /**
+   * Releases a connection whose response is not read, such as an error response, by reading the
+   * rest of it so that the connection is returned to the pool. Responses larger than a few
+   * kilobytes are cheaper to abandon than to read, and their connection is closed instead.
+   *
+   * @param con the connection
+   */
+  public static void release(final HttpURLConnection con) {
+    final long length = con.getContentLengthLong();
+    if (length > DRAIN_LIMIT) {
+      con.disconnect();
+      return;
+    }
+    try (final InputStream in = getStream(con)) {
+      if (in != null) {
+        drain(in);
+      }
+    } catch (final IOException e) {
+      con.disconnect();
+    }
+  }
+
+  /**
+   * Reads a small text file, such as a checksum, releasing the connection afterwards.
+   *
+   * @param url the url
+   * @param timeout the connect and read timeout in milliseconds
+   * @return the content of the file, or null if it could not be read
+   */
+  public static String readText(final String url, final int timeout) {
+    try {
+      final HttpURLConnection con = openConnection(url, timeout);
+      if (con.getResponseCode() != HttpURLConnection.HTTP_OK) {
+        release(con);
+        return null;
+      }
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (final InputStream in = con.getInputStream()) {
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+          out.write(buffer, 0, n);
+        }
+      }
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    } catch (final IOException e) {
+      return null;
+    }
+  }
+
+  private static InputStream getStream(final HttpURLConnection con) throws IOException {
+    final int code = con.getResponseCode();
+    return code >= HttpURLConnection.HTTP_BAD_REQUEST ? con.getErrorStream() : con.getInputStream();
+  }
+
+  private static void drain(final InputStream in) throws IOException {
+    final byte[] buffer = new byte[8192];
+    while (in.read(buffer) != -1) {
+      // the connection is only pooled once the response was read to the end
+    }
+  }
+}
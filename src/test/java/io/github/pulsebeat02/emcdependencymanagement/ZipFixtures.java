@@ -0,0 +1,173 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+/** Builds small archives and classes in memory for the tests. */
+public final class ZipFixtures {
+
+  private static final long BASE_TIME;
+
+  static {
+    BASE_TIME = 1577934246000L;
+  }
+
+  private final List<ZipEntry> entries;
+  private final List<byte[]> contents;
+  private String comment;
+
+  ZipFixtures() {
+    this.entries = new ArrayList<>();
+    this.contents = new ArrayList<>();
+  }
+
+  public static ZipFixtures ofArchive() {
+    return new ZipFixtures();
+  }
+
+  /**
+   * Creates a class with a constant field, so that the class refers to a type in its descriptor
+   * and holds a string constant.
+   *
+   * @param name the internal name of the class
+   * @param descriptor the descriptor of the field
+   * @param constant the string constant held by the class
+   * @return the class file
+   */
+  public static byte[] createClass(
+      final String name, final String descriptor, final String constant) {
+    final ClassWriter writer = new ClassWriter(0);
+    writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, name, null, "java/lang/Object", null);
+    writer.visitField(Opcodes.ACC_PUBLIC, "field", descriptor, null, null).visitEnd();
+    writer
+        .visitField(
+            Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+            "CONSTANT",
+            "Ljava/lang/String;",
+            null,
+            constant)
+        .visitEnd();
+    writer.visitEnd();
+    return writer.toByteArray();
+  }
+
+  /**
+   * Creates an archive with as many entries as a plain end record can count, which makes {@link
+   * ZipOutputStream} write a Zip64 end record.
+   *
+   * @param file the archive to write
+   * @return the archive
+   * @throws IOException if the archive could not be written
+   */
+  public static Path createZip64(final Path file) throws IOException {
+    final ZipFixtures fixtures = ofArchive();
+    for (int i = 0; i < 0xFFFF; i++) {
+      fixtures.stored(String.format("entries/%d.txt", i), new byte[0]);
+    }
+    return fixtures.write(file);
+  }
+
+  /**
+   * Sets the encryption flag of every local and central header of an archive, without encrypting
+   * anything.
+   *
+   * @param bytes the archive
+   */
+  public static void setEncrypted(final byte[] bytes) {
+    for (int i = 0; i + 8 < bytes.length; i++) {
+      if (bytes[i] != 'P' || bytes[i + 1] != 'K') {
+        continue;
+      }
+      if (bytes[i + 2] == 3 && bytes[i + 3] == 4) {
+        bytes[i + 6] |= 1;
+      } else if (bytes[i + 2] == 1 && bytes[i + 3] == 2) {
+        bytes[i + 8] |= 1;
+      }
+    }
+  }
+
+  public ZipFixtures deflated(final String name, final byte[] content) {
+    final ZipEntry entry = new ZipEntry(name);
+    entry.setMethod(ZipEntry.DEFLATED);
+    return this.add(entry, content);
+  }
+
+  public ZipFixtures stored(final String name, final byte[] content) {
+    final ZipEntry entry = new ZipEntry(name);
+    final CRC32 crc = new CRC32();
+    crc.update(content, 0, content.length);
+    entry.setMethod(ZipEntry.STORED);
+    entry.setSize(content.length);
+    entry.setCompressedSize(content.length);
+    entry.setCrc(crc.getValue());
+    return this.add(entry, content);
+  }
+
+  public ZipFixtures directory(final String name) {
+    return this.stored(name, new byte[0]);
+  }
+
+  public ZipFixtures comment(final String comment) {
+    this.comment = comment;
+    return this;
+  }
+
+  private ZipFixtures add(final ZipEntry entry, final byte[] content) {
+    // every entry gets its own even second, which DOS times can represent exactly
+    entry.setTime(BASE_TIME + this.entries.size() * 2000L);
+    this.entries.add(entry);
+    this.contents.add(content);
+    return this;
+  }
+
+  public byte[] toBytes() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final ZipOutputStream zip = new ZipOutputStream(out)) {
+      if (this.comment != null) {
+        zip.setComment(this.comment);
+      }
+      for (int i = 0; i < this.entries.size(); i++) {
+        zip.putNextEntry(this.entries.get(i));
+        zip.write(this.contents.get(i));
+        zip.closeEntry();
+      }
+    }
+    return out.toByteArray();
+  }
+
+  public Path write(final Path file) throws IOException {
+    return Files.write(file, this.toBytes());
+  }
+}
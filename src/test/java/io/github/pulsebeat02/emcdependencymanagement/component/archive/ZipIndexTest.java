@@ -0,0 +1,212 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.pulsebeat02.emcdependencymanagement.ZipFixtures;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class ZipIndexTest {
+
+  private static final byte[] TEXT = "hello hello hello hello".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir Path folder;
+
+  @Test
+  void readsStoredAndDeflatedEntries() throws IOException {
+    final Path jar =
+        ZipFixtures.ofArchive()
+            .directory("a/")
+            .stored("a/stored.txt", TEXT)
+            .deflated("a/deflated.txt", TEXT)
+            .write(this.folder.resolve("test.jar"));
+    try (final ZipIndex zip = ZipIndex.open(jar).get();
+        final ZipFile expected = new ZipFile(jar.toFile())) {
+      final List<ZipRecord> records = zip.getRecords();
+      assertEquals(3, records.size());
+      for (final ZipRecord record : records) {
+        final ZipEntry entry = expected.getEntry(record.getName());
+        assertEquals(entry.getMethod(), record.getMethod());
+        assertEquals(entry.getCrc(), record.getCrc());
+        assertEquals(entry.getSize(), record.getSize());
+        assertEquals(entry.getCompressedSize(), record.getCompressedSize());
+        assertEquals(entry.isDirectory(), record.isDirectory());
+        assertArrayEquals(read(expected, entry), zip.read(record));
+        try (final InputStream in = zip.openStream(record)) {
+          assertArrayEquals(read(expected, entry), readAll(in));
+        }
+      }
+      assertEquals(ZipEntry.STORED, records.get(1).getMethod());
+      assertEquals(ZipEntry.DEFLATED, records.get(2).getMethod());
+    }
+  }
+
+  @Test
+  void readsMappedArchives() throws IOException {
+    final byte[] bytes =
+        ZipFixtures.ofArchive().stored("stored.txt", TEXT).deflated("deflated.txt", TEXT).toBytes();
+    final List<ZipRecord> records = ZipIndex.readRecords(ByteBuffer.wrap(bytes)).get();
+    assertEquals(Arrays.asList("stored.txt", "deflated.txt"), getNames(records));
+  }
+
+  @Test
+  void readsArchivesWithComments() throws IOException {
+    // the comment holds an end record signature, which must not be mistaken for the real one
+    final Path jar =
+        ZipFixtures.ofArchive()
+            .deflated("deflated.txt", TEXT)
+            .comment("PK\u0005\u0006 not the end")
+            .write(this.folder.resolve("test.jar"));
+    try (final ZipIndex zip = ZipIndex.open(jar).get()) {
+      assertEquals(1, zip.getRecords().size());
+      assertArrayEquals(TEXT, zip.read(zip.getRecords().get(0)));
+    }
+  }
+
+  @Test
+  void leavesArchivesWithTrailingBytesToZipFile() throws IOException {
+    final byte[] bytes = ZipFixtures.ofArchive().deflated("deflated.txt", TEXT).toBytes();
+    final Path jar = this.folder.resolve("test.jar");
+    Files.write(jar, Arrays.copyOf(bytes, bytes.length + 16));
+    assertFalse(ZipIndex.open(jar).isPresent());
+  }
+
+  @Test
+  void rejectsTruncatedEndRecords() throws IOException {
+    final byte[] bytes = ZipFixtures.ofArchive().deflated("deflated.txt", TEXT).toBytes();
+    final Path jar = this.folder.resolve("test.jar");
+    Files.write(jar, Arrays.copyOf(bytes, bytes.length - 10));
+    assertThrows(ZipException.class, () -> ZipIndex.open(jar));
+    final ByteBuffer mapped = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 10));
+    assertThrows(ZipException.class, () -> ZipIndex.readRecords(mapped));
+  }
+
+  @Test
+  void rejectsCentralDirectoriesOutOfBounds() throws IOException {
+    final byte[] bytes = ZipFixtures.ofArchive().deflated("deflated.txt", TEXT).toBytes();
+    final int end = bytes.length - 22;
+    // move the central directory past the end of the archive
+    bytes[end + 19] = 0x7F;
+    final Path jar = this.folder.resolve("test.jar");
+    Files.write(jar, bytes);
+    assertThrows(ZipException.class, () -> ZipIndex.open(jar));
+    assertThrows(ZipException.class, () -> ZipIndex.readRecords(ByteBuffer.wrap(bytes)));
+  }
+
+  @Test
+  void leavesEncryptedArchivesToZipFile() throws IOException {
+    final byte[] bytes = ZipFixtures.ofArchive().deflated("deflated.txt", TEXT).toBytes();
+    ZipFixtures.setEncrypted(bytes);
+    final Path jar = this.folder.resolve("test.jar");
+    Files.write(jar, bytes);
+    assertFalse(ZipIndex.open(jar).isPresent());
+    assertFalse(ZipIndex.readRecords(ByteBuffer.wrap(bytes)).isPresent());
+  }
+
+  @Test
+  void leavesZip64ArchivesToZipFile() throws IOException {
+    final Path jar = ZipFixtures.createZip64(this.folder.resolve("test.jar"));
+    assertFalse(ZipIndex.open(jar).isPresent());
+    assertFalse(ZipIndex.readRecords(ByteBuffer.wrap(Files.readAllBytes(jar))).isPresent());
+  }
+
+  @Test
+  void writesArchivesReadableByZipFile() throws IOException {
+    final Path source =
+        ZipFixtures.ofArchive()
+            .directory("a/")
+            .stored("a/stored.txt", TEXT)
+            .deflated("a/deflated.txt", TEXT)
+            .write(this.folder.resolve("source.jar"));
+    final Path copy = this.folder.resolve("copy.jar");
+    try (final ZipIndex zip = ZipIndex.open(source).get();
+        final RawZipWriter writer = RawZipWriter.ofWriter(Files.newOutputStream(copy))) {
+      for (final ZipRecord record : zip.getRecords()) {
+        if (record.isDirectory()) {
+          writer.write(RawEntry.ofDirectory(record.getName(), record.getDosTime()));
+        } else if (record.getMethod() == ZipEntry.STORED) {
+          writer.write(RawEntry.ofContent(record.getName(), record.getDosTime(), zip.read(record)));
+        } else {
+          writer.write(RawEntry.ofRecord(record.getName(), record, zip.readRaw(record)));
+        }
+      }
+      writer.finish();
+    }
+    try (final ZipFile expected = new ZipFile(source.toFile());
+        final ZipFile actual = new ZipFile(copy.toFile())) {
+      assertEquals(expected.size(), actual.size());
+      for (final ZipEntry entry : Collections.list(expected.entries())) {
+        final ZipEntry written = actual.getEntry(entry.getName());
+        assertEquals(entry.getTime(), written.getTime());
+        assertEquals(entry.getCrc(), written.getCrc());
+        assertEquals(entry.isDirectory(), written.isDirectory());
+        assertArrayEquals(read(expected, entry), read(actual, written));
+      }
+    }
+  }
+
+  private static List<String> getNames(final List<ZipRecord> records) {
+    final String[] names = new String[records.size()];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = records.get(i).getName();
+    }
+    return Arrays.asList(names);
+  }
+
+  private static byte[] read(final ZipFile zip, final ZipEntry entry) throws IOException {
+    try (final InputStream in = zip.getInputStream(entry)) {
+      return readAll(in);
+    }
+  }
+
+  private static byte[] readAll(final InputStream in) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int n;
+    while ((n = in.read(buffer)) != -1) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+}
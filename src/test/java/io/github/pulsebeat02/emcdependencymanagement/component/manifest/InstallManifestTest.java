@@ -0,0 +1,241 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.manifest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.pulsebeat02.emcdependencymanagement.ZipFixtures;
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class InstallManifestTest {
+
+  private static final Artifact ARTIFACT;
+  private static final FileTime RECORDED;
+  private static final FileTime TOUCHED;
+
+  static {
+    ARTIFACT = Artifact.ofArtifact("com.example", "app", "1.0");
+    RECORDED = FileTime.fromMillis(1_600_000_000_000L);
+    TOUCHED = FileTime.fromMillis(1_700_000_000_000L);
+  }
+
+  @TempDir Path folder;
+
+  private InstallManifest manifest;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.manifest = InstallManifest.ofManifest(this.folder);
+    this.manifest.load();
+  }
+
+  @Test
+  void roundTripsEntriesAndPackages() throws IOException {
+    final Artifact other = Artifact.ofArtifact("com.example", "other", "2.0");
+    final Path jar = this.writeFile(ARTIFACT.getJarName(), "content");
+    final Path relocated = this.writeFile("relocated/app-1.0.jar", "relocated");
+    final ManifestEntry entry = this.manifest.record(ARTIFACT, jar);
+    this.manifest.recordPackages(entry, relocated, Arrays.asList("", "com/example"));
+    this.manifest.record(other, this.writeFile(other.getJarName(), "other"));
+    this.manifest.save();
+
+    final List<String> lines = Files.readAllLines(this.manifest.getFile());
+    assertEquals("# emc-manifest 2", lines.get(0));
+    assertEquals(
+        String.format(
+            "com.example:app:1.0\tapp-1.0.jar\t7\t%d\t%s\trelocated/app-1.0.jar\t/,com/example",
+            RECORDED.toMillis(), entry.getChecksum()),
+        lines.get(1));
+    assertTrue(lines.get(2).startsWith("com.example:other:2.0\tother-2.0.jar\t5\t"));
+    assertEquals(3, lines.size());
+
+    final InstallManifest loaded = InstallManifest.ofManifest(this.folder);
+    loaded.load();
+    final ManifestEntry reloaded = loaded.getEntry(ARTIFACT).orElseThrow(AssertionError::new);
+    assertEquals(jar, reloaded.getPath());
+    assertEquals(7, reloaded.getSize());
+    assertEquals(RECORDED.toMillis(), reloaded.getModified());
+    assertEquals(entry.getChecksum(), reloaded.getChecksum());
+    assertEquals(
+        Optional.of(Arrays.asList("", "com/example")), reloaded.getPackages(relocated));
+    assertEquals(Optional.empty(), reloaded.getPackages(jar));
+    assertEquals(2, loaded.getEntries().size());
+  }
+
+  @Test
+  void roundTripsEmptyPackages() throws IOException {
+    final Path jar = this.writeFile(ARTIFACT.getJarName(), "content");
+    this.manifest.recordPackages(
+        this.manifest.record(ARTIFACT, jar), jar, Collections.emptyList());
+    this.manifest.save();
+
+    assertTrue(Files.readAllLines(this.manifest.getFile()).get(1).endsWith("\tapp-1.0.jar\t-"));
+    final InstallManifest loaded = InstallManifest.ofManifest(this.folder);
+    loaded.load();
+    assertEquals(
+        Optional.of(Collections.emptyList()),
+        loaded.getEntry(ARTIFACT).flatMap(entry -> entry.getPackages(jar)));
+  }
+
+  @Test
+  void discardsOutdatedManifests() throws IOException {
+    this.writeFile("manifest.emc", "# emc-manifest 1\ncom.example:app:1.0\tapp-1.0.jar\t7\t0\tA\n");
+    this.manifest.load();
+
+    assertTrue(this.manifest.getEntries().isEmpty());
+    this.manifest.save();
+    assertEquals(
+        Collections.singletonList("# emc-manifest 2"),
+        Files.readAllLines(this.manifest.getFile()));
+  }
+
+  @Test
+  void skipsMalformedLines() throws IOException {
+    this.writeFile(
+        "manifest.emc",
+        "# emc-manifest 2\n"
+            + "com.example:app:1.0\tapp-1.0.jar\tseven\t0\tA\n"
+            + "com.example:app:1.0\tapp-1.0.jar\t7\n"
+            + "com.example:other:2.0\tother-2.0.jar\t5\t0\tB\n");
+    this.manifest.load();
+
+    assertFalse(this.manifest.getEntry(ARTIFACT).isPresent());
+    assertEquals(1, this.manifest.getEntries().size());
+  }
+
+  @Test
+  void skipsSavingUnchangedManifests() throws IOException {
+    this.manifest.save();
+
+    assertFalse(Files.exists(this.manifest.getFile()));
+  }
+
+  @Test
+  void trustsMatchingSizeAndModificationTime() throws IOException {
+    final Path jar = this.writeFile(ARTIFACT.getJarName(), "content");
+    this.manifest.record(ARTIFACT, jar);
+    this.writeFile(ARTIFACT.getJarName(), "CONTENT");
+
+    assertTrue(this.manifest.isInstalled(ARTIFACT));
+  }
+
+  @Test
+  void rehashesTouchedFiles() throws IOException {
+    final Path jar = this.writeFile(ARTIFACT.getJarName(), "content");
+    this.manifest.record(ARTIFACT, jar);
+    Files.setLastModifiedTime(jar, TOUCHED);
+
+    assertTrue(this.manifest.isInstalled(ARTIFACT));
+    assertEquals(
+        TOUCHED.toMillis(),
+        this.manifest.getEntry(ARTIFACT).map(ManifestEntry::getModified).orElse(0L));
+  }
+
+  @Test
+  void dropsModifiedFiles() throws IOException {
+    final Path jar = this.writeFile(ARTIFACT.getJarName(), "content");
+    this.manifest.record(ARTIFACT, jar);
+    this.writeFile(ARTIFACT.getJarName(), "CONTENT");
+    Files.setLastModifiedTime(jar, TOUCHED);
+
+    assertFalse(this.manifest.isInstalled(ARTIFACT));
+    assertFalse(this.manifest.getEntry(ARTIFACT).isPresent());
+  }
+
+  @Test
+  void dropsResizedFiles() throws IOException {
+    final Path jar = this.writeFile(ARTIFACT.getJarName(), "content");
+    this.manifest.record(ARTIFACT, jar);
+    this.writeFile(ARTIFACT.getJarName(), "longer content");
+
+    assertFalse(this.manifest.isInstalled(ARTIFACT));
+    assertFalse(this.manifest.getEntry(ARTIFACT).isPresent());
+  }
+
+  @Test
+  void dropsMissingFiles() throws IOException {
+    final Path jar = this.writeFile(ARTIFACT.getJarName(), "content");
+    this.manifest.record(ARTIFACT, jar);
+    Files.delete(jar);
+
+    assertFalse(this.manifest.isInstalled(ARTIFACT));
+    assertFalse(this.manifest.getEntry(ARTIFACT).isPresent());
+  }
+
+  @Test
+  void adoptsValidJarsWithThePublishedName() throws IOException {
+    final Path jar =
+        ZipFixtures.ofArchive()
+            .deflated("META-INF/MANIFEST.MF", new byte[] {'\n'})
+            .write(this.folder.resolve(ARTIFACT.getJarName()));
+
+    assertTrue(this.manifest.isInstalled(ARTIFACT));
+    assertEquals(
+        Optional.of(jar), this.manifest.getEntry(ARTIFACT).map(ManifestEntry::getPath));
+  }
+
+  @Test
+  void adoptsJarsFromTheJarFolder() throws IOException {
+    final Path jars = Files.createDirectory(this.folder.resolve("jars"));
+    final InstallManifest separate = InstallManifest.ofManifest(this.folder, jars);
+    separate.load();
+    ZipFixtures.ofArchive()
+        .stored("a.txt", new byte[] {'a'})
+        .write(jars.resolve(ARTIFACT.getJarName()));
+
+    assertTrue(separate.isInstalled(ARTIFACT));
+    separate.save();
+    assertTrue(Files.readAllLines(separate.getFile()).get(1).contains("\tjars/app-1.0.jar\t"));
+  }
+
+  @Test
+  void rejectsInvalidOrMissingJars() throws IOException {
+    assertFalse(this.manifest.isInstalled(ARTIFACT));
+    this.writeFile(ARTIFACT.getJarName(), "not a zip");
+
+    assertFalse(this.manifest.isInstalled(ARTIFACT));
+    assertFalse(this.manifest.getEntry(ARTIFACT).isPresent());
+  }
+
+  private Path writeFile(final String name, final String content) throws IOException {
+    final Path file = this.folder.resolve(name);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return Files.setLastModifiedTime(file, RECORDED);
+  }
+}
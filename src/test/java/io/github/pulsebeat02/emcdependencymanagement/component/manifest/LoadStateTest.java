@@ -0,0 +1,166 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.manifest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class LoadStateTest {
+
+  private static final String FINGERPRINT;
+  private static final List<String> COORDINATES;
+  private static final FileTime RECORDED;
+
+  static {
+    FINGERPRINT = "0123456789ABCDEF";
+    COORDINATES = Arrays.asList("com.example:app:1.0", "com.example:lib:2.0");
+    RECORDED = FileTime.fromMillis(1_600_000_000_000L);
+  }
+
+  @TempDir Path folder;
+
+  private List<Path> jars;
+  private LoadState state;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    this.jars =
+        Arrays.asList(
+            this.writeFile("app-1.0.jar", "app"), this.writeFile("relocated/lib-2.0.jar", "lib"));
+    this.state = LoadState.ofState(this.folder);
+    this.state.load();
+  }
+
+  @Test
+  void roundTripsRecordedLoads() throws IOException {
+    this.state.record(FINGERPRINT, COORDINATES, this.jars);
+
+    final List<String> lines = Files.readAllLines(this.state.getFile());
+    assertEquals(
+        Arrays.asList(
+            "# emc-state 1",
+            FINGERPRINT,
+            String.format("com.example:app:1.0\tapp-1.0.jar\t3\t%d", RECORDED.toMillis()),
+            String.format(
+                "com.example:lib:2.0\trelocated/lib-2.0.jar\t3\t%d", RECORDED.toMillis())),
+        lines);
+
+    final LoadState loaded = this.reload();
+    assertEquals(FINGERPRINT, loaded.getFingerprint());
+    assertEquals(COORDINATES, loaded.getCoordinates());
+    assertEquals(this.jars, loaded.getJars());
+    assertTrue(loaded.matches(FINGERPRINT));
+  }
+
+  @Test
+  void neverMatchesWithoutState() throws IOException {
+    assertNull(this.state.getFingerprint());
+    assertFalse(this.state.matches(FINGERPRINT));
+  }
+
+  @Test
+  void invalidatesChangedFingerprints() throws IOException {
+    this.state.record(FINGERPRINT, COORDINATES, this.jars);
+
+    assertFalse(this.reload().matches("FEDCBA9876543210"));
+  }
+
+  @Test
+  void invalidatesTouchedJars() throws IOException {
+    this.state.record(FINGERPRINT, COORDINATES, this.jars);
+    Files.setLastModifiedTime(this.jars.get(1), FileTime.fromMillis(1_700_000_000_000L));
+
+    assertFalse(this.reload().matches(FINGERPRINT));
+  }
+
+  @Test
+  void invalidatesResizedJars() throws IOException {
+    this.state.record(FINGERPRINT, COORDINATES, this.jars);
+    this.writeFile("app-1.0.jar", "application");
+
+    assertFalse(this.reload().matches(FINGERPRINT));
+  }
+
+  @Test
+  void invalidatesMissingJars() throws IOException {
+    this.state.record(FINGERPRINT, COORDINATES, this.jars);
+    Files.delete(this.jars.get(0));
+
+    assertFalse(this.reload().matches(FINGERPRINT));
+  }
+
+  @Test
+  void discardsOutdatedStates() throws IOException {
+    this.writeFile(
+        "state.emc",
+        String.format(
+            "# emc-state 0\n%s\ncom.example:app:1.0\tapp-1.0.jar\t3\t%d\n",
+            FINGERPRINT, RECORDED.toMillis()));
+
+    final LoadState loaded = this.reload();
+    assertNull(loaded.getFingerprint());
+    assertTrue(loaded.getJars().isEmpty());
+    assertFalse(loaded.matches(FINGERPRINT));
+  }
+
+  @Test
+  void discardsStatesWithMalformedLines() throws IOException {
+    this.writeFile(
+        "state.emc",
+        String.format(
+            "# emc-state 1\n%s\ncom.example:app:1.0\tapp-1.0.jar\t3\t%d\ncom.example:lib:2.0\t3\n",
+            FINGERPRINT, RECORDED.toMillis()));
+
+    final LoadState loaded = this.reload();
+    assertNull(loaded.getFingerprint());
+    assertTrue(loaded.getCoordinates().isEmpty());
+    assertFalse(loaded.matches(FINGERPRINT));
+  }
+
+  private LoadState reload() throws IOException {
+    final LoadState loaded = LoadState.ofState(this.folder);
+    loaded.load();
+    return loaded;
+  }
+
+  private Path writeFile(final String name, final String content) throws IOException {
+    final Path file = this.folder.resolve(name);
+    Files.createDirectories(file.getParent());
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return Files.setLastModifiedTime(file, RECORDED);
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.pulsebeat02.emcdependencymanagement.ZipFixtures;
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Opcodes;
+
+final class EntryRelocatorTest {
+
+  private static final String SERVICE = "META-INF/services/com.foo.Service";
+
+  private final EntryRelocator relocator =
+      new EntryRelocator(
+          Collections.singletonList(Relocation.ofRelocation("com:foo", "shaded:foo")));
+
+  @Test
+  void relocatesEntryNames() {
+    assertEquals("shaded/foo/X.class", this.relocator.getName("com/foo/X.class"));
+    assertEquals("com/foobar/X.class", this.relocator.getName("com/foobar/X.class"));
+    assertEquals("META-INF/services/shaded.foo.Service", this.relocator.getName(SERVICE));
+    assertEquals("META-INF/services/", this.relocator.getName("META-INF/services/"));
+  }
+
+  @Test
+  void keepsTheFormattingOfServiceFiles() {
+    final String content =
+        "# provided by com.foo\r\n  com.foo.Impl  # default\r\n\r\ncom.foobar.Other\r\n"
+            + "com.foo.Last";
+    final String expected =
+        "# provided by com.foo\r\n  shaded.foo.Impl  # default\r\n\r\ncom.foobar.Other\r\n"
+            + "shaded.foo.Last";
+    assertEquals(expected, this.relocate(SERVICE, content));
+    assertEquals("shaded.foo.Impl\n", this.relocate(SERVICE, "com.foo.Impl\n"));
+  }
+
+  @Test
+  void returnsUnaffectedContentAsIs() {
+    final byte[] content = "org.other.Impl\n".getBytes(StandardCharsets.UTF_8);
+    assertSame(content, this.relocator.getContent(SERVICE, content));
+    // mentions the package as raw bytes, but not at a package boundary
+    final byte[] boundary = "com.foobar.Impl\n".getBytes(StandardCharsets.UTF_8);
+    assertArrayEquals(boundary, this.relocator.getContent(SERVICE, boundary));
+    final byte[] text = "com.foo.Impl".getBytes(StandardCharsets.UTF_8);
+    assertSame(text, this.relocator.getContent("notes.txt", text));
+  }
+
+  @Test
+  void relocatesStringConstantsOfClasses() {
+    final byte[] dotted = ZipFixtures.createClass("other/A", "I", "com.foo.X");
+    final byte[] descriptor = ZipFixtures.createClass("other/A", "I", "[Lcom/foo/X;");
+    final byte[] boundary = ZipFixtures.createClass("other/A", "I", "com.foobar.X");
+    assertEquals("shaded.foo.X", this.getConstant("other/A.class", dotted));
+    assertEquals("[Lshaded/foo/X;", this.getConstant("other/A.class", descriptor));
+    assertEquals("com.foobar.X", this.getConstant("other/A.class", boundary));
+  }
+
+  @Test
+  void recognizesSignatures() {
+    assertTrue(this.relocator.isSignature("META-INF/SIGNER.SF"));
+    assertTrue(this.relocator.isSignature("META-INF/signer.rsa"));
+    assertFalse(this.relocator.isSignature("META-INF/versions/9/SIGNER.SF"));
+    assertFalse(this.relocator.isSignature("META-INF/MANIFEST.MF"));
+  }
+
+  private String relocate(final String name, final String content) {
+    final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    return new String(this.relocator.getContent(name, bytes), StandardCharsets.UTF_8);
+  }
+
+  private Object getConstant(final String name, final byte[] content) {
+    final Object[] constant = new Object[1];
+    new ClassReader(this.relocator.getContent(name, content))
+        .accept(
+            new ClassVisitor(Opcodes.ASM9) {
+              @Override
+              public FieldVisitor visitField(
+                  final int access,
+                  final String field,
+                  final String descriptor,
+                  final String signature,
+                  final Object value) {
+                if ("CONSTANT".equals(field)) {
+                  constant[0] = value;
+                }
+                return null;
+              }
+            },
+            0);
+    return constant[0];
+  }
+}
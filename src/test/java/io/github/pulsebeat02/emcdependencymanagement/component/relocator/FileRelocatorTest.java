@@ -0,0 +1,284 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.pulsebeat02.emcdependencymanagement.ZipFixtures;
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.ZipIndex;
+import io.github.pulsebeat02.emcdependencymanagement.component.archive.ZipRecord;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Opcodes;
+
+final class FileRelocatorTest {
+
+  private static final byte[] TEXT = "plain text".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir Path folder;
+
+  @Test
+  void relocatesStoredAndDeflatedEntries() throws IOException {
+    final Path source =
+        ZipFixtures.ofArchive()
+            .deflated("META-INF/MANIFEST.MF", TEXT)
+            .directory("org/")
+            .deflated("org/foo/A.class", ZipFixtures.createClass("org/foo/A", "Lorg/foo/B;", "x"))
+            .stored("org/foo/B.class", ZipFixtures.createClass("org/foo/B", "I", "org.foo.A"))
+            .stored("org/other/C.class", ZipFixtures.createClass("org/other/C", "I", "other"))
+            .deflated("assets/data.txt", TEXT)
+            .write(this.folder.resolve("source.jar"));
+    assertTrue(ZipIndex.open(source).isPresent());
+    final Path output = this.relocate(source);
+
+    try (final ZipFile expected = new ZipFile(source.toFile());
+        final ZipFile actual = new ZipFile(output.toFile())) {
+      assertEquals(
+          Arrays.asList(
+              "META-INF/MANIFEST.MF",
+              "org/",
+              "shaded/foo/A.class",
+              "shaded/foo/B.class",
+              "org/other/C.class",
+              "assets/data.txt"),
+          getNames(actual));
+      for (final String name : Arrays.asList("META-INF/MANIFEST.MF", "org/other/C.class")) {
+        final ZipEntry before = expected.getEntry(name);
+        final ZipEntry after = actual.getEntry(name);
+        assertEquals(before.getMethod(), after.getMethod());
+        assertEquals(before.getCrc(), after.getCrc());
+        assertArrayEquals(read(expected, before), read(actual, after));
+      }
+      assertEquals(ZipEntry.STORED, actual.getEntry("org/other/C.class").getMethod());
+      assertEquals(ZipEntry.DEFLATED, actual.getEntry("assets/data.txt").getMethod());
+      assertEquals(
+          expected.getEntry("org/foo/A.class").getTime(),
+          actual.getEntry("shaded/foo/A.class").getTime());
+
+      final Map<String, Object> a = getFields(read(actual, actual.getEntry("shaded/foo/A.class")));
+      assertEquals("shaded/foo/A", a.get("class"));
+      assertEquals("Lshaded/foo/B;", a.get("field"));
+      final Map<String, Object> b = getFields(read(actual, actual.getEntry("shaded/foo/B.class")));
+      assertEquals("shaded.foo.A", b.get("CONSTANT"));
+    }
+    assertSameTimes(source, output);
+  }
+
+  @Test
+  void keepsTheFirstOfDuplicateRelocatedNames() throws IOException {
+    final Path source =
+        ZipFixtures.ofArchive()
+            .deflated("org/foo/data.txt", TEXT)
+            .deflated("shaded/foo/data.txt", "second".getBytes(StandardCharsets.UTF_8))
+            .write(this.folder.resolve("source.jar"));
+    final Path output = this.relocate(source);
+    try (final ZipFile actual = new ZipFile(output.toFile())) {
+      assertEquals(Collections.singletonList("shaded/foo/data.txt"), getNames(actual));
+      assertArrayEquals(TEXT, read(actual, actual.getEntry("shaded/foo/data.txt")));
+    }
+  }
+
+  @Test
+  void relocatesArchivesWithComments() throws IOException {
+    final Path source =
+        ZipFixtures.ofArchive()
+            .deflated("org/foo/data.txt", TEXT)
+            .comment("PK\u0005\u0006 not the end")
+            .write(this.folder.resolve("source.jar"));
+    final Path output = this.relocate(source);
+    try (final ZipFile actual = new ZipFile(output.toFile())) {
+      assertEquals(Collections.singletonList("shaded/foo/data.txt"), getNames(actual));
+    }
+  }
+
+  @Test
+  void relocatesZip64ArchivesThroughZipFile() throws IOException {
+    final Path source = ZipFixtures.createZip64(this.folder.resolve("source.jar"));
+    assertFalse(ZipIndex.open(source).isPresent());
+    final Path output = this.relocate(source, Relocation.ofRelocation("entries", "moved"));
+    try (final ZipFile actual = new ZipFile(output.toFile())) {
+      assertEquals(0xFFFF, actual.size());
+      assertNotNull(actual.getEntry("moved/0.txt"));
+      assertNull(actual.getEntry("entries/0.txt"));
+    }
+  }
+
+  @Test
+  void relocatesArchivesWithTrailingBytesThroughZipFile() throws IOException {
+    final byte[] bytes = ZipFixtures.ofArchive().deflated("org/foo/data.txt", TEXT).toBytes();
+    final Path source = this.folder.resolve("source.jar");
+    Files.write(source, Arrays.copyOf(bytes, bytes.length + 16));
+    final Path output = this.relocate(source);
+    try (final ZipFile actual = new ZipFile(output.toFile())) {
+      assertArrayEquals(TEXT, read(actual, actual.getEntry("shaded/foo/data.txt")));
+    }
+  }
+
+  @Test
+  void treatsEncryptedArchivesAsAffected() throws IOException {
+    final byte[] bytes = ZipFixtures.ofArchive().deflated("other/data.txt", TEXT).toBytes();
+    ZipFixtures.setEncrypted(bytes);
+    final Path source = this.folder.resolve("source.jar");
+    Files.write(source, bytes);
+    assertTrue(this.createRelocator(source).isAffected(source));
+  }
+
+  @Test
+  void rejectsTruncatedArchives() throws IOException {
+    final byte[] bytes = ZipFixtures.ofArchive().deflated("org/foo/data.txt", TEXT).toBytes();
+    final Path source = this.folder.resolve("source.jar");
+    Files.write(source, Arrays.copyOf(bytes, bytes.length - 10));
+    final FileRelocator relocator = this.createRelocator(source);
+    final Path output = this.folder.resolve("output.jar");
+    assertThrows(IOException.class, () -> relocator.isAffected(source));
+    assertThrows(IOException.class, () -> relocator.relocate(source, output));
+    assertFalse(Files.exists(output));
+  }
+
+  @Test
+  void findsAffectedStoredAndDeflatedEntries() throws IOException {
+    final byte[] affected = ZipFixtures.createClass("other/A", "Lorg/foo/B;", "x");
+    final byte[] unaffected = ZipFixtures.createClass("other/A", "I", "x");
+    final Path stored =
+        ZipFixtures.ofArchive()
+            .stored("other/A.class", affected)
+            .write(this.folder.resolve("stored.jar"));
+    final Path deflated =
+        ZipFixtures.ofArchive()
+            .deflated("other/A.class", affected)
+            .write(this.folder.resolve("deflated.jar"));
+    final Path plain =
+        ZipFixtures.ofArchive()
+            .deflated("other/A.class", unaffected)
+            .stored("other/data.txt", "org/foo".getBytes(StandardCharsets.UTF_8))
+            .write(this.folder.resolve("plain.jar"));
+    assertTrue(this.createRelocator(stored).isAffected(stored));
+    assertTrue(this.createRelocator(deflated).isAffected(deflated));
+    assertFalse(this.createRelocator(plain).isAffected(plain));
+  }
+
+  private Path relocate(final Path source) throws IOException {
+    return this.relocate(source, Relocation.ofRelocation("org:foo", "shaded:foo"));
+  }
+
+  private Path relocate(final Path source, final Relocation relocation) throws IOException {
+    final Path output = this.folder.resolve("output.jar");
+    FileRelocator.ofRelocator(Collections.singletonList(relocation), Collections.emptyList())
+        .relocate(source, output);
+    return output;
+  }
+
+  private FileRelocator createRelocator(final Path source) {
+    return FileRelocator.ofRelocator(
+        Collections.singletonList(Relocation.ofRelocation("org:foo", "shaded:foo")),
+        Collections.singletonList(source));
+  }
+
+  private static void assertSameTimes(final Path source, final Path output) throws IOException {
+    try (final ZipIndex before = ZipIndex.open(source).get();
+        final ZipIndex after = ZipIndex.open(output).get()) {
+      final List<ZipRecord> expected = before.getRecords();
+      final List<ZipRecord> actual = after.getRecords();
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals(expected.get(i).getDosTime(), actual.get(i).getDosTime());
+      }
+    }
+  }
+
+  private static Map<String, Object> getFields(final byte[] bytes) {
+    final Map<String, Object> fields = new HashMap<>();
+    new ClassReader(bytes)
+        .accept(
+            new ClassVisitor(Opcodes.ASM9) {
+              @Override
+              public void visit(
+                  final int version,
+                  final int access,
+                  final String name,
+                  final String signature,
+                  final String superName,
+                  final String[] interfaces) {
+                fields.put("class", name);
+              }
+
+              @Override
+              public FieldVisitor visitField(
+                  final int access,
+                  final String name,
+                  final String descriptor,
+                  final String signature,
+                  final Object value) {
+                fields.put(name, value == null ? descriptor : value);
+                return null;
+              }
+            },
+            0);
+    return fields;
+  }
+
+  private static List<String> getNames(final ZipFile zip) {
+    final List<String> names = new ArrayList<>();
+    for (final ZipEntry entry : Collections.list(zip.entries())) {
+      names.add(entry.getName());
+    }
+    return names;
+  }
+
+  private static byte[] read(final ZipFile zip, final ZipEntry entry) throws IOException {
+    try (final InputStream in = zip.getInputStream(entry)) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+      return out.toByteArray();
+    }
+  }
+}
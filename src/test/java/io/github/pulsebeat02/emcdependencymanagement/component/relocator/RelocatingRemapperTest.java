@@ -0,0 +1,111 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Relocation;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+final class RelocatingRemapperTest {
+
+  private final RelocatingRemapper remapper =
+      new RelocatingRemapper(
+          Arrays.asList(
+              Relocation.ofRelocation("com:foo", "shaded:foo"),
+              Relocation.ofRelocation("a:b", "x"),
+              Relocation.ofRelocation("a:b:c", "y")));
+
+  @Test
+  void mapsInternalNames() {
+    assertEquals("shaded/foo/X", this.remapper.map("com/foo/X"));
+    assertEquals("shaded/foo/X$Inner", this.remapper.map("com/foo/X$Inner"));
+    assertEquals("com/foobar/X", this.remapper.map("com/foobar/X"));
+    assertEquals("org/com/foo/X", this.remapper.map("org/com/foo/X"));
+  }
+
+  @Test
+  void mapsNestedRelocations() {
+    assertEquals("y/D", this.remapper.map("a/b/c/D"));
+    assertEquals("x/D", this.remapper.map("a/b/D"));
+    assertEquals("y.D", this.remapper.mapName("a.b.c.D"));
+    assertEquals("x.D", this.remapper.mapName("a.b.D"));
+  }
+
+  @Test
+  void mapsDescriptors() {
+    assertEquals("Lshaded/foo/X;", this.remapper.mapDesc("Lcom/foo/X;"));
+    assertEquals("[[Lshaded/foo/X;", this.remapper.mapDesc("[[Lcom/foo/X;"));
+    assertEquals(
+        "(Lshaded/foo/X;I)Lcom/foobar/Y;",
+        this.remapper.mapMethodDesc("(Lcom/foo/X;I)Lcom/foobar/Y;"));
+  }
+
+  @Test
+  void mapsDottedStringConstants() {
+    assertEquals("shaded.foo.X", this.remapper.mapValue("com.foo.X"));
+    assertEquals("shaded.foo", this.remapper.mapValue("com.foo"));
+    assertEquals("com.foobar.X", this.remapper.mapValue("com.foobar.X"));
+  }
+
+  @Test
+  void mapsSlashedStringConstants() {
+    assertEquals("shaded/foo/X", this.remapper.mapValue("com/foo/X"));
+    assertEquals("shaded/foo/x.properties", this.remapper.mapValue("com/foo/x.properties"));
+    assertEquals("com/foobar/X", this.remapper.mapValue("com/foobar/X"));
+  }
+
+  @Test
+  void mapsDescriptorStringConstants() {
+    assertEquals("Lshaded/foo/X;", this.remapper.mapValue("Lcom/foo/X;"));
+    assertEquals("[Lshaded/foo/X;", this.remapper.mapValue("[Lcom/foo/X;"));
+    assertEquals("[[Ly/D;", this.remapper.mapValue("[[La/b/c/D;"));
+    assertEquals("Lcom/foobar/X;", this.remapper.mapValue("Lcom/foobar/X;"));
+    assertEquals("Lcom/foo/X", this.remapper.mapValue("Lcom/foo/X"));
+    assertEquals("L;", this.remapper.mapValue("L;"));
+    assertEquals("[", this.remapper.mapValue("["));
+  }
+
+  @Test
+  void leavesOtherConstantsUnchanged() {
+    assertEquals("hello world", this.remapper.mapValue("hello world"));
+    assertEquals("", this.remapper.mapValue(""));
+    assertEquals(42, this.remapper.mapValue(42));
+  }
+
+  @Test
+  void mapsResourcePaths() {
+    assertEquals("shaded/foo/x.properties", this.remapper.mapPath("com/foo/x.properties"));
+    assertEquals("META-INF/MANIFEST.MF", this.remapper.mapPath("META-INF/MANIFEST.MF"));
+  }
+
+  @Test
+  void mapsNothingWithoutRelocations() {
+    final RelocatingRemapper empty = new RelocatingRemapper(Collections.emptyList());
+    assertEquals("com/foo/X", empty.map("com/foo/X"));
+    assertEquals("Lcom/foo/X;", empty.mapValue("Lcom/foo/X;"));
+  }
+}
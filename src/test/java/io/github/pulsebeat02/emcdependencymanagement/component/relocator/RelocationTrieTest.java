@@ -0,0 +1,88 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.relocator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+final class RelocationTrieTest {
+
+  @Test
+  void prefersTheLongestNestedPrefix() {
+    final RelocationTrie trie = new RelocationTrie('/');
+    trie.add("a/b", "x");
+    trie.add("a/b/c", "y");
+    assertEquals("y/D", trie.relocate("a/b/c/D"));
+    assertEquals("x/D", trie.relocate("a/b/D"));
+    assertEquals("x/cd/D", trie.relocate("a/b/cd/D"));
+    assertEquals("y", trie.relocate("a/b/c"));
+    assertEquals("x", trie.relocate("a/b"));
+  }
+
+  @Test
+  void prefersTheLongestNestedPrefixWhateverTheOrder() {
+    final RelocationTrie trie = new RelocationTrie('/');
+    trie.add("a/b/c", "y");
+    trie.add("a/b", "x");
+    assertEquals("y/D", trie.relocate("a/b/c/D"));
+    assertEquals("x/D", trie.relocate("a/b/D"));
+  }
+
+  @Test
+  void matchesOnlyAtPackageBoundaries() {
+    final RelocationTrie trie = new RelocationTrie('.');
+    trie.add("com.foo", "shaded.foo");
+    assertNull(trie.relocate("com.foobar.X"));
+    assertNull(trie.relocate("com.fo"));
+    assertNull(trie.relocate("com"));
+    assertNull(trie.relocate("org.com.foo.X"));
+    assertEquals("shaded.foo", trie.relocate("com.foo"));
+    assertEquals("shaded.foo.X", trie.relocate("com.foo.X"));
+  }
+
+  @Test
+  void usesItsOwnSeparatorOnly() {
+    final RelocationTrie trie = new RelocationTrie('/');
+    trie.add("com/foo", "shaded/foo");
+    assertNull(trie.relocate("com/foo.X"));
+    assertEquals("shaded/foo/X", trie.relocate("com/foo/X"));
+  }
+
+  @Test
+  void keepsTheFirstReplacementOfAPrefix() {
+    final RelocationTrie trie = new RelocationTrie('/');
+    trie.add("com/foo", "first");
+    trie.add("com/foo", "second");
+    assertEquals("first/X", trie.relocate("com/foo/X"));
+  }
+
+  @Test
+  void relocatesNothingWithoutPrefixes() {
+    final RelocationTrie trie = new RelocationTrie('/');
+    assertNull(trie.relocate("com/foo/X"));
+    assertNull(trie.relocate(""));
+  }
+}
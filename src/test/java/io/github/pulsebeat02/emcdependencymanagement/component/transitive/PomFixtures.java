@@ -0,0 +1,174 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.DownloadEngine;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RepositoryCache;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.RepositoryResolver;
+import io.github.pulsebeat02.emcdependencymanagement.component.downloader.ResolutionStrategy;
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * POMs written into a folder laid out like a Maven repository, with a resolver that knows no
+ * repository, so that every POM missing from the folder is missing for good.
+ */
+final class PomFixtures implements AutoCloseable {
+
+  private final Path folder;
+  private final List<String> warnings;
+  private final LoggerConfiguration logger;
+  private final RepositoryResolver resolver;
+  private final DownloadEngine engine;
+
+  PomFixtures(final Path folder) {
+    this.folder = folder;
+    this.warnings = new CopyOnWriteArrayList<>();
+    this.logger = new RecordingLogger(this.warnings);
+    this.resolver =
+        RepositoryResolver.ofResolver(
+            Collections.emptyList(),
+            ResolutionStrategy.REPOSITORY_ORDER,
+            RepositoryCache.ofCache(folder.resolve("cache")));
+    this.engine = DownloadEngine.ofEngine();
+  }
+
+  static String dependency(final String group, final String artifact, final String version) {
+    return dependency(group, artifact, version, "");
+  }
+
+  static String dependency(
+      final String group, final String artifact, final String version, final String extra) {
+    final String versionTag =
+        version == null ? "" : String.format("<version>%s</version>", version);
+    return String.format(
+        "<dependency><groupId>%s</groupId><artifactId>%s</artifactId>%s%s</dependency>",
+        group, artifact, versionTag, extra);
+  }
+
+  static String exclusion(final String group, final String artifact) {
+    return String.format(
+        "<exclusions><exclusion><groupId>%s</groupId><artifactId>%s</artifactId></exclusion>"
+            + "</exclusions>",
+        group, artifact);
+  }
+
+  static String dependencies(final String... dependencies) {
+    return String.format("<dependencies>%s</dependencies>", String.join("", dependencies));
+  }
+
+  static String management(final String... dependencies) {
+    return String.format(
+        "<dependencyManagement>%s</dependencyManagement>", dependencies(dependencies));
+  }
+
+  static String parent(final String group, final String artifact, final String version) {
+    return String.format(
+        "<parent><groupId>%s</groupId><artifactId>%s</artifactId><version>%s</version></parent>",
+        group, artifact, version);
+  }
+
+  static String properties(final String... pairs) {
+    final StringBuilder builder = new StringBuilder("<properties>");
+    for (int i = 0; i < pairs.length; i += 2) {
+      builder.append(String.format("<%s>%s</%s>", pairs[i], pairs[i + 1], pairs[i]));
+    }
+    return builder.append("</properties>").toString();
+  }
+
+  /**
+   * Writes the POM of an artifact.
+   *
+   * @param artifact the artifact
+   * @param body the elements of the project after its coordinates
+   * @return the artifact
+   * @throws IOException if the POM could not be written
+   */
+  Artifact write(final Artifact artifact, final String body) throws IOException {
+    final String content =
+        String.format(
+            "<?xml version=\"1.0\"?>%n<project><groupId>%s</groupId><artifactId>%s</artifactId>"
+                + "<version>%s</version>%s</project>",
+            artifact.getGroup(), artifact.getArtifact(), artifact.getVersion(), body);
+    this.writeRaw(artifact, content);
+    return artifact;
+  }
+
+  Path writeRaw(final Artifact artifact, final String content) throws IOException {
+    final Path file = this.getPomFolder().resolve(artifact.getRepositoryPath("pom"));
+    Files.createDirectories(file.getParent());
+    return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  PomStore createStore() {
+    return PomStore.ofStore(this.logger, this.resolver, this.engine, this.getPomFolder());
+  }
+
+  TransitiveResolver createResolver() {
+    return TransitiveResolver.ofResolver(this.logger, this.resolver, this.engine, this.folder);
+  }
+
+  Path getPomFolder() {
+    return this.folder.resolve("poms");
+  }
+
+  List<String> getWarnings() {
+    return this.warnings;
+  }
+
+  @Override
+  public void close() {
+    this.resolver.close();
+    this.engine.close();
+  }
+
+  private static final class RecordingLogger implements LoggerConfiguration {
+
+    private final List<String> warnings;
+
+    RecordingLogger(final List<String> warnings) {
+      this.warnings = warnings;
+    }
+
+    @Override
+    public void info(final String line) {}
+
+    @Override
+    public void warning(final String line) {
+      this.warnings.add(line);
+    }
+
+    @Override
+    public void error(final String line) {
+      this.warnings.add(line);
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.dependencies;
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.dependency;
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.exclusion;
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.management;
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.parent;
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.properties;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class PomStoreTest {
+
+  private static final String GROUP = "test.fixture";
+
+  @TempDir Path folder;
+
+  private PomFixtures fixtures;
+  private PomStore store;
+
+  @BeforeEach
+  void setUp() {
+    this.fixtures = new PomFixtures(this.folder);
+    this.store = this.fixtures.createStore();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.fixtures.close();
+  }
+
+  @Test
+  void inheritsPropertiesManagementAndDependenciesFromParent() throws IOException {
+    this.fixtures.write(
+        artifact("parent", "1"),
+        properties("lib.version", "1.0", "other.version", "2.0")
+            + management(dependency(GROUP, "managed", "${other.version}"))
+            + dependencies(
+                dependency(GROUP, "inherited", "3.0"), dependency(GROUP, "overridden", "4.0")));
+    final Artifact child =
+        this.fixtures.write(
+            artifact("child", "1"),
+            parent(GROUP, "parent", "1")
+                + properties("lib.version", "1.5")
+                + dependencies(
+                    dependency(GROUP, "lib", "${lib.version}"),
+                    dependency(GROUP, "managed", null),
+                    dependency(GROUP, "overridden", "5.0")));
+
+    assertEquals(
+        Arrays.asList("lib:1.5", "managed:2.0", "overridden:5.0", "inherited:3.0"),
+        this.getDependencies(child));
+    assertTrue(this.store.isComplete());
+  }
+
+  @Test
+  void inheritsGroupAndVersionFromParent() throws IOException {
+    this.fixtures.write(artifact("parent", "7"), "");
+    final Artifact child = artifact("child", "7");
+    this.fixtures.writeRaw(
+        child,
+        "<project>"
+            + parent(GROUP, "parent", "7")
+            + "<artifactId>child</artifactId>"
+            + dependencies(dependency("${project.groupId}", "sibling", "${project.version}"))
+            + "</project>");
+
+    assertEquals(Collections.singletonList("sibling:7"), this.getDependencies(child));
+  }
+
+  @Test
+  void importsManagementFromBoms() throws IOException {
+    this.fixtures.write(
+        artifact("bom", "1"),
+        management(dependency(GROUP, "a", "1.0"), dependency(GROUP, "b", "1.0")));
+    final Artifact app =
+        this.fixtures.write(
+            artifact("app", "1"),
+            management(
+                dependency(GROUP, "bom", "1", "<type>pom</type><scope>import</scope>"),
+                dependency(GROUP, "b", "2.0"))
+                + dependencies(dependency(GROUP, "a", null), dependency(GROUP, "b", null)));
+
+    assertEquals(Arrays.asList("a:1.0", "b:2.0"), this.getDependencies(app));
+  }
+
+  @Test
+  void importsManagementFromBomsOfParents() throws IOException {
+    this.fixtures.write(artifact("bom", "1"), management(dependency(GROUP, "a", "1.0")));
+    this.fixtures.write(
+        artifact("parent", "1"),
+        management(dependency(GROUP, "bom", "1", "<type>pom</type><scope>import</scope>")));
+    final Artifact app =
+        this.fixtures.write(
+            artifact("app", "1"),
+            parent(GROUP, "parent", "1") + dependencies(dependency(GROUP, "a", null)));
+
+    assertEquals(Collections.singletonList("a:1.0"), this.getDependencies(app));
+  }
+
+  @Test
+  void interpolatesBuiltInAndNestedProperties() throws IOException {
+    final Artifact app =
+        this.fixtures.write(
+            artifact("app", "3.1"),
+            properties("base", "2", "full", "${base}.5", "scope.name", "runtime")
+                + dependencies(
+                    dependency("${project.groupId}", "core", "${project.version}"),
+                    dependency(GROUP, "pom-style", "${pom.version}"),
+                    dependency(GROUP, "nested", "${full}", "<scope>${scope.name}</scope>")));
+
+    assertEquals(
+        Arrays.asList("core:3.1", "pom-style:3.1", "nested:2.5"), this.getDependencies(app));
+  }
+
+  @Test
+  void skipsUnresolvedVersions() throws IOException {
+    final Artifact app =
+        this.fixtures.write(
+            artifact("app", "1"),
+            dependencies(
+                dependency(GROUP, "unresolved", "${missing.version}"),
+                dependency(GROUP, "unversioned", null),
+                dependency(GROUP, "kept", "1.0")));
+
+    assertEquals(Collections.singletonList("kept:1.0"), this.getDependencies(app));
+    assertEquals(2, this.fixtures.getWarnings().size());
+  }
+
+  @Test
+  void normalizesVersionRanges() throws IOException {
+    final Artifact app =
+        this.fixtures.write(
+            artifact("app", "1"),
+            dependencies(
+                dependency(GROUP, "lower", "[1.0,2.0)"),
+                dependency(GROUP, "pinned", "[1.5]"),
+                dependency(GROUP, "upper", "(,2.0]"),
+                dependency(GROUP, "open", "(1.0,)"),
+                dependency(GROUP, "exclusive", "(1.0,2.0)")));
+
+    assertEquals(
+        Arrays.asList("lower:1.0", "pinned:1.5", "upper:2.0"), this.getDependencies(app));
+  }
+
+  @Test
+  void keepsOnlyRuntimeJarDependencies() throws IOException {
+    final Artifact app =
+        this.fixtures.write(
+            artifact("app", "1"),
+            management(dependency(GROUP, "managed-test", null, "<scope>test</scope>"))
+                + dependencies(
+                    dependency(GROUP, "compile", "1"),
+                    dependency(GROUP, "runtime", "1", "<scope>runtime</scope>"),
+                    dependency(GROUP, "bundle", "1", "<type>bundle</type>"),
+                    dependency(GROUP, "test", "1", "<scope>test</scope>"),
+                    dependency(GROUP, "provided", "1", "<scope>provided</scope>"),
+                    dependency(GROUP, "optional", "1", "<optional>true</optional>"),
+                    dependency(GROUP, "classified", "1", "<classifier>natives</classifier>"),
+                    dependency(GROUP, "pom", "1", "<type>pom</type>"),
+                    dependency(GROUP, "managed-test", "1")));
+
+    assertEquals(
+        Arrays.asList("compile:1", "runtime:1", "bundle:1"), this.getDependencies(app));
+  }
+
+  @Test
+  void mergesManagedExclusions() throws IOException {
+    final Artifact app =
+        this.fixtures.write(
+            artifact("app", "1"),
+            management(dependency(GROUP, "lib", "1", exclusion("managed", "*")))
+                + dependencies(dependency(GROUP, "lib", null, exclusion("*", "declared"))));
+
+    final List<PomDependency> dependencies = this.store.getDependencies(app).join();
+    assertEquals(1, dependencies.size());
+    assertEquals(
+        new HashSet<>(Arrays.asList("managed:*", "*:declared")),
+        dependencies.get(0).getExclusions());
+  }
+
+  @Test
+  void marksMissingPomsIncomplete() {
+    assertTrue(this.store.getDependencies(artifact("absent", "1")).join().isEmpty());
+    assertFalse(this.store.isComplete());
+  }
+
+  @Test
+  void deletesMalformedPoms() throws IOException {
+    final Artifact broken = artifact("broken", "1");
+    final Path file = this.fixtures.writeRaw(broken, "<project><dependencies>");
+
+    assertTrue(this.store.getDependencies(broken).join().isEmpty());
+    assertFalse(this.store.isComplete());
+    assertFalse(Files.exists(file));
+  }
+
+  private List<String> getDependencies(final Artifact artifact) {
+    final List<String> names = new ArrayList<>();
+    for (final PomDependency dependency : this.store.getDependencies(artifact).join()) {
+      assertEquals(GROUP, dependency.getGroup());
+      names.add(String.format("%s:%s", dependency.getArtifact(), dependency.getVersion()));
+    }
+    return names;
+  }
+
+  private static Artifact artifact(final String artifact, final String version) {
+    return Artifact.ofArtifact(GROUP, artifact, version);
+  }
+}
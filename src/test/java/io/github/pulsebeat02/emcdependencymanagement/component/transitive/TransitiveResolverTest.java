@@ -0,0 +1,157 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.component.transitive;
+
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.dependencies;
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.dependency;
+import static io.github.pulsebeat02.emcdependencymanagement.component.transitive.PomFixtures.exclusion;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.pulsebeat02.emcdependencymanagement.component.Artifact;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+final class TransitiveResolverTest {
+
+  private static final String GROUP = "test.fixture";
+
+  @TempDir Path folder;
+
+  private PomFixtures fixtures;
+  private TransitiveResolver resolver;
+
+  @BeforeEach
+  void setUp() {
+    this.fixtures = new PomFixtures(this.folder);
+    this.resolver = this.fixtures.createResolver();
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.fixtures.close();
+  }
+
+  @Test
+  void selectsNearestVersion() throws IOException {
+    this.write("app", "1", dependency(GROUP, "a", "1"), dependency(GROUP, "b", "1"));
+    this.write("a", "1", dependency(GROUP, "c", "1"));
+    this.write("c", "1", dependency(GROUP, "shared", "1"));
+    this.write("b", "1", dependency(GROUP, "shared", "2"));
+    this.write("shared", "1");
+    this.write("shared", "2");
+
+    assertEquals(
+        Arrays.asList("app:1", "a:1", "b:1", "c:1", "shared:2"),
+        this.resolve(artifact("app", "1")));
+    assertTrue(this.resolver.isComplete());
+  }
+
+  @Test
+  void selectsFirstDeclaredAtEqualDepth() throws IOException {
+    this.write("app", "1", dependency(GROUP, "a", "1"), dependency(GROUP, "b", "1"));
+    this.write("a", "1", dependency(GROUP, "shared", "1"));
+    this.write("b", "1", dependency(GROUP, "shared", "2"));
+    this.write("shared", "1");
+
+    assertEquals(
+        Arrays.asList("app:1", "a:1", "b:1", "shared:1"), this.resolve(artifact("app", "1")));
+  }
+
+  @Test
+  void prefersDeclaredVersions() throws IOException {
+    this.write("app", "1", dependency(GROUP, "shared", "1"));
+    this.write("shared", "2");
+
+    assertEquals(
+        Arrays.asList("app:1", "shared:2"),
+        this.resolve(artifact("app", "1"), artifact("shared", "2")));
+    assertTrue(this.resolver.isComplete());
+  }
+
+  @Test
+  void appliesWildcardExclusionsDownThePath() throws IOException {
+    this.write(
+        "app",
+        "1",
+        dependency(GROUP, "a", "1", exclusion("*", "excluded")),
+        dependency(GROUP, "b", "1", exclusion("other.group", "*")),
+        dependency(GROUP, "c", "1", exclusion("*", "*")));
+    this.write("a", "1", dependency(GROUP, "nested", "1"));
+    this.write("nested", "1", dependency(GROUP, "excluded", "1"), dependency(GROUP, "kept", "1"));
+    this.write("b", "1", dependency("other.group", "dropped", "1"));
+    this.write("c", "1", dependency(GROUP, "hidden", "1"));
+    this.write("kept", "1");
+
+    assertEquals(
+        Arrays.asList("app:1", "a:1", "b:1", "c:1", "nested:1", "kept:1"),
+        this.resolve(artifact("app", "1")));
+  }
+
+  @Test
+  void excludesExactCoordinates() throws IOException {
+    this.write("app", "1", dependency(GROUP, "a", "1", exclusion(GROUP, "excluded")));
+    this.write("a", "1", dependency(GROUP, "excluded", "1"), dependency(GROUP, "kept", "1"));
+    this.write("kept", "1");
+
+    assertEquals(Arrays.asList("app:1", "a:1", "kept:1"), this.resolve(artifact("app", "1")));
+  }
+
+  @Test
+  void reportsIncompleteResolution() throws IOException {
+    this.write("app", "1", dependency(GROUP, "absent", "1"));
+
+    assertEquals(Arrays.asList("app:1", "absent:1"), this.resolve(artifact("app", "1")));
+    assertFalse(this.resolver.isComplete());
+
+    this.write("absent", "1");
+    this.resolve(artifact("app", "1"));
+    assertTrue(this.resolver.isComplete());
+  }
+
+  private void write(final String artifact, final String version, final String... dependencies)
+      throws IOException {
+    this.fixtures.write(artifact(artifact, version), dependencies(dependencies));
+  }
+
+  private List<String> resolve(final Artifact... declared) throws IOException {
+    final List<String> names = new ArrayList<>();
+    for (final Artifact artifact : this.resolver.resolve(Arrays.asList(declared))) {
+      names.add(String.format("%s:%s", artifact.getArtifact(), artifact.getVersion()));
+    }
+    return names;
+  }
+
+  private static Artifact artifact(final String artifact, final String version) {
+    return Artifact.ofArtifact(GROUP, artifact, version);
+  }
+}
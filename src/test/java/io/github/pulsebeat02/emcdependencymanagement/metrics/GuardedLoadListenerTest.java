@@ -0,0 +1,124 @@
+/**
+ * MIT License
+ *
+ * Copyright (c) 2023 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.emcdependencymanagement.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.pulsebeat02.emcdependencymanagement.logger.LoggerConfiguration;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+final class GuardedLoadListenerTest {
+
+  @Test
+  void logsAndSwallowsListenerFailures() {
+    final List<String> warnings = new ArrayList<>();
+    final LoadListener listener = LoadListener.guarded(new FailingListener(), new Logger(warnings));
+
+    listener.onPhase(LoadPhase.INSTALL, 1L);
+    listener.onSearched("com.example:app:1.0", true);
+    listener.onResolved("com.example:app:1.0", "https://repo.example/", false, 1L);
+    listener.onDownloaded("com.example:app:1.0", "https://repo.example/app.jar", 1L, 1L);
+    listener.onVerified("com.example:app:1.0", 1L);
+    listener.onRelocated("com.example:app:1.0", false, 1L);
+    listener.onInjected("com.example:app:1.0", Paths.get("app-1.0.jar"), 1L);
+
+    assertEquals(7, warnings.size());
+  }
+
+  @Test
+  void guardsListenersOnce() {
+    final Logger logger = new Logger(new ArrayList<>());
+    final LoadListener guarded = LoadListener.guarded(new FailingListener(), logger);
+
+    assertSame(guarded, LoadListener.guarded(guarded, logger));
+    assertSame(LoadListener.empty(), LoadListener.guarded(LoadListener.empty(), logger));
+  }
+
+  private static final class FailingListener implements LoadListener {
+
+    @Override
+    public void onPhase(final LoadPhase phase, final long nanos) {
+      throw new IllegalStateException("phase");
+    }
+
+    @Override
+    public void onSearched(final String coordinates, final boolean installed) {
+      throw new IllegalStateException("searched");
+    }
+
+    @Override
+    public void onResolved(
+        final String coordinates, final String repository, final boolean cached, final long nanos) {
+      throw new IllegalStateException("resolved");
+    }
+
+    @Override
+    public void onDownloaded(
+        final String coordinates, final String url, final long bytes, final long nanos) {
+      throw new IllegalStateException("downloaded");
+    }
+
+    @Override
+    public void onVerified(final String coordinates, final long nanos) {
+      throw new IllegalStateException("verified");
+    }
+
+    @Override
+    public void onRelocated(final String coordinates, final boolean cached, final long nanos) {
+      throw new IllegalStateException("relocated");
+    }
+
+    @Override
+    public void onInjected(final String coordinates, final Path jar, final long nanos) {
+      throw new IllegalStateException("injected");
+    }
+  }
+
+  private static final class Logger implements LoggerConfiguration {
+
+    private final List<String> warnings;
+
+    Logger(final List<String> warnings) {
+      this.warnings = warnings;
+    }
+
+    @Override
+    public void info(final String line) {}
+
+    @Override
+    public void warning(final String line) {
+      this.warnings.add(line);
+    }
+
+    @Override
+    public void error(final String line) {
+      this.warnings.add(line);
+    }
+  }
+}